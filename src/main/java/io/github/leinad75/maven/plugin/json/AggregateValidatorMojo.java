@@ -0,0 +1,272 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import io.github.leinad75.maven.plugin.json.util.AsyncLog;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
+import org.codehaus.plexus.component.configurator.converters.lookup.ConverterLookup;
+import org.codehaus.plexus.component.configurator.converters.lookup.DefaultConverterLookup;
+import org.codehaus.plexus.component.configurator.expression.DefaultExpressionEvaluator;
+import org.codehaus.plexus.configuration.xml.XmlPlexusConfiguration;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * JSON validator for a whole reactor. Collects the {@code validations} configured for this plugin in every module and
+ * validates all of them in one pass: each schema is loaded and compiled once, a file selected by several modules is
+ * validated once per schema, and all files share one pool of worker threads. Failures are reported per module.
+ */
+@Mojo(name = "aggregate", aggregator = true, defaultPhase = LifecyclePhase.VERIFY,
+    requiresDependencyResolution = ResolutionScope.TEST)
+public class AggregateValidatorMojo extends AbstractMojo {
+
+    private static final String VALIDATE_GOAL = "validate";
+
+    /**
+     * Number of files validated in parallel over all modules, by default the number of available processors.
+     */
+    @Parameter(property = "validate.threads", defaultValue = "0")
+    private int threads;
+
+    /**
+     * Logs a line for every successfully validated file instead of a periodic progress line.
+     */
+    @Parameter(property = "validate.verbose", defaultValue = "false")
+    private boolean verbose;
+
+    /**
+     * Maximum number of messages logged per second, the messages beyond it are counted and reported as suppressed.
+     * 0 logs every message.
+     */
+    @Parameter(property = "validate.logRate", defaultValue = "1000")
+    private int logRate;
+
+    /**
+     * Applies the sample settings of the validations. Set to {@code false} to validate all files, for example in
+     * nightly builds.
+     */
+    @Parameter(property = "validate.sampling", defaultValue = "true")
+    private boolean sampling = true;
+
+    /**
+     * Heap available to the files validated in parallel, a percentage of the maximum heap like {@code 50%} or a size
+     * like {@code 2g}. Files are admitted by their estimated heap use, so large files are validated with less
+     * concurrency.
+     */
+    @Parameter(property = "validate.heapBudget", defaultValue = "50%")
+    private String heapBudget = "50%";
+
+    /**
+     * Number of forked JVMs validating the files, {@code 0} to validate in the Maven JVM. A value ending with {@code C},
+     * like {@code 1C}, is multiplied by the number of processors. The workers are reused by all validations.
+     */
+    @Parameter(property = "validate.forkCount", defaultValue = "0")
+    private String forkCount = "0";
+
+    /**
+     * JVM arguments of the forked workers separated by whitespace, for example {@code -Xmx4g -XX:+UseParallelGC}.
+     * Quotes keep whitespace within an argument.
+     */
+    @Parameter(property = "validate.jvmArgs")
+    private String jvmArgs;
+
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+    private List<MavenProject> reactorProjects;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true)
+    private PluginDescriptor plugin;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int forks = ForkedWorkers.parseForkCount(forkCount);
+        List<String> workerJvmArgs = ForkedWorkers.parseJvmArgs(jvmArgs);
+        ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+        // executors only wait for their files, so they run on separate threads not counted in the thread budget
+        ExecutorService drivers = Executors.newFixedThreadPool(threadCount);
+        try (AsyncLog log = new AsyncLog(getLog(), logRate);
+             ForkedWorkers forkedWorkers = forks > 0 ? new ForkedWorkers(forks, workerJvmArgs) : null) {
+            ValidationContext context = new ValidationContext().setExecutorService(workers).setThreads(threadCount)
+                .setHeapBudget(heapBudget).setForkedWorkers(forkedWorkers);
+            Map<MavenProject, List<Future<Exception>>> results = new LinkedHashMap<>();
+            for (MavenProject project : reactorProjects) {
+                List<Validation> validations = getValidations(project);
+                if (validations.isEmpty()) {
+                    continue;
+                }
+                ValidatorRequest req = new ValidatorRequest();
+                req.setLog(log).setValidations(validations).setProject(project).setVerbose(verbose).setSampling(sampling)
+                    .setContext(context);
+                List<Future<Exception>> futures = new ArrayList<>();
+                for (final Validation validation : validations) {
+                    futures.add(drivers.submit(() -> perform(req, validation)));
+                }
+                results.put(project, futures);
+            }
+            try {
+                report(log, results);
+            } finally {
+                context.shutdown();
+                String memoryAdmissionSummary = context.getMemoryAdmissionSummary();
+                if (memoryAdmissionSummary != null) {
+                    log.info(memoryAdmissionSummary);
+                }
+                if (forkedWorkers != null && forkedWorkers.getSummary() != null) {
+                    log.info(forkedWorkers.getSummary());
+                }
+            }
+        } finally {
+            drivers.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    private static Exception perform(ValidatorRequest req, Validation validation) {
+        try {
+            new DefaultValidatorExecutor(req, validation).performValidation();
+            return null;
+        } catch (MojoExecutionException | MojoFailureException e) {
+            return e;
+        }
+    }
+
+    private void report(AsyncLog log, Map<MavenProject, List<Future<Exception>>> results)
+        throws MojoExecutionException, MojoFailureException {
+        List<String> failedModules = new ArrayList<>();
+        MojoExecutionException executionException = null;
+        for (Map.Entry<MavenProject, List<Future<Exception>>> entry : results.entrySet()) {
+            int failures = 0;
+            for (Future<Exception> future : entry.getValue()) {
+                Exception exception = await(future);
+                if (exception instanceof MojoExecutionException && executionException == null) {
+                    executionException = (MojoExecutionException) exception;
+                }
+                if (exception != null) {
+                    failures++;
+                }
+            }
+            String module = entry.getKey().getGroupId() + ":" + entry.getKey().getArtifactId();
+            if (failures == 0) {
+                log.info("Module: " + module + " - " + entry.getValue().size() + " validations - Success");
+            } else {
+                log.error("Module: " + module + " - " + failures + " of " + entry.getValue().size() + " validations failed");
+                failedModules.add(module);
+            }
+        }
+        if (executionException != null) {
+            throw executionException;
+        }
+        if (!failedModules.isEmpty()) {
+            throw new MojoFailureException("Failed while validating json files of modules " + failedModules);
+        }
+    }
+
+    private static Exception await(Future<Exception> future) throws MojoExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while validating json files", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Failed while validating json files", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the validations configured for the {@code validate} goal of this plugin in the module. Relative paths
+     * are resolved against the base directory of the module, a schema bundle only if it is a file of the module and
+     * not a {@code groupId:artifactId}. Dependencies are matched against the artifacts of the module.
+     */
+    private List<Validation> getValidations(MavenProject project) throws MojoExecutionException {
+        List<Validation> validations = new ArrayList<>();
+        Plugin modulePlugin = project.getPlugin(getPluginKey());
+        if (modulePlugin == null) {
+            return validations;
+        }
+        List<Object> configurations = new ArrayList<>();
+        for (PluginExecution execution : modulePlugin.getExecutions()) {
+            if (execution.getGoals().contains(VALIDATE_GOAL)) {
+                configurations.add(execution.getConfiguration());
+            }
+        }
+        if (configurations.isEmpty()) {
+            configurations.add(modulePlugin.getConfiguration());
+        }
+        for (Object configuration : configurations) {
+            Xpp3Dom validationsDom = configuration == null ? null : ((Xpp3Dom) configuration).getChild("validations");
+            if (validationsDom == null) {
+                continue;
+            }
+            for (Xpp3Dom validationDom : validationsDom.getChildren()) {
+                Validation validation = toValidation(validationDom, project);
+                validation.setDirectory(resolve(project, validation.getDirectory()));
+                validation.setJsonFile(resolve(project, validation.getJsonFile()));
+                validation.setJsonSchema(resolve(project, validation.getJsonSchema()));
+                validation.setSchemaMirror(resolve(project, validation.getSchemaMirror()));
+                String schemaBundle = resolve(project, validation.getSchemaBundle());
+                if (schemaBundle != null && new File(schemaBundle).isFile()) {
+                    validation.setSchemaBundle(schemaBundle);
+                }
+                validations.add(validation);
+            }
+        }
+        return validations;
+    }
+
+    private Validation toValidation(Xpp3Dom validationDom, MavenProject project) throws MojoExecutionException {
+        ConverterLookup converterLookup = new DefaultConverterLookup();
+        try {
+            return (Validation) converterLookup.lookupConverterForType(Validation.class).fromConfiguration(converterLookup,
+                new XmlPlexusConfiguration(validationDom), Validation.class, null, getClass().getClassLoader(),
+                new DefaultExpressionEvaluator(), null);
+        } catch (ComponentConfigurationException e) {
+            throw new MojoExecutionException("Invalid validation configuration in module " + project.getId(), e);
+        }
+    }
+
+    private static String resolve(MavenProject project, String path) {
+        if (path == null || path.isBlank() || new File(path).isAbsolute() || project.getBasedir() == null) {
+            return path;
+        }
+        return new File(project.getBasedir(), path).getPath();
+    }
+
+    private String getPluginKey() {
+        if (plugin != null) {
+            return plugin.getPluginLookupKey();
+        }
+        return "io.github.leinad75:json-validator-maven-plugin";
+    }
+}
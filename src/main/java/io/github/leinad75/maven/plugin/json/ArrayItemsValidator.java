@@ -0,0 +1,315 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonNodePath;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.PathType;
+import com.networknt.schema.ValidationMessage;
+import io.github.leinad75.maven.plugin.json.codegen.GeneratedValidator;
+import io.github.leinad75.maven.plugin.json.util.RecordFingerprints;
+import io.github.leinad75.maven.plugin.json.util.RecordingInputStream;
+import io.github.leinad75.maven.plugin.json.util.SchemaProfiler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Validates the elements of a top-level array against the items schema without reading the whole array into memory.
+ * The array is streamed, cut into batches of elements and the batches are validated on a work-stealing pool shared by
+ * all files of the run. The number of batches read ahead is limited, so the memory used is bounded by the batch size. Messages keep the
+ * instance location of the element in the whole document, for example {@code /1234/name}.
+ * <p>
+ * With known {@link RecordFingerprints} the elements are skipped by the parser without building nodes, and only the
+ * elements whose fingerprint is not known are parsed from their bytes and validated.
+ */
+class ArrayItemsValidator {
+
+    /**
+     * Maximum number of messages kept for a file, those of the lowest array indexes. Further messages are only counted.
+     */
+    static final int MAX_MESSAGES = 100;
+
+    private static final Comparator<ValidationMessage> BY_INDEX =
+        Comparator.comparingInt((ValidationMessage message) -> (Integer) message.getInstanceLocation().getElement(0))
+            .thenComparing(message -> message.getInstanceLocation().toString())
+            .thenComparing(ValidationMessage::toString);
+
+    private final ObjectMapper objectMapper;
+    private final JsonSchema itemsSchema;
+    private final int batchSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * The kept messages, the one of the highest index first so it is replaced by a message of a lower index.
+     */
+    private final PriorityQueue<ValidationMessage> messages = new PriorityQueue<>(BY_INDEX.reversed());
+    private final AtomicInteger messageCount = new AtomicInteger();
+    private final Set<Integer> failedItems = ConcurrentHashMap.newKeySet();
+    private RecordFingerprints knownRecords;
+    private SchemaProfiler profiler;
+    private GeneratedValidator generatedValidator;
+    private String profileName;
+    private long[] fingerprints = new long[0];
+    private int itemCount;
+    private int unchangedCount;
+
+    ArrayItemsValidator(final ObjectMapper objectMapper, final JsonSchema itemsSchema, final int batchSize,
+        final ForkJoinPool pool) {
+        this.objectMapper = objectMapper;
+        this.itemsSchema = itemsSchema;
+        this.batchSize = Math.max(batchSize, 1);
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the fingerprints of the elements validated successfully before, these elements are not validated again.
+     */
+    void setKnownRecords(final RecordFingerprints knownRecords) {
+        this.knownRecords = knownRecords;
+    }
+
+    /**
+     * Sets the profiler the elements are walked with instead of being validated, each element with a root frame of the
+     * given name.
+     */
+    void setProfiler(final SchemaProfiler profiler, final String profileName) {
+        this.profiler = profiler;
+        this.profileName = profileName;
+    }
+
+    /**
+     * Sets the validator generated from the items schema, which checks the elements first. Only the elements it does
+     * not accept are validated by the interpreter.
+     */
+    void setGeneratedValidator(final GeneratedValidator generatedValidator) {
+        this.generatedValidator = generatedValidator;
+    }
+
+    /**
+     * Validates all elements of the array read from the stream, which is closed afterwards.
+     *
+     * @throws IOException if the document can not be parsed or is not an array
+     */
+    void validate(final InputStream inputStream) throws IOException {
+        if (knownRecords == null) {
+            validate(objectMapper.getFactory().createParser(inputStream));
+            return;
+        }
+        RecordingInputStream recordingInputStream = new RecordingInputStream(inputStream);
+        validate(objectMapper.getFactory().createParser(recordingInputStream), recordingInputStream);
+    }
+
+    /**
+     * Validates all elements of the array read by the parser, which is closed afterwards.
+     *
+     * @throws IOException if the document can not be parsed or is not an array
+     */
+    void validate(final JsonParser parser) throws IOException {
+        validate(parser, null);
+    }
+
+    private void validate(final JsonParser parser, final RecordingInputStream recordingInputStream) throws IOException {
+        Semaphore batchesAhead = new Semaphore(pool.getParallelism() * 2);
+        // tasks are not kept, a validated batch is unreachable, the phaser only counts the pending batches
+        Phaser pendingBatches = new Phaser(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (JsonParser jsonParser = parser) {
+            if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a top-level array");
+            }
+            List<JsonNode> batch = new ArrayList<>(batchSize);
+            List<Integer> indexes = new ArrayList<>(batchSize);
+            JsonToken token;
+            while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+                int index = itemCount++;
+                JsonNode item = recordingInputStream == null
+                    ? objectMapper.readTree(jsonParser) : readChangedItem(jsonParser, token, recordingInputStream, index);
+                if (item == null) {
+                    continue;
+                }
+                batch.add(item);
+                indexes.add(index);
+                if (batch.size() == batchSize) {
+                    submit(batchesAhead, pendingBatches, failure, batch, indexes);
+                    batch = new ArrayList<>(batchSize);
+                    indexes = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batchesAhead, pendingBatches, failure, batch, indexes);
+            }
+            pendingBatches.arriveAndAwaitAdvance();
+            if (failure.get() instanceof RuntimeException) {
+                throw (RuntimeException) failure.get();
+            } else if (failure.get() != null) {
+                throw (Error) failure.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating array items", e);
+        }
+    }
+
+    /**
+     * Skips the element starting with the current token and returns it parsed from its bytes, or {@code null} if its
+     * fingerprint is known.
+     */
+    private JsonNode readChangedItem(final JsonParser jsonParser, final JsonToken token,
+        final RecordingInputStream recordingInputStream, final int index) throws IOException {
+        long start = jsonParser.currentTokenLocation().getByteOffset();
+        if (token.isStructStart()) {
+            jsonParser.skipChildren();
+        } else {
+            jsonParser.finishToken();
+        }
+        long end = jsonParser.currentLocation().getByteOffset();
+        if (start < 0 || end < start) {
+            throw new IOException("Record fingerprints require a UTF-8 encoded document");
+        }
+        byte[] bytes = recordingInputStream.getBuffer();
+        int offset = recordingInputStream.indexOf(start);
+        int length = (int) (end - start);
+        long fingerprint = RecordFingerprints.fingerprint(bytes, offset, length);
+        if (index == fingerprints.length) {
+            fingerprints = Arrays.copyOf(fingerprints, Math.max(16, fingerprints.length * 2));
+        }
+        fingerprints[index] = fingerprint;
+        JsonNode item = null;
+        if (knownRecords.contains(fingerprint)) {
+            unchangedCount++;
+        } else {
+            item = objectMapper.readTree(bytes, offset, length);
+        }
+        recordingInputStream.discard(end);
+        return item;
+    }
+
+    private void submit(final Semaphore batchesAhead, final Phaser pendingBatches,
+        final AtomicReference<Throwable> failure, final List<JsonNode> batch, final List<Integer> indexes)
+        throws InterruptedException {
+        batchesAhead.acquire();
+        pendingBatches.register();
+        pool.execute(() -> {
+            try {
+                JsonNodePath root = new JsonNodePath(PathType.JSON_POINTER);
+                for (int i = 0; i < batch.size(); i++) {
+                    JsonNode item = batch.get(i);
+                    int index = indexes.get(i);
+                    for (ValidationMessage message : validateItem(item, root.append(index))) {
+                        failedItems.add(index);
+                        messageCount.incrementAndGet();
+                        keep(message);
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                batch.clear();
+                indexes.clear();
+                batchesAhead.release();
+                pendingBatches.arriveAndDeregister();
+            }
+        });
+    }
+
+    private Set<ValidationMessage> validateItem(final JsonNode item, final JsonNodePath instanceLocation) {
+        if (profiler == null && generatedValidator != null && generatedValidator.isValid(item)) {
+            return Collections.emptySet();
+        }
+        if (profiler == null) {
+            return itemsSchema.validate(itemsSchema.createExecutionContext(), item, item, instanceLocation);
+        }
+        return profiler.profile(profileName,
+            () -> itemsSchema.walkAtNode(itemsSchema.createExecutionContext(), item, item, instanceLocation, true)
+                .getValidationMessages());
+    }
+
+    /**
+     * Keeps the message if it is among the {@value #MAX_MESSAGES} messages of the lowest indexes seen so far, so the
+     * kept messages do not depend on the order the batches are validated in.
+     */
+    private void keep(final ValidationMessage message) {
+        synchronized (messages) {
+            if (messages.size() < MAX_MESSAGES) {
+                messages.add(message);
+            } else if (BY_INDEX.compare(message, messages.peek()) < 0) {
+                messages.poll();
+                messages.add(message);
+            }
+        }
+    }
+
+    int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Returns the number of elements skipped because their fingerprint is known.
+     */
+    int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * Returns the fingerprints of all elements which are valid, only collected with known records.
+     */
+    long[] getValidFingerprints() {
+        if (knownRecords == null) {
+            return new long[0];
+        }
+        long[] valid = new long[itemCount - failedItems.size()];
+        int count = 0;
+        for (int index = 0; index < itemCount; index++) {
+            if (!failedItems.contains(index)) {
+                valid[count++] = fingerprints[index];
+            }
+        }
+        return valid;
+    }
+
+    int getMessageCount() {
+        return messageCount.get();
+    }
+
+    /**
+     * Returns the kept messages ordered by array index.
+     */
+    List<ValidationMessage> getMessages() {
+        List<ValidationMessage> sorted;
+        synchronized (messages) {
+            sorted = new ArrayList<>(messages);
+        }
+        sorted.sort(BY_INDEX);
+        return sorted;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import io.github.leinad75.maven.plugin.json.util.AsyncLog;
+import java.util.List;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Compares the heap use and the throughput of the default Jackson document model and of the compact document model,
+ * see {@code compactDocuments}, on the files of the configured validations. Run it with the configuration of the
+ * {@code validate} goal, for example {@code mvn json-validator:benchmark}.
+ */
+@Mojo(name = "benchmark", requiresDependencyResolution = ResolutionScope.TEST)
+public class BenchmarkMojo extends AbstractMojo {
+
+    @Parameter(property = "validate.validations")
+    private List<Validation> validations;
+
+    /**
+     * Number of times the files are parsed and validated per model, the best time is reported.
+     */
+    @Parameter(property = "benchmark.iterations", defaultValue = "3")
+    private int iterations = 3;
+
+    /**
+     * Maximum number of files per validation, the first files are used.
+     */
+    @Parameter(property = "benchmark.maxFiles", defaultValue = "1000")
+    private int maxFiles = 1000;
+
+    @Parameter(defaultValue = "${project}")
+    protected MavenProject project;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try (AsyncLog log = new AsyncLog(getLog())) {
+            ValidatorRequest req = new ValidatorRequest();
+            req.setLog(log).setValidations(validations).setProject(project).setSampling(false);
+            for (final Validation validation : req.getValidations()) {
+                new DefaultValidatorExecutor(req, validation).benchmark(iterations, maxFiles);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+
+/**
+ * Prepares a schema once in the module owning it and attaches the result as an artifact with the classifier
+ * {@code schema-bundle}, see {@link SchemaBundle}. Validations of other modules reference the artifact by its
+ * {@code groupId:artifactId} in {@code schemaBundle} instead of the schema file.
+ */
+@Mojo(name = "bundle-schema", defaultPhase = LifecyclePhase.PACKAGE)
+public class BundleSchemaMojo extends AbstractMojo {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * The schema file to bundle.
+     */
+    @Parameter(property = "bundle.jsonSchema", required = true)
+    private String jsonSchema;
+
+    /**
+     * Validates the schema against its meta schema, consumers of the bundle do not repeat it.
+     */
+    @Parameter(defaultValue = "true")
+    private boolean metaValidation = true;
+
+    /**
+     * Directory mirroring the remote documents referenced by the schema, see {@link Validation#getSchemaMirror()}.
+     */
+    @Parameter
+    private String schemaMirror;
+
+    /**
+     * Fails instead of fetching referenced documents from the network.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean strictOffline;
+
+    @Parameter(defaultValue = "${project.build.directory}/${project.build.finalName}-schema-bundle.smile")
+    private File outputFile;
+
+    /**
+     * Attaches the bundle to the project, so it is installed and deployed with the other artifacts.
+     */
+    @Parameter(defaultValue = "true")
+    private boolean attach = true;
+
+    @Parameter(defaultValue = "${project}")
+    protected MavenProject project;
+
+    @Component
+    private MavenProjectHelper projectHelper;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        Validation validation = new Validation();
+        validation.setJsonSchema(jsonSchema);
+        validation.setMetaValidation(metaValidation);
+        validation.setSchemaMirror(schemaMirror);
+        validation.setStrictOffline(strictOffline);
+        ValidatorRequest req = new ValidatorRequest().setLog(getLog()).setProject(project);
+
+        SchemaBundle bundle = new DefaultValidatorExecutor(req, validation).createSchemaBundle();
+        try {
+            bundle.write(OBJECT_MAPPER, outputFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write schema bundle " + outputFile, e);
+        }
+        getLog().info("Schema " + jsonSchema + " bundled with " + bundle.getDocuments().size()
+            + " referenced documents to " + outputFile);
+        if (attach) {
+            projectHelper.attachArtifact(project, SchemaBundle.TYPE, SchemaBundle.CLASSIFIER, outputFile);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.leinad75.maven.plugin.json.util.JsonSubtreeReader;
+import io.github.leinad75.maven.plugin.json.util.ValueIndex;
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Uniqueness and referential integrity checks over all files of a validation. The values at the configured pointers
+ * are taken from each file while it is validated and only their 64 bit hashes are kept, in one {@link ValueIndex}
+ * per pointer. Duplicates are found while adding, references are checked once all files are added. A value at a
+ * pointer may also be an array, then each of its elements is a value.
+ */
+class CrossFileChecks implements Closeable {
+
+    /**
+     * Maximum number of duplicates and of missing references reported, further ones are only counted.
+     */
+    static final int MAX_MESSAGES = 100;
+
+    private final List<String> files;
+    private final List<Reference> references;
+    private final Map<String, ValueIndex> uniqueIndexes = new LinkedHashMap<>();
+    private final Map<String, ValueIndex> targetIndexes = new LinkedHashMap<>();
+    private final Map<Reference, ValueIndex> sourceIndexes = new LinkedHashMap<>();
+    private final Queue<String> duplicates = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger duplicateCount = new AtomicInteger();
+
+    /**
+     * @param spillDirectory directory of memory mapped indexes, or {@code null} to keep them on the heap
+     */
+    CrossFileChecks(final Validation validation, final List<String> files, final File spillDirectory) {
+        this.files = files;
+        this.references = validation.getReferences();
+        for (String pointer : validation.getUniqueKeys()) {
+            uniqueIndexes.put(JsonSubtreeReader.normalize(pointer), new ValueIndex(spillDirectory));
+        }
+        for (Reference reference : references) {
+            String target = JsonSubtreeReader.normalize(reference.getTarget());
+            targetIndexes.put(target, uniqueIndexes.containsKey(target)
+                ? uniqueIndexes.get(target) : new ValueIndex(spillDirectory));
+            sourceIndexes.put(reference, new ValueIndex(spillDirectory));
+        }
+    }
+
+    static boolean isConfigured(final Validation validation) {
+        return !validation.getUniqueKeys().isEmpty() || !validation.getReferences().isEmpty();
+    }
+
+    /**
+     * Returns the pointers whose values are needed from each file.
+     */
+    Set<String> getPointers() {
+        Set<String> pointers = new LinkedHashSet<>(uniqueIndexes.keySet());
+        pointers.addAll(targetIndexes.keySet());
+        for (Reference reference : references) {
+            pointers.add(JsonSubtreeReader.normalize(reference.getPointer()));
+        }
+        return pointers;
+    }
+
+    /**
+     * Adds the values of a file.
+     *
+     * @param values returns the value at a pointer of the file, or {@code null} if there is none
+     */
+    void add(final int fileIndex, final Function<String, JsonNode> values) {
+        for (Map.Entry<String, ValueIndex> entry : uniqueIndexes.entrySet()) {
+            for (JsonNode value : getValues(values.apply(entry.getKey()))) {
+                int previous = entry.getValue().putIfAbsent(ValueIndex.hash(value.toString()), fileIndex);
+                if (previous >= 0 && duplicateCount.incrementAndGet() <= MAX_MESSAGES) {
+                    duplicates.add("Duplicate value " + value + " at " + entry.getKey() + (previous == fileIndex
+                        ? " in file " + files.get(fileIndex)
+                        : " in files " + files.get(previous) + " and " + files.get(fileIndex)));
+                }
+            }
+        }
+        for (Map.Entry<String, ValueIndex> entry : targetIndexes.entrySet()) {
+            if (!uniqueIndexes.containsKey(entry.getKey())) {
+                for (JsonNode value : getValues(values.apply(entry.getKey()))) {
+                    entry.getValue().putIfAbsent(ValueIndex.hash(value.toString()), fileIndex);
+                }
+            }
+        }
+        for (Map.Entry<Reference, ValueIndex> entry : sourceIndexes.entrySet()) {
+            for (JsonNode value : getValues(values.apply(JsonSubtreeReader.normalize(entry.getKey().getPointer())))) {
+                entry.getValue().putIfAbsent(ValueIndex.hash(value.toString()), fileIndex);
+            }
+        }
+    }
+
+    /**
+     * Returns a message for every duplicate and every referenced value which does not exist. As only hashes are
+     * kept, the text of a missing value is read again from the first file referencing it.
+     *
+     * @param reader returns the value at a pointer of a file, or {@code null} if it can not be read
+     */
+    List<String> check(final BiFunction<Integer, String, JsonNode> reader) {
+        List<String> messages = new ArrayList<>(duplicates);
+        if (duplicateCount.get() > MAX_MESSAGES) {
+            messages.add("... " + (duplicateCount.get() - MAX_MESSAGES) + " more duplicate values");
+        }
+        for (Reference reference : references) {
+            ValueIndex targetIndex = targetIndexes.get(JsonSubtreeReader.normalize(reference.getTarget()));
+            List<long[]> missing = new ArrayList<>();
+            sourceIndexes.get(reference).forEach((hash, fileIndex) -> {
+                if (!targetIndex.contains(hash)) {
+                    missing.add(new long[] {hash, fileIndex});
+                }
+            });
+            missing.sort((a, b) -> Long.compare(a[1], b[1]));
+            for (long[] entry : missing.subList(0, Math.min(missing.size(), MAX_MESSAGES))) {
+                String file = files.get((int) entry[1]);
+                messages.add("Value " + findValue(reader.apply((int) entry[1], reference.getPointer()), entry[0])
+                    + " at " + reference.getPointer() + " in file " + file + " not found at " + reference.getTarget()
+                    + " in any file");
+            }
+            if (missing.size() > MAX_MESSAGES) {
+                messages.add("... " + (missing.size() - MAX_MESSAGES) + " more values at " + reference.getPointer()
+                    + " not found at " + reference.getTarget());
+            }
+        }
+        return messages;
+    }
+
+    private static String findValue(final JsonNode node, final long hash) {
+        for (JsonNode value : getValues(node)) {
+            if (ValueIndex.hash(value.toString()) == hash) {
+                return value.toString();
+            }
+        }
+        return "?";
+    }
+
+    private static Iterable<JsonNode> getValues(final JsonNode node) {
+        if (node == null || node.isMissingNode()) {
+            return Collections.emptyList();
+        }
+        return node.isArray() ? node : Collections.singletonList(node);
+    }
+
+    @Override
+    public void close() {
+        uniqueIndexes.values().forEach(ValueIndex::close);
+        targetIndexes.values().forEach(ValueIndex::close);
+        sourceIndexes.values().forEach(ValueIndex::close);
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.leinad75.maven.plugin.json.util.JsonInputs;
+import io.github.leinad75.maven.plugin.json.util.JsonSubtreeReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Feeds the {@link CrossFileChecks} of a validation with the keys of all its selected files. The keys of validated
+ * files are added while they are validated, those of the other selected files are read before the checks run.
+ */
+class CrossFileKeys implements Closeable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String INDEX_DIRECTORY = "json-validator/index";
+
+    private final ValidatorRequest request;
+    private final Validation validation;
+    private final JsonInputs jsonInputs;
+    private final ObjectMapper yamlMapper;
+    private final List<String> files;
+    private final Map<String, Integer> fileIndexes = new HashMap<>();
+    private final Set<Integer> keyedFiles = ConcurrentHashMap.newKeySet();
+    private final CrossFileChecks crossFileChecks;
+
+    /**
+     * @param jsonFiles all selected files, also those which will not be validated
+     */
+    CrossFileKeys(final ValidatorRequest request, final Validation validation, final List<String> jsonFiles,
+        final JsonInputs jsonInputs, final ObjectMapper yamlMapper) {
+        this.request = request;
+        this.validation = validation;
+        this.jsonInputs = jsonInputs;
+        this.yamlMapper = yamlMapper;
+        files = new ArrayList<>(jsonFiles);
+        // a file selected twice is keyed by its first index
+        for (int fileIndex = files.size() - 1; fileIndex >= 0; fileIndex--) {
+            fileIndexes.put(files.get(fileIndex), fileIndex);
+        }
+        crossFileChecks = new CrossFileChecks(validation, files, getIndexSpillDirectory());
+    }
+
+    /**
+     * Returns the pointers whose values are needed from each file.
+     */
+    Set<String> getPointers() {
+        return crossFileChecks.getPointers();
+    }
+
+    /**
+     * Adds the values of a validated file.
+     *
+     * @param values returns the value at a pointer of the file, or {@code null} if there is none
+     */
+    void add(final String jsonFile, final Function<String, JsonNode> values) {
+        int fileIndex = fileIndexes.get(jsonFile);
+        keyedFiles.add(fileIndex);
+        crossFileChecks.add(fileIndex, values);
+    }
+
+    /**
+     * Adds the values of the files not validated and returns the failures of the checks.
+     */
+    List<String> check() {
+        addKeysOfFilesNotValidated();
+        return crossFileChecks.check(this::readValue);
+    }
+
+    @Override
+    public void close() {
+        crossFileChecks.close();
+    }
+
+    private File getIndexSpillDirectory() {
+        if (!validation.isIndexOnDisk()) {
+            return null;
+        }
+        if (request.getBuildDirectory() != null) {
+            return new File(request.getBuildDirectory(), INDEX_DIRECTORY);
+        }
+        return new File(System.getProperty("java.io.tmpdir"), INDEX_DIRECTORY);
+    }
+
+    /**
+     * Adds the values of the selected files whose values were not taken while validating: files left out of the
+     * sample, validated before in the run, in a cached dependency or validated as split arrays. Only the values at the
+     * pointers of the checks are read.
+     */
+    private void addKeysOfFilesNotValidated() {
+        Set<String> pointers = crossFileChecks.getPointers();
+        IntStream.range(0, files.size())
+            .filter(fileIndex -> !keyedFiles.contains(fileIndex) && fileIndexes.get(files.get(fileIndex)) == fileIndex)
+            .parallel()
+            .forEach(fileIndex -> {
+                String file = files.get(fileIndex);
+                try {
+                    if (validation.getFormat().isYaml(file)) {
+                        try (MappingIterator<JsonNode> documents = yamlMapper.readerFor(JsonNode.class)
+                            .readValues(jsonInputs.open(file))) {
+                            while (documents.hasNextValue()) {
+                                crossFileChecks.add(fileIndex, documents.nextValue()::at);
+                            }
+                        }
+                    } else {
+                        Map<String, JsonNode> values = JsonSubtreeReader.read(OBJECT_MAPPER,
+                            OBJECT_MAPPER.getFactory().createParser(jsonInputs.open(file)), pointers);
+                        crossFileChecks.add(fileIndex, values::get);
+                    }
+                } catch (IOException e) {
+                    request.getLog().warn("File: " + file + " - reading the keys - Failure: " + e.getMessage());
+                }
+            });
+    }
+
+    /**
+     * Reads the value at the pointer of a file again, used to report values of which only the hash was kept.
+     */
+    private JsonNode readValue(final int fileIndex, final String pointer) {
+        String file = files.get(fileIndex);
+        try {
+            if (validation.getFormat().isYaml(file)) {
+                // the value of the first document holding the pointer
+                try (MappingIterator<JsonNode> documents = yamlMapper.readerFor(JsonNode.class)
+                    .readValues(jsonInputs.open(file))) {
+                    while (documents.hasNextValue()) {
+                        JsonNode value = documents.nextValue().at(JsonSubtreeReader.normalize(pointer));
+                        if (!value.isMissingNode()) {
+                            return value;
+                        }
+                    }
+                    return null;
+                }
+            }
+            return JsonSubtreeReader.read(OBJECT_MAPPER, OBJECT_MAPPER.getFactory().createParser(jsonInputs.open(file)),
+                Collections.singleton(pointer)).get(JsonSubtreeReader.normalize(pointer));
+        } catch (IOException e) {
+            request.getLog().debug("File: " + file + " - reading " + pointer + " - Failure", e);
+            return null;
+        }
+    }
+}
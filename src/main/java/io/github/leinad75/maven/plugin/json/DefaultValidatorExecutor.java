@@ -17,26 +17,49 @@ package io.github.leinad75.maven.plugin.json;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.BooleanNode;
-import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.networknt.schema.JsonSchemaException;
 import com.networknt.schema.SpecVersionDetector;
+import io.github.leinad75.maven.plugin.json.codegen.GeneratedValidator;
+import io.github.leinad75.maven.plugin.json.codegen.ValidatorEngine;
+import io.github.leinad75.maven.plugin.json.jfr.FileParseRecorder;
+import io.github.leinad75.maven.plugin.json.jfr.FileValidationEvent;
+import io.github.leinad75.maven.plugin.json.jfr.MetaValidationEvent;
+import io.github.leinad75.maven.plugin.json.jfr.SchemaLoadEvent;
+import io.github.leinad75.maven.plugin.json.util.CompactNodeFactory;
+import io.github.leinad75.maven.plugin.json.util.DependencyCache;
 import io.github.leinad75.maven.plugin.json.util.FileUtils;
-import io.github.leinad75.maven.plugin.json.util.JsonTreeWalker;
+import io.github.leinad75.maven.plugin.json.util.JsonInputs;
+import io.github.leinad75.maven.plugin.json.util.JsonSubtreeReader;
+import io.github.leinad75.maven.plugin.json.util.MemoryAdmission;
+import io.github.leinad75.maven.plugin.json.util.RecordFingerprints;
+import com.networknt.schema.JsonNodePath;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.OutputFormat;
 import com.networknt.schema.PathType;
 import com.networknt.schema.SchemaLocation;
 import com.networknt.schema.SchemaValidatorsConfig;
 import com.networknt.schema.SpecVersion.VersionFlag;
 import com.networknt.schema.ValidationMessage;
 import io.github.leinad75.maven.plugin.json.util.PrettyPrintIterable;
+import io.github.leinad75.maven.plugin.json.util.ProgressReporter;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -49,35 +72,83 @@ import org.apache.maven.plugin.MojoFailureException;
  */
 public class DefaultValidatorExecutor implements ValidatorExecutor {
 
-    private static final String PROP_ADDITIONAL_PROPERTIES = "additionalProperties";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String RECORDS_DIRECTORY = "json-validator/records";
+    private static final String GENERATED_DIRECTORY = "json-validator/generated";
     private final ValidatorRequest request;
     private final Validation validation;
 
     private final List<String> jsonFiles;
     private final String schemaFile;
+    private final boolean bundled;
     private final SchemaValidatorsConfig config;
+    private final ObjectMapper documentMapper;
+    private final ObjectMapper yamlMapper;
+    private final JsonInputs jsonInputs = new JsonInputs();
+    private final DependencyEntries dependencyEntries;
+    private final Set<String> failedFiles = ConcurrentHashMap.newKeySet();
+    private final FileClaims fileClaims;
+    private final MessageLocations messageLocations;
+    private final YamlDocuments yamlDocuments;
+    private final SchemaDocuments schemaDocuments;
+    private ProgressReporter progressReporter;
+    private final FileSampling fileSampling;
+    private CrossFileKeys crossFileKeys;
 
     private JsonNode schemaNode;
-    private JsonNode strictSchemaNode;
+    private LoadedSchema loadedSchema;
+    private boolean splitArray;
+    private GeneratedValidator generatedValidator;
+    private String schemaKey;
     JsonSchemaFactory jsonSchemaFactory;
+    private VersionFlag specVersion;
+    private Map<String, String> schemaClosure;
 
     public DefaultValidatorExecutor(final ValidatorRequest requestInput, final Validation validation)
+        throws MojoExecutionException {
+        this(requestInput, validation, null);
+    }
+
+    /**
+     * Creates an executor for the given files instead of the files selected by the validation, used by the forked
+     * workers which are sent the files to validate.
+     */
+    DefaultValidatorExecutor(final ValidatorRequest requestInput, final Validation validation, final List<String> files)
         throws MojoExecutionException {
         this.request = requestInput;
         this.validation = validation;
 
         jsonFiles = new ArrayList<>();
-        schemaFile = validation.getJsonSchema();
+        dependencyEntries = new DependencyEntries(request, validation);
+        schemaDocuments = new SchemaDocuments(request, validation);
+        bundled = validation.getSchemaBundle() != null && !validation.getSchemaBundle().isBlank();
+        schemaFile = bundled ? SchemaBundle.resolve(request, validation.getSchemaBundle()) : validation.getJsonSchema();
 
-        if (validation.getDirectory() != null && ! validation.getDirectory().isBlank()) {
-            jsonFiles.addAll(FileUtils.getListOfFiles(validation));
-        }
-        if (validation.getJsonFile() != null && !validation.getJsonFile().isBlank()) {
-            jsonFiles.add(validation.getJsonFile());
+        if (files != null) {
+            jsonFiles.addAll(files);
+        } else {
+            if (validation.getDirectory() != null && ! validation.getDirectory().isBlank()) {
+                jsonFiles.addAll(FileUtils.getListOfFiles(validation));
+            }
+            if (validation.getJsonFile() != null && !validation.getJsonFile().isBlank()) {
+                jsonFiles.add(validation.getJsonFile());
+            }
+            if (!validation.getDependencies().isEmpty() && request.getProject() != null) {
+                jsonFiles.addAll(dependencyEntries.list());
+            }
         }
 
+        fileSampling = new FileSampling(request, validation);
+        fileClaims = new FileClaims(request.getContext(), request.getLog());
+        documentMapper = validation.isCompactDocuments() ? newCompactMapper() : OBJECT_MAPPER;
+        yamlMapper = new ObjectMapper(new YAMLFactory()).setNodeFactory(documentMapper.getNodeFactory());
+        messageLocations = new MessageLocations(validation, jsonInputs, yamlMapper, request.getLog());
+        yamlDocuments = new YamlDocuments(validation, jsonInputs, yamlMapper, messageLocations, request.getLog());
         config = new SchemaValidatorsConfig();
         config.setPathType(PathType.JSON_POINTER);
+        if (request.getProfiler() != null) {
+            config.addKeywordWalkListener(request.getProfiler());
+        }
     }
 
     public void performValidation() throws MojoExecutionException, MojoFailureException {
@@ -86,19 +157,49 @@ public class DefaultValidatorExecutor implements ValidatorExecutor {
             request.getLog().warn("No JSON files to validate");
             return;
         }
-        if (validation.getJsonSchema() == null || validation.getJsonSchema().isBlank()) {
+        if (schemaFile == null || schemaFile.isBlank()) {
             request.getLog().warn("No schema file file given");
             return;
         }
 
-        schemaNode = loadSchema(schemaFile, validation.isMetaValidation());
-
-        List<Exception> exceptions = new ArrayList<>();
-        for (final String jsonFile : jsonFiles) {
+        List<Exception> exceptions;
+        try (jsonInputs) {
+            loadSharedSchema();
+            if (CrossFileChecks.isConfigured(validation)) {
+                // keys are checked over all selected files, also those not validated below
+                crossFileKeys = new CrossFileKeys(request, validation, jsonFiles, jsonInputs, yamlMapper);
+            }
+            fileSampling.sample(jsonFiles);
+            claimFiles();
+            // entries left out of a sample are not validated, so sampled artifacts must not be cached as valid
+            boolean cacheDependencies = !fileSampling.isSampled();
             try {
-                validateAgainstSchema(jsonFile, validation.isStrict());
-            } catch (MojoFailureException e) {
-                exceptions.add(e);
+                if (cacheDependencies) {
+                    Set<String> unchangedFiles = dependencyEntries.skipUnchanged(loadedSchema);
+                    unchangedFiles.forEach(jsonFile -> fileClaims.recordOutcome(jsonFile, null));
+                    jsonFiles.removeIf(unchangedFiles::contains);
+                }
+                exceptions = validateAll();
+            } finally {
+                fileClaims.abort();
+            }
+            for (Map.Entry<String, String> failure : fileClaims.awaitFailuresClaimedBefore().entrySet()) {
+                failedFiles.add(failure.getKey());
+                exceptions.add(new MojoFailureException(failure.getValue()));
+            }
+            if (crossFileKeys != null) {
+                for (String message : crossFileKeys.check()) {
+                    exceptions.add(new MojoFailureException(message));
+                }
+            }
+            if (cacheDependencies) {
+                dependencyEntries.cacheValid(failedFiles);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to close json inputs", e);
+        } finally {
+            if (crossFileKeys != null) {
+                crossFileKeys.close();
             }
         }
 
@@ -108,30 +209,198 @@ public class DefaultValidatorExecutor implements ValidatorExecutor {
                 request.getLog().error(e.getMessage());
             }
             throw new MojoFailureException("Failed while validating json files.");
+        } else if (fileSampling.isSampled()) {
+            request.getLog().info(fileSampling.getSummary(jsonFiles.size(), progressReporter.getElapsedMillis()));
         } else {
-            request.getLog().info("Succesfully processed " + jsonFiles.size() + " files.");
+            request.getLog().info("Succesfully processed " + jsonFiles.size() + " files in "
+                + progressReporter.getElapsedMillis() + " ms.");
         }
     }
 
+    /**
+     * Loads the schema, or reuses the schema loaded with the same settings by another executor of the run.
+     */
+    private void loadSharedSchema() throws MojoFailureException {
+        schemaKey = new File(schemaFile).getAbsolutePath() + "|" + validation.getRegexEngine() + "|"
+            + validation.getRegexStepBudget() + "|" + validation.isMetaValidation() + "|"
+            + validation.getSchemaMirror() + "|" + validation.isStrictOffline();
+        loadedSchema = request.getContext().getLoadedSchema(schemaKey, () -> {
+            if (bundled) {
+                return loadSchemaBundle();
+            }
+            JsonNode node = loadSchema(schemaFile, validation.isMetaValidation());
+            return new LoadedSchema(schemaFile, node, schemaClosure, jsonSchemaFactory, config, request.getLog());
+        });
+        schemaNode = loadedSchema.getSchemaNode();
+        splitArray = validation.isSplitArray();
+        List<String> arrayKeywords = splitArray ? loadedSchema.getArrayKeywords() : Collections.emptyList();
+        if (!arrayKeywords.isEmpty()) {
+            request.getLog().warn("Schema: " + schemaFile + " - " + arrayKeywords + " apply to the whole array,"
+                + " validating whole documents instead of splitting them");
+            splitArray = false;
+        }
+        if (validation.getValidatorEngine() == ValidatorEngine.GENERATED && validation.isQuickCheck()) {
+            File sourceDirectory = request.getBuildDirectory() == null
+                ? null : new File(request.getBuildDirectory(), GENERATED_DIRECTORY);
+            generatedValidator = loadedSchema.getGeneratedValidator(validation.isStrict(), splitArray, sourceDirectory);
+        }
+    }
+
+    /**
+     * Compares the default and the compact document model on the first files of the validation, see
+     * {@link DocumentModelBenchmark}. Whole documents are parsed and validated, whatever the validation selects.
+     */
+    void benchmark(final int iterations, final int maxFiles) throws MojoExecutionException, MojoFailureException {
+        if (jsonFiles.isEmpty() || schemaFile == null || schemaFile.isBlank()) {
+            request.getLog().warn("No JSON files or schema to benchmark");
+            return;
+        }
+        try (jsonInputs) {
+            loadSharedSchema();
+            List<String> files = jsonFiles.subList(0, Math.min(Math.max(maxFiles, 1), jsonFiles.size()));
+            JsonSchema schema = validation.isStrict() ? loadedSchema.getStrictSchema() : loadedSchema.getSchema();
+            DocumentModelBenchmark benchmark = new DocumentModelBenchmark(files, jsonInputs, schema);
+            request.getLog().info("Benchmark: " + files.size() + " files against " + schemaFile + ", "
+                + iterations + " iterations");
+            request.getLog().info(benchmark.run("jackson", OBJECT_MAPPER, iterations));
+            request.getLog().info(benchmark.run("compact", newCompactMapper(), iterations));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to benchmark the document models: " + e.getMessage(), e);
+        }
+    }
+
+    private static ObjectMapper newCompactMapper() {
+        return new ObjectMapper().setNodeFactory(new CompactNodeFactory());
+    }
+
+    /**
+     * Claims the files of the validation, see {@link FileClaims}, removing the files which were already validated
+     * against the same schema and with the same settings in this run, for example by another validation or module with
+     * overlapping includes.
+     */
+    private void claimFiles() {
+        // the settings changing what is validated or collected from a file
+        String claimKey = schemaKey + "|" + validation.isStrict() + "|" + validation.getPointers() + "|"
+            + validation.isSplitArray() + "|" + validation.getFormat() + "|" + validation.getUniqueKeys() + "|"
+            + validation.getReferences() + "|" + validation.isCompactDocuments() + "|" + fileSampling.isSampled();
+        fileClaims.claim(jsonFiles, claimKey, schemaFile);
+    }
+
+    /**
+     * Validates all json files, in forked JVMs if configured or in parallel if more than one thread is configured, and
+     * returns the failures.
+     */
+    private List<Exception> validateAll() throws MojoExecutionException {
+        List<Exception> exceptions = Collections.synchronizedList(new ArrayList<>());
+        progressReporter = new ProgressReporter(request.getLog(), jsonFiles.size());
+        FileBatches fileBatches = new FileBatches(jsonFiles);
+        ForkedWorkers forkedWorkers = request.getContext().getForkedWorkers();
+        if (forkedWorkers != null) {
+            if (crossFileKeys == null && request.getProfiler() == null) {
+                fileBatches.validateForked(forkedWorkers, validation, schemaFile, request,
+                    (jsonFile, message) -> {
+                        fileClaims.recordOutcome(jsonFile, message);
+                        if (message != null) {
+                            failedFiles.add(jsonFile);
+                            exceptions.add(new MojoFailureException(message));
+                        }
+                        progressReporter.fileProcessed();
+                    });
+                return exceptions;
+            }
+            // the values of the cross file checks and the profile are collected in this JVM
+            request.getLog().info("Validating " + schemaFile + " in the Maven JVM, forked workers do not support "
+                + "uniqueKeys, references and profiling");
+        }
+        ExecutorService sharedExecutorService = request.getContext().getExecutorService();
+        if (sharedExecutorService != null) {
+            fileBatches.validateAdmitted(sharedExecutorService, request.getContext().getMemoryAdmission(),
+                fileIndex -> validate(fileIndex, exceptions));
+            return exceptions;
+        }
+        if (validation.getThreads() <= 1) {
+            for (int fileIndex = 0; fileIndex < jsonFiles.size(); fileIndex++) {
+                validate(fileIndex, exceptions);
+            }
+            return exceptions;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(validation.getThreads());
+        try {
+            fileBatches.validateAdmitted(executorService, request.getContext().getMemoryAdmission(),
+                fileIndex -> validate(fileIndex, exceptions));
+            return exceptions;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Validates one file in a forked worker, see {@link ValidationWorker}, and returns its failure message or
+     * {@code null} if it is valid. The first call loads the schema, which is shared by the validations of the worker.
+     */
+    String validateInWorker(final String jsonFile) {
+        try {
+            if (loadedSchema == null) {
+                loadSharedSchema();
+            }
+            validateAgainstSchema(jsonFile, -1, validation.isStrict());
+            return null;
+        } catch (MojoFailureException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void validate(final int fileIndex, List<Exception> exceptions) {
+        final String jsonFile = jsonFiles.get(fileIndex);
+        try {
+            validateAgainstSchema(jsonFile, fileIndex, validation.isStrict());
+            fileClaims.recordOutcome(jsonFile, null);
+        } catch (MojoFailureException e) {
+            fileClaims.recordOutcome(jsonFile, e.getMessage());
+            failedFiles.add(jsonFile);
+            exceptions.add(e);
+        }
+        progressReporter.fileProcessed();
+    }
+
     protected JsonNode loadSchema(String schemaFile, boolean isMetaValidation)
         throws MojoFailureException {
-        schemaNode = loadJsonNode(schemaFile);
+        SchemaLoadEvent loadEvent = new SchemaLoadEvent();
+        loadEvent.begin();
+        schemaNode = loadJsonNode(schemaFile, OBJECT_MAPPER);
         VersionFlag versionFlag;
         try {
             versionFlag = SpecVersionDetector.detect(schemaNode);
         } catch (JsonSchemaException jse) {
             request.getLog().debug(jse);
             throw new MojoFailureException("Illegal schema " + schemaFile + ": " + jse.getMessage());
+        } finally {
+            loadEvent.end();
+        }
+        if (loadEvent.shouldCommit()) {
+            loadEvent.schemaPath = schemaFile;
+            loadEvent.specVersion = versionFlag.getId();
+            loadEvent.commit();
         }
 
-        jsonSchemaFactory = JsonSchemaFactory.getInstance(versionFlag, builder ->
-            builder.schemaMappers(schemaMappers -> schemaMappers.mapPrefix("https://localhost", "classpath:"))
-        );
+        specVersion = versionFlag;
+        schemaClosure = schemaDocuments.resolve(schemaFile, schemaNode);
+        jsonSchemaFactory = schemaDocuments.createFactory(versionFlag, schemaClosure);
 
         if (isMetaValidation) {
             // validate schema against meta schema
+            MetaValidationEvent metaValidationEvent = new MetaValidationEvent();
+            metaValidationEvent.begin();
             JsonSchema metaSchema = jsonSchemaFactory.getSchema(SchemaLocation.of(versionFlag.getId()), config);
             Set<ValidationMessage> schemaValidationMessages = metaSchema.validate(schemaNode);
+            metaValidationEvent.end();
+            if (metaValidationEvent.shouldCommit()) {
+                metaValidationEvent.schemaPath = schemaFile;
+                metaValidationEvent.specVersion = versionFlag.getId();
+                metaValidationEvent.messageCount = schemaValidationMessages.size();
+                metaValidationEvent.commit();
+            }
             if (!schemaValidationMessages.isEmpty()) {
                 request.getLog().error(new PrettyPrintIterable<>(schemaValidationMessages).toString());
                 throw new MojoFailureException("Illegal schema " + schemaFile + ", not a valid schema " + versionFlag.getId());
@@ -140,46 +409,275 @@ public class DefaultValidatorExecutor implements ValidatorExecutor {
         return schemaNode;
     }
 
-    private void validateAgainstSchema(final String jsonDataFile, boolean isStrict) throws MojoFailureException {
-        request.getLog().debug("File: " + jsonDataFile + " - validating against " + schemaFile + ", isStrict=" + isStrict);
+    /**
+     * Loads, meta validates and rewrites the schema of the validation and resolves its references, all the work done
+     * once by the {@code bundle-schema} goal instead of by every consumer. Both validator trees are compiled to fail on
+     * schemas which can not be used.
+     */
+    SchemaBundle createSchemaBundle() throws MojoFailureException {
+        JsonNode node = loadSchema(schemaFile, validation.isMetaValidation());
+        LoadedSchema bundledSchema = new LoadedSchema(schemaFile, node, schemaClosure, jsonSchemaFactory, config,
+            request.getLog());
+        bundledSchema.getSchema();
+        bundledSchema.getStrictSchema();
+        return new SchemaBundle(new File(schemaFile).getName(), specVersion.getId(), validation.isMetaValidation(), node,
+            bundledSchema.getStrictSchemaNode(), schemaClosure);
+    }
 
+    /**
+     * Loads a schema prepared by the {@code bundle-schema} goal, see {@link SchemaBundle}.
+     */
+    private LoadedSchema loadSchemaBundle() throws MojoFailureException {
+        SchemaBundle bundle;
         try {
-            JsonNode testFileJsonNode = loadJsonNode(jsonDataFile);
+            bundle = SchemaBundle.read(new File(schemaFile));
+        } catch (IOException e) {
+            throw new MojoFailureException("Failed to read schema bundle " + schemaFile + ": " + e.getMessage(), e);
+        }
+        VersionFlag versionFlag = Arrays.stream(VersionFlag.values())
+            .filter(flag -> flag.getId().equals(bundle.getSpecVersion()))
+            .findFirst()
+            .orElseThrow(() -> new MojoFailureException("Schema bundle " + schemaFile + " has the unknown specification "
+                + bundle.getSpecVersion()));
+        if (request.getLog().isDebugEnabled()) {
+            request.getLog().debug("Schema: " + schemaFile + " - bundled " + bundle.getSchemaFile() + ", "
+                + bundle.getDocuments().size() + " referenced documents, meta validated=" + bundle.isMetaValidated());
+        }
+        schemaNode = bundle.getSchemaNode();
+        jsonSchemaFactory = schemaDocuments.createFactory(versionFlag, bundle.getDocuments());
+        return new LoadedSchema(schemaFile, bundle.getSchemaNode(), bundle.getStrictSchemaNode(), bundle.getDocuments(),
+            jsonSchemaFactory,
+            config, request.getLog());
+    }
 
-            // do a strict validation to show either warnings or fail
-            JsonSchema strictSchema = jsonSchemaFactory.getSchema(getStrictSchemaNode(), config);
-            Set<ValidationMessage> strictValidationMessages = strictSchema.validate(testFileJsonNode);
+    private void validateAgainstSchema(final String jsonDataFile, final int fileIndex, boolean isStrict)
+        throws MojoFailureException {
+        if (request.getLog().isDebugEnabled()) {
+            request.getLog().debug("File: " + jsonDataFile + " - validating against " + schemaFile + ", isStrict=" + isStrict);
+        }
 
-            if (isStrict && !strictValidationMessages.isEmpty()) {
-                PrettyPrintIterable<ValidationMessage> prettyPrintIterable = new PrettyPrintIterable<>(strictValidationMessages);
-                throw new MojoFailureException("Failed to validate JSON from file " + jsonDataFile + " against " + schemaFile + ": " + prettyPrintIterable);
+        FileValidationEvent event = new FileValidationEvent();
+        int messageCount = 0;
+        try {
+            if (splitArray) {
+                event.begin();
+                ArrayItemsValidator arrayItemsValidator = validateArrayItems(jsonDataFile, isStrict);
+                messageCount = arrayItemsValidator.getMessageCount();
+                failOnArrayItemMessages(jsonDataFile, arrayItemsValidator);
+                logSuccess(jsonDataFile);
+                return;
             }
 
-            // default validation in non-strict mode
-            if (!isStrict) {
-                JsonSchema schema = jsonSchemaFactory.getSchema(schemaNode, config);
-                Set<ValidationMessage> defaultValidationMessages = schema.validate(testFileJsonNode);
-                if (!defaultValidationMessages.isEmpty()) {
-
-                    // log all results from strict validation, which are not errors, as warnings
-                    Collection<ValidationMessage> warningMessages = retainAllValidationMessages(strictValidationMessages, defaultValidationMessages);
-                    if (!warningMessages.isEmpty()) {
-                        request.getLog().warn(new PrettyPrintIterable<>(warningMessages).toString());
+            if (isYaml(jsonDataFile)) {
+                event.begin();
+                List<String> described = yamlDocuments.validate(jsonDataFile, document -> {
+                    if (crossFileKeys != null) {
+                        crossFileKeys.add(jsonFiles.get(fileIndex), document::at);
+                    }
+                }, (subtree, location, errors, warnings) -> validateNode(subtree, location, isStrict, errors, warnings));
+                messageCount = described.size();
+                if (!described.isEmpty()) {
+                    PrettyPrintIterable<String> prettyPrintIterable = new PrettyPrintIterable<>(described);
+                    if (request.getLog().isDebugEnabled()) {
+                        request.getLog().debug(prettyPrintIterable.toString());
                     }
+                    throw new MojoFailureException("Failed to validate YAML from file " + jsonDataFile + " against " + schemaFile + ": " + prettyPrintIterable);
+                }
+                logSuccess(jsonDataFile);
+                return;
+            }
 
-                    PrettyPrintIterable<ValidationMessage> prettyPrintIterable = new PrettyPrintIterable<>(defaultValidationMessages);
+            Map<String, JsonNode> keyValues = new HashMap<>();
+            Map<JsonNodePath, JsonNode> selections = loadSelections(jsonDataFile, keyValues);
+            event.begin();
+            if (crossFileKeys != null) {
+                crossFileKeys.add(jsonFiles.get(fileIndex), keyValues::get);
+            }
+
+            List<ValidationMessage> errorMessages = new ArrayList<>();
+            List<ValidationMessage> warningMessages = new ArrayList<>();
+            for (Map.Entry<JsonNodePath, JsonNode> selection : selections.entrySet()) {
+                validateNode(selection.getValue(), selection.getKey(), isStrict, errorMessages, warningMessages);
+            }
+
+            if (!errorMessages.isEmpty()) {
+                messageCount = errorMessages.size();
+                MessageLocations.Located located = messageLocations.locate(jsonDataFile, 0, errorMessages, warningMessages);
+                if (!located.getWarnings().isEmpty()) {
+                    request.getLog().warn(new PrettyPrintIterable<>(located.getWarnings()).toString());
+                }
+
+                PrettyPrintIterable<String> prettyPrintIterable = new PrettyPrintIterable<>(located.getErrors());
+                if (request.getLog().isDebugEnabled()) {
                     request.getLog().debug(prettyPrintIterable.toString());
-                    throw new MojoFailureException("Failed to validate JSON from file " + jsonDataFile + " against " + schemaFile + ": " + prettyPrintIterable);
                 }
+                throw new MojoFailureException("Failed to validate JSON from file " + jsonDataFile + " against " + schemaFile + ": " + prettyPrintIterable);
             }
 
-
-            request.getLog().info("File: " + jsonDataFile + " - validated - Success");
+            logSuccess(jsonDataFile);
 
         } catch (final Exception e) {
             request.getLog().error(e);
             throw new MojoFailureException(e.getMessage());
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.filePath = jsonDataFile;
+                event.schemaPath = schemaFile;
+                event.strict = isStrict;
+                event.messageCount = messageCount;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Validates a selected subtree, adding its errors and, in non-strict mode, the messages of the strict schema which
+     * are no errors as warnings.
+     */
+    private void validateNode(JsonNode jsonNode, JsonNodePath instanceLocation, boolean isStrict,
+        List<ValidationMessage> errorMessages, List<ValidationMessage> warningMessages) {
+        // fast path: a fail-fast boolean check, full diagnostics are only collected for failing files
+        if (validation.isQuickCheck() && request.getProfiler() == null && isValid(jsonNode, isStrict)) {
+            return;
+        }
+
+        // do a strict validation to show either warnings or fail
+        Set<ValidationMessage> strictValidationMessages =
+            collectMessages(loadedSchema.getStrictSchema(), jsonNode, instanceLocation);
+        if (isStrict) {
+            errorMessages.addAll(strictValidationMessages);
+            return;
+        }
+
+        // default validation in non-strict mode, results from strict validation which are no errors are warnings
+        Set<ValidationMessage> defaultValidationMessages =
+            collectMessages(loadedSchema.getSchema(), jsonNode, instanceLocation);
+        if (!defaultValidationMessages.isEmpty()) {
+            errorMessages.addAll(defaultValidationMessages);
+            warningMessages.addAll(retainAllValidationMessages(strictValidationMessages, defaultValidationMessages));
+        }
+    }
+
+    private boolean isYaml(final String file) {
+        return validation.getFormat().isYaml(file);
+    }
+
+    /**
+     * Returns the file of the fingerprints of the valid records of a file, or {@code null} if records are not
+     * validated incrementally. The name depends on the file, the schema with the documents it references and the
+     * settings, so the fingerprints of a record are dropped as soon as the schema or a referenced document changes.
+     */
+    private File getRecordFingerprintsFile(final String jsonDataFile, boolean isStrict) {
+        if (!validation.isIncremental() || request.getBuildDirectory() == null) {
+            return null;
+        }
+        String key = DependencyCache.checksum(new File(jsonDataFile).getAbsolutePath() + "|" + schemaKey + "|"
+            + schemaNode + "|" + loadedSchema.getDocuments() + "|" + isStrict);
+        return new File(request.getBuildDirectory(), RECORDS_DIRECTORY + "/" + key + ".bin");
+    }
+
+    /**
+     * Validates the elements of the top-level array of the file in parallel against the {@code items} schema, see
+     * {@link ArrayItemsValidator}. Only used if the schema has no keywords on the array itself.
+     */
+    private ArrayItemsValidator validateArrayItems(final String jsonDataFile, boolean isStrict) throws MojoFailureException {
+        JsonSchema itemsSchema = loadedSchema.getItemsSchema(isStrict);
+        if (itemsSchema == null) {
+            throw new MojoFailureException("Schema " + schemaFile + " has no items schema, required by splitArray");
+        }
+        ArrayItemsValidator arrayItemsValidator = new ArrayItemsValidator(documentMapper, itemsSchema,
+            validation.getBatchSize(), request.getContext().getItemsPool());
+        // the fingerprints are taken from the raw bytes of the elements, which are only recorded for JSON
+        File fingerprintsFile = isYaml(jsonDataFile) ? null : getRecordFingerprintsFile(jsonDataFile, isStrict);
+        if (fingerprintsFile != null) {
+            arrayItemsValidator.setKnownRecords(RecordFingerprints.load(fingerprintsFile));
+        }
+        if (request.getProfiler() != null) {
+            arrayItemsValidator.setProfiler(request.getProfiler(), schemaFile);
+        }
+        arrayItemsValidator.setGeneratedValidator(generatedValidator);
+        try {
+            // the batches are validated while the array is streamed, the event covers reading the whole array
+            FileParseRecorder parseRecorder = new FileParseRecorder(jsonDataFile, jsonInputs.open(jsonDataFile));
+            parseRecorder.begin();
+            if (isYaml(jsonDataFile)) {
+                arrayItemsValidator.validate(yamlMapper.getFactory().createParser(parseRecorder.getInputStream()));
+            } else {
+                arrayItemsValidator.validate(parseRecorder.getInputStream());
+            }
+            parseRecorder.end();
+        } catch (final IOException e) {
+            request.getLog().error("File: " + jsonDataFile + " - parsing - Failure");
+            throw new MojoFailureException("Failed to parse JSON from file " + jsonDataFile + " - " + e.getMessage(), e);
+        }
+        if (fingerprintsFile != null) {
+            long[] validFingerprints = arrayItemsValidator.getValidFingerprints();
+            try {
+                RecordFingerprints.save(fingerprintsFile, validFingerprints, validFingerprints.length);
+            } catch (final IOException e) {
+                request.getLog().warn("File: " + jsonDataFile + " - saving record fingerprints - Failure: " + e.getMessage());
+            }
+        }
+        if (request.getLog().isDebugEnabled()) {
+            request.getLog().debug("File: " + jsonDataFile + " - validated " + arrayItemsValidator.getItemCount()
+                + " array items, " + arrayItemsValidator.getUnchangedCount() + " unchanged items skipped");
+        }
+        return arrayItemsValidator;
+    }
+
+    private void failOnArrayItemMessages(final String jsonDataFile, ArrayItemsValidator arrayItemsValidator)
+        throws MojoFailureException {
+        List<ValidationMessage> messages = arrayItemsValidator.getMessages();
+        if (!messages.isEmpty()) {
+            List<String> described = new ArrayList<>(
+                messageLocations.locate(jsonDataFile, 0, messages, Collections.emptyList()).getErrors());
+            if (arrayItemsValidator.getMessageCount() > messages.size()) {
+                described.add("... " + (arrayItemsValidator.getMessageCount() - messages.size()) + " more messages");
+            }
+            throw new MojoFailureException("Failed to validate JSON from file " + jsonDataFile + " against " + schemaFile
+                + ": " + new PrettyPrintIterable<>(described));
+        }
+    }
+
+    private void logSuccess(final String jsonDataFile) {
+        if (request.isVerbose()) {
+            request.getLog().info("File: " + jsonDataFile + " - validated - Success");
+        }
+    }
+
+    /**
+     * Validates the json node found at the instance location. With profiling enabled the node is walked instead, which
+     * notifies the keyword walk listeners while validating.
+     */
+    private Set<ValidationMessage> collectMessages(JsonSchema jsonSchema, JsonNode jsonNode, JsonNodePath instanceLocation) {
+        if (instanceLocation.getNameCount() > 0) {
+            // a selected subtree, validated at its location in the document
+            if (request.getProfiler() == null) {
+                return jsonSchema.validate(jsonSchema.createExecutionContext(), jsonNode, jsonNode, instanceLocation);
+            }
+            return request.getProfiler().profile(schemaFile,
+                () -> jsonSchema.walkAtNode(jsonSchema.createExecutionContext(), jsonNode, jsonNode, instanceLocation, true)
+                    .getValidationMessages());
+        }
+        if (request.getProfiler() == null) {
+            return jsonSchema.validate(jsonNode);
+        }
+        return request.getProfiler().profile(schemaFile,
+            () -> jsonSchema.walk(jsonNode, true).getValidationMessages());
+    }
+
+    /**
+     * Validates without collecting messages, stopping at the first failing keyword. In non-strict mode the result of
+     * the strict schema is only used for warnings on failing files, so only the default schema needs to be checked.
+     * The validator generated from the schema is used instead of the interpreter if configured and supported.
+     */
+    private boolean isValid(JsonNode jsonNode, boolean isStrict) {
+        if (generatedValidator != null) {
+            return generatedValidator.isValid(jsonNode);
         }
+        JsonSchema quickCheckSchema = isStrict ? loadedSchema.getStrictSchema() : loadedSchema.getSchema();
+        return quickCheckSchema.validate(jsonNode, OutputFormat.FLAG).isValid();
     }
 
     /**
@@ -194,34 +692,61 @@ public class DefaultValidatorExecutor implements ValidatorExecutor {
                     .collect(Collectors.toList());
     }
 
-    private synchronized JsonNode getStrictSchemaNode() {
-        if (strictSchemaNode == null) {
-            strictSchemaNode = forceAdditionalProperties(schemaNode);
+    /**
+     * Loads the subtrees selected by the configured JSON pointers, keyed by their location, or the whole document if
+     * no pointers are configured. Content outside of the selected subtrees is skipped without building nodes. The
+     * values needed by the cross file checks are put into {@code keyValues}, keyed by their pointer.
+     */
+    private Map<JsonNodePath, JsonNode> loadSelections(final String file, final Map<String, JsonNode> keyValues)
+        throws MojoFailureException {
+        if (validation.getPointers().isEmpty()) {
+            JsonNode node = loadJsonNode(file, documentMapper);
+            MemoryAdmission memoryAdmission = request.getContext().getMemoryAdmission();
+            if (memoryAdmission.shouldLearn()) {
+                memoryAdmission.learn(FileBatches.getFileSize(file), node);
+            }
+            if (crossFileKeys != null) {
+                crossFileKeys.getPointers().forEach(pointer -> keyValues.put(pointer, node.at(pointer)));
+            }
+            return Collections.singletonMap(new JsonNodePath(PathType.JSON_POINTER), node);
         }
-        return strictSchemaNode;
-    }
-
-    private JsonNode forceAdditionalProperties(JsonNode schemaNode) {
-        JsonNode clonedSchema = schemaNode.deepCopy();
-        new JsonTreeWalker().walkTree(clonedSchema, (nodeName, objectNode) -> {
-            JsonNode typeNode = objectNode.get("type");
-            if (typeNode instanceof TextNode && "object".equals(typeNode.asText())) {
-                request.getLog().debug("found schema object: " + objectNode);
-                JsonNode addPropsNode = objectNode.get(PROP_ADDITIONAL_PROPERTIES);
-                // set if no additionalProperties
-                if (addPropsNode == null) {
-                    request.getLog().debug("disabling additional properties for node " + nodeName);
-                    objectNode.set(PROP_ADDITIONAL_PROPERTIES, BooleanNode.FALSE);
+        try (InputStream inputStream = jsonInputs.open(file)) {
+            FileParseRecorder parseRecorder = new FileParseRecorder(file, inputStream);
+            parseRecorder.begin();
+            Set<String> pointers = new LinkedHashSet<>(validation.getPointers());
+            if (crossFileKeys != null) {
+                pointers.addAll(crossFileKeys.getPointers());
+            }
+            Map<String, JsonNode> subtrees = JsonSubtreeReader.read(documentMapper,
+                documentMapper.getFactory().createParser(parseRecorder.getInputStream()), pointers);
+            parseRecorder.end();
+            if (crossFileKeys != null) {
+                crossFileKeys.getPointers().forEach(pointer -> keyValues.put(pointer, subtrees.get(pointer)));
+            }
+            Map<JsonNodePath, JsonNode> selections = new LinkedHashMap<>();
+            for (String pointer : validation.getPointers()) {
+                JsonNode subtree = subtrees.get(JsonSubtreeReader.normalize(pointer));
+                if (subtree == null) {
+                    throw new MojoFailureException("JSON pointer " + pointer + " not found in file " + file);
                 }
+                selections.put(JsonSubtreeReader.toPath(pointer), subtree);
             }
-        });
-        return clonedSchema;
+            return selections;
+        } catch (final IOException e) {
+            request.getLog().error("File: " + file + " - parsing - Failure");
+            throw new MojoFailureException("Failed to parse JSON from file " + file + " - " + e.getMessage(), e);
+        }
     }
 
-    private JsonNode loadJsonNode(final String file) throws MojoFailureException {
-        try {
-            JsonNode node = new ObjectMapper().readTree(new File(file));
-            request.getLog().debug("File: " + file + " - parsing - Success");
+    private JsonNode loadJsonNode(final String file, final ObjectMapper objectMapper) throws MojoFailureException {
+        try (InputStream inputStream = jsonInputs.open(file)) {
+            FileParseRecorder parseRecorder = new FileParseRecorder(file, inputStream);
+            parseRecorder.begin();
+            JsonNode node = objectMapper.readTree(parseRecorder.getInputStream());
+            parseRecorder.end();
+            if (request.getLog().isDebugEnabled()) {
+                request.getLog().debug("File: " + file + " - parsing - Success");
+            }
             return node;
         } catch (final IOException e) {
             request.getLog().error("File: " + file + " - parsing - Failure");
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import io.github.leinad75.maven.plugin.json.util.DependencyCache;
+import io.github.leinad75.maven.plugin.json.util.FileUtils;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * The json entries of the dependency artifacts selected by a validation. Artifacts validated successfully with the same
+ * schema and settings before are skipped, see {@link DependencyCache}.
+ */
+class DependencyEntries {
+
+    private static final String CACHE_FILE = "json-validator/dependency-cache.properties";
+
+    private final ValidatorRequest request;
+    private final Validation validation;
+    private final Map<Artifact, List<String>> entries = new LinkedHashMap<>();
+    private final Map<Artifact, String> cacheKeys = new HashMap<>();
+    private DependencyCache dependencyCache;
+
+    DependencyEntries(final ValidatorRequest request, final Validation validation) {
+        this.request = request;
+        this.validation = validation;
+    }
+
+    /**
+     * Lists the selected entries of the dependency artifacts of the project matching the validation.
+     */
+    List<String> list() throws MojoExecutionException {
+        List<String> jsonFiles = new ArrayList<>();
+        Set<Artifact> artifacts = request.getProject().getArtifacts();
+        if (artifacts == null) {
+            return jsonFiles;
+        }
+        for (Artifact artifact : FileUtils.getDependencyArtifacts(validation, artifacts)) {
+            try {
+                List<String> artifactEntries = FileUtils.getListOfArchiveEntries(artifact.getFile().getPath(), validation);
+                entries.put(artifact, artifactEntries);
+                jsonFiles.addAll(artifactEntries);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to read dependency artifact " + artifact, e);
+            }
+        }
+        return jsonFiles;
+    }
+
+    /**
+     * Returns the entries of all artifacts which were already validated successfully with the same schema and
+     * settings, which need not be validated again. Nothing is skipped or cached without a build directory to keep the
+     * cache in.
+     */
+    Set<String> skipUnchanged(final LoadedSchema loadedSchema) throws IOException {
+        if (entries.isEmpty() || request.getBuildDirectory() == null) {
+            return Collections.emptySet();
+        }
+        dependencyCache = new DependencyCache(new File(request.getBuildDirectory(), CACHE_FILE));
+        // everything the result of a file depends on, the referenced documents may change without the schema
+        String settings = loadedSchema.getSchemaNode() + "|" + loadedSchema.getDocuments() + "|" + validation.isStrict()
+            + "|" + validation.getIncludes() + "|" + validation.getExcludes() + "|" + validation.getPointers() + "|"
+            + validation.getFormat() + "|" + validation.getRegexEngine() + "|" + validation.getRegexStepBudget() + "|"
+            + validation.isSplitArray() + "|" + validation.isCompactDocuments();
+        Set<String> skippedFiles = new HashSet<>();
+        for (Map.Entry<Artifact, List<String>> entry : new ArrayList<>(entries.entrySet())) {
+            String key = DependencyCache.checksum(entry.getKey().getFile()) + "-" + DependencyCache.checksum(settings);
+            cacheKeys.put(entry.getKey(), key);
+            if (dependencyCache.contains(key)) {
+                request.getLog().info("Dependency: " + entry.getKey() + " - unchanged - skipping");
+                skippedFiles.addAll(entry.getValue());
+                entries.remove(entry.getKey());
+            }
+        }
+        return skippedFiles;
+    }
+
+    /**
+     * Remembers the validated artifacts without failing entries, after {@link #skipUnchanged(LoadedSchema)}.
+     */
+    void cacheValid(final Set<String> failedFiles) throws IOException {
+        if (dependencyCache == null) {
+            return;
+        }
+        for (Map.Entry<Artifact, List<String>> entry : entries.entrySet()) {
+            if (entry.getValue().stream().noneMatch(failedFiles::contains)) {
+                dependencyCache.put(cacheKeys.get(entry.getKey()), entry.getKey().getId());
+            }
+        }
+        dependencyCache.save();
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.OutputFormat;
+import io.github.leinad75.maven.plugin.json.util.CountingInputStream;
+import io.github.leinad75.maven.plugin.json.util.JsonInputs;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained by the parsed documents and the throughput of parsing and validating them for a document
+ * model, given by the node factory of an object mapper. The heap is measured as the difference of the used heap after
+ * garbage collections with and without the documents, so it is an approximation which needs enough files to be
+ * meaningful. The throughput is the best of the iterations, the first one warms up the JIT compiler.
+ */
+class DocumentModelBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private final List<String> files;
+    private final JsonInputs jsonInputs;
+    private final JsonSchema schema;
+
+    DocumentModelBenchmark(final List<String> files, final JsonInputs jsonInputs, final JsonSchema schema) {
+        this.files = files;
+        this.jsonInputs = jsonInputs;
+        this.schema = schema;
+    }
+
+    /**
+     * Runs the benchmark for the model and returns a line with its results.
+     */
+    String run(final String model, final ObjectMapper objectMapper, final int iterations) throws IOException {
+        long inputBytes = 0;
+        long bestNanos = Long.MAX_VALUE;
+        int invalid = 0;
+        for (int iteration = 0; iteration < Math.max(iterations, 1); iteration++) {
+            inputBytes = 0;
+            invalid = 0;
+            long start = System.nanoTime();
+            for (String file : files) {
+                try (CountingInputStream inputStream = new CountingInputStream(jsonInputs.open(file))) {
+                    JsonNode node = objectMapper.readTree(inputStream);
+                    if (!schema.validate(node, OutputFormat.BOOLEAN).isValid()) {
+                        invalid++;
+                    }
+                    inputBytes += inputStream.getCount();
+                }
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        long heapBytes = measureRetainedHeap(objectMapper);
+        double seconds = Math.max(bestNanos, 1) / 1_000_000_000d;
+        return String.format("Model: %-8s heap %9.1f MB (%5.1f bytes per input byte), %9.1f files/s, %7.1f MB/s,"
+                + " %d invalid files", model, heapBytes / 1_048_576d, inputBytes == 0 ? 0d : (double) heapBytes / inputBytes,
+            files.size() / seconds, inputBytes / 1_048_576d / seconds, invalid);
+    }
+
+    private long measureRetainedHeap(final ObjectMapper objectMapper) throws IOException {
+        long before = usedHeapAfterGc();
+        List<JsonNode> documents = new ArrayList<>(files.size());
+        for (String file : files) {
+            documents.add(objectMapper.readTree(jsonInputs.open(file)));
+        }
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(documents);
+        return Math.max(after - before, 0);
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
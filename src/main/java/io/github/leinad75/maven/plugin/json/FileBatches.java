@@ -0,0 +1,142 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import io.github.leinad75.maven.plugin.json.util.JsonInputs;
+import io.github.leinad75.maven.plugin.json.util.MemoryAdmission;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Dispatches the files of a validation in batches of consecutive files, up to {@value #MAX_BATCH_FILES} files or
+ * {@value #MAX_BATCH_BYTES} bytes, to save the scheduling overhead per file. A larger file is a batch of its own.
+ */
+class FileBatches {
+
+    static final int MAX_BATCH_FILES = 64;
+    static final long MAX_BATCH_BYTES = 256 * 1024;
+
+    private final List<String> jsonFiles;
+
+    FileBatches(final List<String> jsonFiles) {
+        this.jsonFiles = jsonFiles;
+    }
+
+    /**
+     * Returns the size of a file, of the archive entry or 0 if it is not known.
+     */
+    static long getFileSize(final String jsonFile) {
+        return jsonFile.contains(JsonInputs.ARCHIVE_SEPARATOR) ? 0 : new File(jsonFile).length();
+    }
+
+    /**
+     * Returns the end of the batch starting at {@code first}.
+     */
+    int getBatchEnd(final int first) {
+        int fileIndex = first;
+        long bytes = getFileSize(jsonFiles.get(fileIndex++));
+        while (fileIndex < jsonFiles.size() && fileIndex - first < MAX_BATCH_FILES) {
+            long fileBytes = getFileSize(jsonFiles.get(fileIndex));
+            if (bytes + fileBytes > MAX_BATCH_BYTES) {
+                break;
+            }
+            bytes += fileBytes;
+            fileIndex++;
+        }
+        return fileIndex;
+    }
+
+    /**
+     * Submits the batches as tasks admitted by their estimated heap use, see {@link MemoryAdmission}, and waits for
+     * all of them.
+     *
+     * @param validator validates the file at an index
+     */
+    void validateAdmitted(final ExecutorService executorService, final MemoryAdmission memoryAdmission,
+        final IntConsumer validator) throws MojoExecutionException {
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int fileIndex = 0;
+            while (fileIndex < jsonFiles.size()) {
+                final int first = fileIndex;
+                fileIndex = getBatchEnd(first);
+                final int last = fileIndex;
+                long bytes = 0;
+                for (int index = first; index < last; index++) {
+                    bytes += getFileSize(jsonFiles.get(index));
+                }
+                final long cost = memoryAdmission.estimate(bytes);
+                memoryAdmission.acquire(cost, last - first);
+                futures.add(executorService.submit(() -> {
+                    try {
+                        for (int index = first; index < last; index++) {
+                            validator.accept(index);
+                        }
+                    } finally {
+                        memoryAdmission.release(cost);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while validating json files", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Failed while validating json files", e.getCause());
+        }
+    }
+
+    /**
+     * Sends all batches to the forked workers, see {@link ForkedWorkers}, and hands the outcome of each file to the
+     * consumer in the order of the files.
+     *
+     * @param outcomes accepts a file and its failure message, or {@code null} if it is valid
+     */
+    void validateForked(final ForkedWorkers forkedWorkers, final Validation validation, final String schemaFile,
+        final ValidatorRequest request, final BiConsumer<String, String> outcomes) throws MojoExecutionException {
+        try {
+            Map<Integer, Future<String[]>> futures = new LinkedHashMap<>();
+            int fileIndex = 0;
+            while (fileIndex < jsonFiles.size()) {
+                int first = fileIndex;
+                fileIndex = getBatchEnd(first);
+                futures.put(first, forkedWorkers.validate(validation, schemaFile, request, jsonFiles.subList(first, fileIndex)));
+            }
+            for (Map.Entry<Integer, Future<String[]>> entry : futures.entrySet()) {
+                String[] messages = entry.getValue().get();
+                for (int position = 0; position < messages.length; position++) {
+                    outcomes.accept(jsonFiles.get(entry.getKey() + position), messages[position]);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while validating json files", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Failed while validating json files", e.getCause());
+        }
+    }
+}
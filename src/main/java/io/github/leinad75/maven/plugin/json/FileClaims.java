@@ -0,0 +1,114 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * The files of one validation claimed in the {@link ValidationContext} of the run, so a file selected by several
+ * validations or modules with the same schema and settings is validated once. The validations which selected a file
+ * claimed before wait for its outcome instead.
+ */
+class FileClaims {
+
+    private final ValidationContext context;
+    private final Log log;
+    private final Map<String, CompletableFuture<String>> claimedBefore = new LinkedHashMap<>();
+    private final Set<String> claimedFiles = new LinkedHashSet<>();
+    private String claimKey;
+
+    FileClaims(final ValidationContext context, final Log log) {
+        this.context = context;
+        this.log = log;
+    }
+
+    /**
+     * Claims the files and removes all files which were already claimed with the same key in this run, or selected
+     * twice by this validation.
+     *
+     * @param claimKey the schema and the settings changing what is validated or collected from a file
+     */
+    void claim(final List<String> jsonFiles, final String claimKey, final String schemaFile) {
+        this.claimKey = claimKey;
+        jsonFiles.removeIf(jsonFile -> {
+            if (claimedFiles.contains(jsonFile)) {
+                return true;
+            }
+            CompletableFuture<String> outcome = context.claim(new File(jsonFile).getAbsolutePath(), claimKey);
+            if (outcome == null) {
+                claimedFiles.add(jsonFile);
+                return false;
+            }
+            claimedBefore.put(jsonFile, outcome);
+            if (log.isDebugEnabled()) {
+                log.debug("File: " + jsonFile + " - already validated against " + schemaFile + " - skipping");
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Records the outcome of a file claimed by this validation, its failure message or {@code null} if it is valid,
+     * for the validations which selected it too. Does nothing before the files are claimed.
+     */
+    void recordOutcome(final String jsonFile, final String message) {
+        if (claimKey != null) {
+            context.recordOutcome(new File(jsonFile).getAbsolutePath(), claimKey, message);
+        }
+    }
+
+    /**
+     * Records the files claimed by this validation without an outcome as failed, so validations waiting for them do
+     * not wait forever. Only the first outcome of a file is kept.
+     */
+    void abort() {
+        for (String jsonFile : claimedFiles) {
+            recordOutcome(jsonFile, "Failed to validate file " + jsonFile + ", its validation was aborted");
+        }
+    }
+
+    /**
+     * Returns the failure messages of the files claimed by other validations of the run by file, so a failing file
+     * fails every validation and module selecting it. Waits for the validations still running.
+     */
+    Map<String, String> awaitFailuresClaimedBefore() throws MojoExecutionException {
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<String>> entry : claimedBefore.entrySet()) {
+            String message;
+            try {
+                message = entry.getValue().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while validating json files", e);
+            } catch (ExecutionException e) {
+                throw new MojoExecutionException("Failed while validating json files", e.getCause());
+            }
+            if (message != null) {
+                failures.put(entry.getKey(), message);
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import io.github.leinad75.maven.plugin.json.util.FileSampler;
+import io.github.leinad75.maven.plugin.json.util.GitChanges;
+import io.github.leinad75.maven.plugin.json.util.JsonInputs;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Reduces the files of a validation to the reproducible sample configured for it, see {@link FileSampler}. Files
+ * changed since the git base ref or modified recently are always validated.
+ */
+class FileSampling {
+
+    private final ValidatorRequest request;
+    private final Validation validation;
+    private int unsampledFileCount;
+
+    FileSampling(final ValidatorRequest request, final Validation validation) {
+        this.request = request;
+        this.validation = validation;
+    }
+
+    /**
+     * Returns {@code true} if the validation configures a sample and sampling is not disabled for the run.
+     */
+    boolean isSampled() {
+        return request.isSampling() && validation.getSample() != null && !validation.getSample().isBlank();
+    }
+
+    /**
+     * Replaces the files by the sample, in their original order, if the validation is sampled.
+     */
+    void sample(final List<String> jsonFiles) throws MojoExecutionException {
+        if (!isSampled()) {
+            return;
+        }
+        FileSampler fileSampler;
+        try {
+            fileSampler = new FileSampler(validation.getSample(), validation.getSampleSeed());
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Invalid sample " + validation.getSample()
+                + ", expected a percentage like 5% or a number of files", e);
+        }
+        Set<String> changedFiles = getChangedFiles();
+        long modifiedAfter = getModifiedAfter();
+        int[] alwaysIncluded = new int[1];
+        unsampledFileCount = jsonFiles.size();
+        List<String> sample = fileSampler.select(jsonFiles, this::getSampleKey, jsonFile -> {
+            File file = new File(getContainingFile(jsonFile));
+            boolean included = changedFiles.contains(file.getAbsolutePath()) || file.lastModified() >= modifiedAfter;
+            if (included) {
+                alwaysIncluded[0]++;
+            }
+            return included;
+        });
+        jsonFiles.clear();
+        jsonFiles.addAll(sample);
+        request.getLog().info("Sample: " + jsonFiles.size() + " of " + unsampledFileCount + " files, including "
+            + alwaysIncluded[0] + " changed or recently modified files");
+    }
+
+    /**
+     * Returns the line logged after the sampled files were validated successfully, with the coverage of the sample
+     * and the time a run over all files would take at the same rate.
+     */
+    String getSummary(final int fileCount, final long elapsedMillis) {
+        long extrapolatedMillis = fileCount == 0 ? 0 : elapsedMillis * unsampledFileCount / fileCount;
+        return String.format("Succesfully processed %d of %d files (%.1f%% coverage) in %d ms,"
+                + " a full run would take about %d s.", fileCount, unsampledFileCount,
+            unsampledFileCount == 0 ? 100d : 100d * fileCount / unsampledFileCount, elapsedMillis,
+            TimeUnit.MILLISECONDS.toSeconds(extrapolatedMillis));
+    }
+
+    /**
+     * Returns the time in milliseconds after which modified files are always part of a sample.
+     */
+    private long getModifiedAfter() throws MojoExecutionException {
+        if (validation.getSampleModifiedWithin() == null || validation.getSampleModifiedWithin().isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return System.currentTimeMillis() - Duration.parse(validation.getSampleModifiedWithin()).toMillis();
+        } catch (DateTimeParseException e) {
+            throw new MojoExecutionException("Invalid sampleModifiedWithin " + validation.getSampleModifiedWithin()
+                + ", expected a duration like PT24H", e);
+        }
+    }
+
+    private Set<String> getChangedFiles() {
+        if (validation.getSampleGitBase() == null || validation.getSampleGitBase().isBlank()) {
+            return Collections.emptySet();
+        }
+        File directory = validation.getDirectory() != null && !validation.getDirectory().isBlank()
+            ? new File(validation.getDirectory())
+            : request.getProject() != null ? request.getProject().getBasedir() : new File(".");
+        try {
+            return GitChanges.getChangedFiles(directory, validation.getSampleGitBase());
+        } catch (IOException e) {
+            request.getLog().warn("Failed to list files changed since " + validation.getSampleGitBase()
+                + ", sampling without them: " + e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * Returns the key a file is ranked by, its path relative to the validation directory so the sample does not
+     * depend on the location of the checkout.
+     */
+    private String getSampleKey(final String jsonFile) {
+        String directory = validation.getDirectory();
+        if (directory != null && !directory.isBlank() && jsonFile.startsWith(directory)) {
+            return jsonFile.substring(directory.length()).replace(File.separatorChar, '/');
+        }
+        return jsonFile.replace(File.separatorChar, '/');
+    }
+
+    private static String getContainingFile(final String jsonFile) {
+        int separator = jsonFile.indexOf(JsonInputs.ARCHIVE_SEPARATOR);
+        return separator < 0 ? jsonFile : jsonFile.substring(0, separator);
+    }
+}
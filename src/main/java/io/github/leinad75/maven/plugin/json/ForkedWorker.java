@@ -0,0 +1,201 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A forked JVM running a {@link ValidationWorker}, used by one thread at a time. Validations are configured once per
+ * worker, the files of a batch are sent in one frame and their results are read as the worker validates them.
+ */
+final class ForkedWorker {
+
+    private static final long EXIT_TIMEOUT_SECONDS = 10;
+    private static final long CONNECT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final int ACCEPT_POLL_MILLIS = 100;
+    private static final long HEADER_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Process process;
+    private Socket socket;
+    private DataOutputStream out;
+    private DataInputStream in;
+    private final Set<Integer> configuredValidations = new HashSet<>();
+
+    private ForkedWorker(final Process process) {
+        this.process = process;
+    }
+
+    /**
+     * Starts a worker with the port to connect to and a random nonce as its last arguments and waits until it is ready
+     * to read frames.
+     *
+     * @throws IOException if the process can not be started, exits or does not connect
+     */
+    static ForkedWorker start(final List<String> command) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(ACCEPT_POLL_MILLIS);
+            byte[] nonce = new byte[WorkerProtocol.NONCE_LENGTH];
+            RANDOM.nextBytes(nonce);
+            List<String> workerCommand = new ArrayList<>(command);
+            workerCommand.add(Integer.toString(serverSocket.getLocalPort()));
+            workerCommand.add(Base64.getUrlEncoder().withoutPadding().encodeToString(nonce));
+            ForkedWorker worker = new ForkedWorker(new ProcessBuilder(workerCommand).inheritIO().start());
+            try {
+                worker.socket = accept(serverSocket, nonce, worker.process::isAlive,
+                    System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS);
+                worker.socket.setTcpNoDelay(true);
+                worker.out = new DataOutputStream(new BufferedOutputStream(worker.socket.getOutputStream()));
+                worker.in = new DataInputStream(new BufferedInputStream(worker.socket.getInputStream()));
+            } catch (IOException e) {
+                throw new IOException(worker.terminate(), e);
+            }
+            return worker;
+        }
+    }
+
+    /**
+     * Accepts the connection of the worker, the first one starting with the protocol header and the nonce of the
+     * worker. Any other connection, for example of another local process, is closed before a frame is exchanged.
+     *
+     * @param workerAlive whether the worker may still connect, a JVM failing to start does not
+     * @throws IOException if the worker did not connect before the deadline
+     */
+    static Socket accept(final ServerSocket serverSocket, final byte[] nonce, final BooleanSupplier workerAlive,
+        final long deadline) throws IOException {
+        while (true) {
+            Socket candidate;
+            try {
+                candidate = serverSocket.accept();
+            } catch (SocketTimeoutException e) {
+                candidate = null;
+            }
+            if (candidate != null && isWorker(candidate, nonce, deadline)) {
+                return candidate;
+            }
+            if (!workerAlive.getAsBoolean() || System.currentTimeMillis() > deadline) {
+                throw new IOException("did not connect");
+            }
+        }
+    }
+
+    /**
+     * Reads the header of an accepted connection and closes it unless it is the one of the worker.
+     */
+    private static boolean isWorker(final Socket candidate, final byte[] nonce, final long deadline) throws IOException {
+        try {
+            // the worker writes its header as soon as it is connected
+            candidate.setSoTimeout((int) Math.max(Math.min(deadline - System.currentTimeMillis(), HEADER_TIMEOUT_MILLIS), 1));
+            // not buffered, nothing after the header may be read here
+            DataInputStream header = new DataInputStream(candidate.getInputStream());
+            boolean magic = header.readInt() == WorkerProtocol.MAGIC;
+            byte[] candidateNonce = new byte[nonce.length];
+            header.readFully(candidateNonce);
+            if (magic && MessageDigest.isEqual(nonce, candidateNonce)) {
+                candidate.setSoTimeout(0);
+                return true;
+            }
+        } catch (IOException e) {
+            // closed or timed out before sending the header
+        }
+        candidate.close();
+        return false;
+    }
+
+    /**
+     * Validates a batch of files. The failure message of each file, or {@code null} for a valid file, is stored at its
+     * position in {@code messages} and the position is set in {@code answered}, so the files without a result are
+     * known if the worker fails in the middle of the batch.
+     *
+     * @throws IOException if the worker can not be reached or exited
+     */
+    void validate(final int validationId, final byte[] configuration, final List<String> files, final Log log,
+        final String[] messages, final BitSet answered) throws IOException {
+        if (configuredValidations.add(validationId)) {
+            out.writeByte(WorkerProtocol.CONFIGURE);
+            out.writeInt(validationId);
+            out.write(configuration);
+        }
+        out.writeByte(WorkerProtocol.VALIDATE);
+        out.writeInt(validationId);
+        out.writeInt(files.size());
+        for (String file : files) {
+            WorkerProtocol.writeString(out, file);
+        }
+        out.flush();
+
+        while (true) {
+            byte type = in.readByte();
+            switch (type) {
+                case WorkerProtocol.LOG:
+                    byte level = in.readByte();
+                    WorkerProtocol.log(log, level, WorkerProtocol.readString(in));
+                    break;
+                case WorkerProtocol.RESULT:
+                    int position = in.readInt();
+                    messages[position] = in.readBoolean() ? WorkerProtocol.readString(in) : null;
+                    answered.set(position);
+                    break;
+                case WorkerProtocol.DONE:
+                    return;
+                default:
+                    throw new IOException("unexpected frame " + type);
+            }
+        }
+    }
+
+    /**
+     * Closes the connection, which lets the worker exit, and kills it if it does not exit in time. Returns how the
+     * worker ended, for messages.
+     */
+    String terminate() {
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            // the worker already exited
+        }
+        try {
+            if (process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                return "exited with code " + process.exitValue();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        process.destroyForcibly();
+        return "was killed";
+    }
+}
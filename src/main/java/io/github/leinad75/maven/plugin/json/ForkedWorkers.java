@@ -0,0 +1,297 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.FileSet;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Validates files in forked JVMs, like the {@code forkCount} of Surefire. Up to {@code forkCount} workers are started
+ * on demand and reused by all validations of the run, so each worker keeps the schemas it compiled. The workers run
+ * with their own JVM arguments, a worker running out of memory exits and only the files of the batch it held fail.
+ * The next batch starts a new worker.
+ */
+final class ForkedWorkers implements AutoCloseable {
+
+    /**
+     * Classes of the Maven API, which are provided by the Maven runtime instead of the plugin class loader.
+     */
+    private static final List<Class<?>> PROVIDED_CLASSES = Arrays.asList(Log.class, FileSet.class, Artifact.class,
+        MavenProject.class);
+
+    private final List<String> command;
+    private final ExecutorService dispatchers;
+    private final BlockingQueue<ForkedWorker> idleWorkers = new LinkedBlockingQueue<>();
+    private final Map<Validation, Integer> validationIds = new IdentityHashMap<>();
+    private final List<byte[]> configurations = new ArrayList<>();
+    private final List<ForkedWorker> workers = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger startedWorkers = new AtomicInteger();
+    private final AtomicInteger failedWorkers = new AtomicInteger();
+
+    /**
+     * @param jvmArgs the JVM arguments of the workers, see {@link #parseJvmArgs(String)}
+     */
+    ForkedWorkers(final int forkCount, final List<String> jvmArgs) {
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        // a worker out of memory must not go on
+        command.add("-XX:+ExitOnOutOfMemoryError");
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(getClasspath());
+        command.add(ValidationWorker.class.getName());
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        dispatchers = Executors.newFixedThreadPool(forkCount, runnable -> {
+            Thread thread = new Thread(runnable, "json-validator-fork-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Parses a fork count, a number of workers like {@code 4} or a multiple of the number of processors like
+     * {@code 0.5C}.
+     *
+     * @throws MojoExecutionException if the fork count is not valid
+     */
+    static int parseForkCount(final String forkCount) throws MojoExecutionException {
+        String value = forkCount == null ? "0" : forkCount.trim();
+        try {
+            if (value.endsWith("C") || value.endsWith("c")) {
+                double perProcessor = Double.parseDouble(value.substring(0, value.length() - 1));
+                if (perProcessor < 0) {
+                    throw new NumberFormatException();
+                }
+                return perProcessor == 0 ? 0
+                    : Math.max(1, (int) (perProcessor * Runtime.getRuntime().availableProcessors()));
+            }
+            int count = Integer.parseInt(value);
+            if (count < 0) {
+                throw new NumberFormatException();
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new MojoExecutionException("Invalid forkCount " + forkCount
+                + ", expected a number of workers like 2 or a multiple of the processors like 1C", e);
+        }
+    }
+
+    /**
+     * Splits JVM arguments separated by whitespace. Single or double quotes keep whitespace within an argument, like
+     * {@code "-Dtitle=JSON files"}, and are removed.
+     *
+     * @throws MojoExecutionException if a quote is not closed
+     */
+    static List<String> parseJvmArgs(final String jvmArgs) throws MojoExecutionException {
+        List<String> arguments = new ArrayList<>();
+        if (jvmArgs == null) {
+            return arguments;
+        }
+        StringBuilder argument = null;
+        char quote = 0;
+        for (char c : jvmArgs.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    argument.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (argument != null) {
+                    arguments.add(argument.toString());
+                    argument = null;
+                }
+            } else {
+                if (argument == null) {
+                    argument = new StringBuilder();
+                }
+                if (c == '"' || c == '\'') {
+                    quote = c;
+                } else {
+                    argument.append(c);
+                }
+            }
+        }
+        if (quote != 0) {
+            throw new MojoExecutionException("Invalid jvmArgs " + jvmArgs + ", missing closing quote " + quote);
+        }
+        if (argument != null) {
+            arguments.add(argument.toString());
+        }
+        return arguments;
+    }
+
+    /**
+     * Submits a batch of files to the next idle worker. The future holds the failure message of each file, or
+     * {@code null} for a valid file, in the order of the files.
+     */
+    Future<String[]> validate(final Validation validation, final String schemaFile, final ValidatorRequest request,
+        final List<String> files) throws MojoExecutionException {
+        int validationId;
+        byte[] configuration;
+        synchronized (validationIds) {
+            validationId = getValidationId(validation, schemaFile, request);
+            configuration = configurations.get(validationId);
+        }
+        return dispatchers.submit(() -> dispatch(validationId, configuration, files, request.getLog()));
+    }
+
+    private String[] dispatch(final int validationId, final byte[] configuration, final List<String> files,
+        final Log log) {
+        String[] messages = new String[files.size()];
+        BitSet answered = new BitSet(files.size());
+        ForkedWorker worker = idleWorkers.poll();
+        try {
+            if (worker == null) {
+                worker = ForkedWorker.start(command);
+                workers.add(worker);
+                startedWorkers.incrementAndGet();
+            }
+            worker.validate(validationId, configuration, files, log, messages, answered);
+            idleWorkers.add(worker);
+        } catch (IOException | RuntimeException e) {
+            // the worker may be in the middle of a frame, it is not reused
+            failedWorkers.incrementAndGet();
+            String reason = worker != null ? worker.terminate() : e instanceof IOException ? e.getMessage() : e.toString();
+            workers.remove(worker);
+            String warning = "Forked worker " + reason + ", " + (files.size() - answered.cardinality())
+                + " files not validated";
+            if (e instanceof IOException) {
+                log.warn(warning);
+            } else {
+                log.warn(warning, e);
+            }
+            for (int position = answered.nextClearBit(0); position < files.size();
+                position = answered.nextClearBit(position + 1)) {
+                messages[position] = "File: " + files.get(position) + " - not validated, the forked worker " + reason;
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Returns the id of a validation, encoding its configuration frame on first use. Called holding the lock of the
+     * validation ids.
+     */
+    private int getValidationId(final Validation validation, final String schemaFile, final ValidatorRequest request)
+        throws MojoExecutionException {
+        Integer validationId = validationIds.get(validation);
+        if (validationId != null) {
+            return validationId;
+        }
+        validationId = configurations.size();
+        File buildDirectory = request.getBuildDirectory();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            WorkerProtocol.writeString(out, schemaFile);
+            WorkerProtocol.writeString(out, buildDirectory == null ? "" : buildDirectory.getPath());
+            out.writeBoolean(request.isVerbose());
+            out.writeBoolean(request.getLog().isDebugEnabled());
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+                objectOut.writeObject(validation);
+            }
+            WorkerProtocol.writeBytes(out, serialized.toByteArray());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to send validation " + validation + " to forked workers", e);
+        }
+        validationIds.put(validation, validationId);
+        configurations.add(bytes.toByteArray());
+        return validationId;
+    }
+
+    /**
+     * Returns a summary of the started workers, or {@code null} if none were started.
+     */
+    String getSummary() {
+        int started = startedWorkers.get();
+        return started == 0 ? null
+            : "Forked workers: " + started + " started, " + failedWorkers.get() + " failed";
+    }
+
+    /**
+     * Returns the class path of the workers: the plugin with its dependencies and the Maven API.
+     */
+    static String getClasspath() {
+        Set<String> entries = new LinkedHashSet<>();
+        ClassLoader classLoader = ForkedWorkers.class.getClassLoader();
+        if (classLoader instanceof URLClassLoader) {
+            for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                addEntry(entries, url);
+            }
+        } else {
+            entries.addAll(Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+        }
+        for (Class<?> providedClass : PROVIDED_CLASSES) {
+            CodeSource codeSource = providedClass.getProtectionDomain().getCodeSource();
+            if (codeSource != null) {
+                addEntry(entries, codeSource.getLocation());
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void addEntry(final Set<String> entries, final URL url) {
+        try {
+            entries.add(Paths.get(url.toURI()).toString());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // not a file, can not be put on a class path
+        }
+    }
+
+    /**
+     * Stops all workers by closing their connections, they exit as soon as they see the connection closed. A worker
+     * which does not exit in time is killed.
+     */
+    @Override
+    public void close() {
+        dispatchers.shutdownNow();
+        synchronized (workers) {
+            workers.forEach(ForkedWorker::terminate);
+            workers.clear();
+        }
+        idleWorkers.clear();
+    }
+}
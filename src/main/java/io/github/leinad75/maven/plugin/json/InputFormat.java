@@ -0,0 +1,53 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import java.util.Locale;
+
+/**
+ * Formats of the validated files.
+ */
+public enum InputFormat {
+    /**
+     * JSON, one document per file.
+     */
+    JSON,
+    /**
+     * YAML, validated as the equivalent JSON. A file may hold a stream of several documents separated by {@code ---},
+     * each of them is validated on its own.
+     */
+    YAML,
+    /**
+     * YAML for files ending with {@code .yaml} or {@code .yml}, also when compressed, JSON for all other files.
+     */
+    AUTO;
+
+    /**
+     * Returns whether a file, or an archive entry, is read as YAML.
+     */
+    boolean isYaml(final String file) {
+        if (this != AUTO) {
+            return this == YAML;
+        }
+        String name = file.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - ".gz".length());
+        } else if (name.endsWith(".zst")) {
+            name = name.substring(0, name.length() - ".zst".length());
+        }
+        return name.endsWith(".yaml") || name.endsWith(".yml");
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonNodePath;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.PathType;
+import com.networknt.schema.SchemaValidatorsConfig;
+import io.github.leinad75.maven.plugin.json.codegen.GeneratedValidator;
+import io.github.leinad75.maven.plugin.json.codegen.UnsupportedSchemaException;
+import io.github.leinad75.maven.plugin.json.codegen.ValidatorCompiler;
+import io.github.leinad75.maven.plugin.json.jfr.SchemaCompileEvent;
+import io.github.leinad75.maven.plugin.json.util.DependencyCache;
+import io.github.leinad75.maven.plugin.json.jfr.StrictSchemaEvent;
+import io.github.leinad75.maven.plugin.json.util.JsonTreeWalker;
+import java.util.ArrayList;
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A schema loaded from a file together with its compiled validator trees. The default and the strict validator tree
+ * are built on first use and reused by all executors validating against the same schema with the same settings.
+ */
+class LoadedSchema {
+
+    private static final String PROP_ADDITIONAL_PROPERTIES = "additionalProperties";
+    private static final String PROP_ITEMS = "items";
+    private static final String PROP_TYPE = "type";
+
+    /**
+     * Keywords of a root schema which do not constrain the array as a whole, besides {@code items} and a {@code type}
+     * of {@code array}: annotations, identifiers and definitions.
+     */
+    private static final Set<String> ANNOTATION_KEYWORDS = Set.of("$schema", "$id", "id", "$anchor", "$dynamicAnchor",
+        "$vocabulary", "$comment", "title", "description", "default", "examples", "deprecated", "readOnly", "writeOnly",
+        "definitions", "$defs");
+
+    private final String schemaFile;
+    private final JsonNode schemaNode;
+    private final Map<String, String> documents;
+    private final JsonSchemaFactory jsonSchemaFactory;
+    private final SchemaValidatorsConfig config;
+    private final Log log;
+
+    private JsonNode strictSchemaNode;
+    private JsonSchema schema;
+    private JsonSchema strictSchema;
+    private JsonSchema itemsSchema;
+    private JsonSchema strictItemsSchema;
+    private final Map<String, Optional<GeneratedValidator>> generatedValidators = new HashMap<>();
+
+    /**
+     * @param documents the content of the documents referenced by the schema by their URI, or {@code null}
+     */
+    LoadedSchema(final String schemaFile, final JsonNode schemaNode, final Map<String, String> documents,
+        final JsonSchemaFactory jsonSchemaFactory, final SchemaValidatorsConfig config, final Log log) {
+        this(schemaFile, schemaNode, null, documents, jsonSchemaFactory, config, log);
+    }
+
+    /**
+     * @param strictSchemaNode the strict schema rewritten before, or {@code null} to rewrite it on first use
+     * @param documents the content of the documents referenced by the schema by their URI, or {@code null}
+     */
+    LoadedSchema(final String schemaFile, final JsonNode schemaNode, final JsonNode strictSchemaNode,
+        final Map<String, String> documents, final JsonSchemaFactory jsonSchemaFactory,
+        final SchemaValidatorsConfig config, final Log log) {
+        this.schemaFile = schemaFile;
+        this.schemaNode = schemaNode;
+        this.strictSchemaNode = strictSchemaNode;
+        this.documents = documents == null ? Collections.emptyMap() : Collections.unmodifiableMap(new TreeMap<>(documents));
+        this.jsonSchemaFactory = jsonSchemaFactory;
+        this.config = config;
+        this.log = log;
+    }
+
+    JsonNode getSchemaNode() {
+        return schemaNode;
+    }
+
+    /**
+     * Returns the content of the documents referenced by the schema, resolved up front or bundled, by their URI.
+     */
+    Map<String, String> getDocuments() {
+        return documents;
+    }
+
+    JsonSchemaFactory getJsonSchemaFactory() {
+        return jsonSchemaFactory;
+    }
+
+    /**
+     * Returns the compiled validator tree of the schema. The tree is built once and reused for all files instead of
+     * being rebuilt from the schema node for every file.
+     */
+    synchronized JsonSchema getSchema() {
+        if (schema == null) {
+            schema = compileSchema(schemaNode, false);
+        }
+        return schema;
+    }
+
+    /**
+     * Returns the compiled validator tree of the strict schema, see {@link #forceAdditionalProperties(JsonNode)}.
+     */
+    synchronized JsonSchema getStrictSchema() {
+        if (strictSchema == null) {
+            strictSchema = compileSchema(getStrictSchemaNode(), true);
+        }
+        return strictSchema;
+    }
+
+    /**
+     * Returns the keywords of the root schema which apply to a top-level array as a whole, like {@code prefixItems},
+     * {@code minItems} or {@code allOf}, and are not checked if the elements are validated one by one against the
+     * {@code items} schema.
+     */
+    List<String> getArrayKeywords() {
+        List<String> arrayKeywords = new ArrayList<>();
+        schemaNode.fieldNames().forEachRemaining(keyword -> {
+            boolean arrayType = PROP_TYPE.equals(keyword) && "array".equals(schemaNode.get(PROP_TYPE).asText());
+            if (!PROP_ITEMS.equals(keyword) && !arrayType && !ANNOTATION_KEYWORDS.contains(keyword)) {
+                arrayKeywords.add(keyword);
+            }
+        });
+        return arrayKeywords;
+    }
+
+    /**
+     * Returns the compiled {@code items} schema of the (strict) schema, used to validate the elements of a top-level
+     * array one by one, or {@code null} if the schema has no {@code items} schema. The keywords of
+     * {@link #getArrayKeywords()} are not checked by it.
+     */
+    synchronized JsonSchema getItemsSchema(boolean strict) {
+        if (!schemaNode.path(PROP_ITEMS).isObject()) {
+            return null;
+        }
+        if (strict) {
+            if (strictItemsSchema == null) {
+                strictItemsSchema = compileItemsSchema(getStrictSchema());
+            }
+            return strictItemsSchema;
+        }
+        if (itemsSchema == null) {
+            itemsSchema = compileItemsSchema(getSchema());
+        }
+        return itemsSchema;
+    }
+
+    /**
+     * Returns the validator generated from the (strict) schema or from its {@code items} schema, see
+     * {@link ValidatorCompiler}, or {@code null} if the schema can not be generated. It is generated on first use and
+     * shared like the validator trees.
+     *
+     * @param sourceDirectory the directory the generated source is written to, or {@code null}
+     */
+    synchronized GeneratedValidator getGeneratedValidator(boolean strict, boolean items, File sourceDirectory) {
+        String variant = (strict ? "Strict" : "") + (items ? "Items" : "");
+        Optional<GeneratedValidator> generatedValidator = generatedValidators.get(variant);
+        if (generatedValidator == null) {
+            generatedValidator = generateValidator(strict ? getStrictSchema() : getSchema(), items, variant,
+                sourceDirectory);
+            generatedValidators.put(variant, generatedValidator);
+        }
+        return generatedValidator.orElse(null);
+    }
+
+    private Optional<GeneratedValidator> generateValidator(JsonSchema compiledSchema, boolean items, String variant,
+        File sourceDirectory) {
+        // schemas of the same name in different places get classes of their own
+        String className = ValidatorCompiler.toClassName(new File(schemaFile).getName()) + variant + "Validator_"
+            + DependencyCache.checksum(new File(schemaFile).getAbsolutePath() + "|" + compiledSchema.getSchemaNode())
+                .substring(0, 8);
+        try {
+            GeneratedValidator generatedValidator = ValidatorCompiler.compile(compiledSchema, items ? "/" + PROP_ITEMS : "",
+                className, schemaFile, sourceDirectory);
+            if (log.isDebugEnabled()) {
+                log.debug("Schema: " + schemaFile + " - generated validator " + className);
+            }
+            return Optional.of(generatedValidator);
+        } catch (UnsupportedSchemaException e) {
+            log.info("Schema: " + schemaFile + " - " + e.getMessage() + ", validating with the interpreter");
+            return Optional.empty();
+        } catch (IllegalStateException e) {
+            log.warn("Schema: " + schemaFile + " - " + e.getMessage() + ", validating with the interpreter");
+            return Optional.empty();
+        }
+    }
+
+    private static JsonSchema compileItemsSchema(JsonSchema rootSchema) {
+        JsonSchema compiledSchema = rootSchema.getSubSchema(new JsonNodePath(PathType.JSON_POINTER).append(PROP_ITEMS));
+        compiledSchema.initializeValidators();
+        return compiledSchema;
+    }
+
+    private JsonSchema compileSchema(JsonNode node, boolean strict) {
+        SchemaCompileEvent event = new SchemaCompileEvent();
+        event.begin();
+        JsonSchema compiledSchema = jsonSchemaFactory.getSchema(node, config);
+        compiledSchema.initializeValidators();
+        event.end();
+        if (event.shouldCommit()) {
+            event.schemaPath = schemaFile;
+            event.strict = strict;
+            event.commit();
+        }
+        return compiledSchema;
+    }
+
+    synchronized JsonNode getStrictSchemaNode() {
+        if (strictSchemaNode == null) {
+            strictSchemaNode = forceAdditionalProperties(schemaNode);
+        }
+        return strictSchemaNode;
+    }
+
+    private JsonNode forceAdditionalProperties(JsonNode schemaNode) {
+        StrictSchemaEvent event = new StrictSchemaEvent();
+        event.begin();
+        int[] rewrittenObjects = new int[1];
+        JsonNode clonedSchema = schemaNode.deepCopy();
+        new JsonTreeWalker().walkTree(clonedSchema, (nodeName, objectNode) -> {
+            JsonNode typeNode = objectNode.get("type");
+            if (typeNode instanceof TextNode && "object".equals(typeNode.asText())) {
+                if (log.isDebugEnabled()) {
+                    log.debug("found schema object: " + objectNode);
+                }
+                JsonNode addPropsNode = objectNode.get(PROP_ADDITIONAL_PROPERTIES);
+                // set if no additionalProperties
+                if (addPropsNode == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("disabling additional properties for node " + nodeName);
+                    }
+                    objectNode.set(PROP_ADDITIONAL_PROPERTIES, BooleanNode.FALSE);
+                    rewrittenObjects[0]++;
+                }
+            }
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            event.schemaPath = schemaFile;
+            event.rewrittenObjects = rewrittenObjects[0];
+            event.commit();
+        }
+        return clonedSchema;
+    }
+}
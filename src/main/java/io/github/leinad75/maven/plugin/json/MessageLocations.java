@@ -0,0 +1,115 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.ValidationMessage;
+import io.github.leinad75.maven.plugin.json.util.JsonInputs;
+import io.github.leinad75.maven.plugin.json.util.JsonLocationIndex;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Adds the source locations to the messages of failing files. Only failing files are scanned again with a location
+ * tracking parser, so the regular parse stays free of location tracking.
+ */
+class MessageLocations {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Validation validation;
+    private final JsonInputs jsonInputs;
+    private final ObjectMapper yamlMapper;
+    private final Log log;
+
+    MessageLocations(final Validation validation, final JsonInputs jsonInputs, final ObjectMapper yamlMapper,
+        final Log log) {
+        this.validation = validation;
+        this.jsonInputs = jsonInputs;
+        this.yamlMapper = yamlMapper;
+        this.log = log;
+    }
+
+    /**
+     * Returns the errors and the warnings of one document of a file, each with the source location of its instance
+     * location if it was found. The documents of a YAML stream are numbered from 0.
+     */
+    Located locate(final String file, final int document, final List<ValidationMessage> errors,
+        final List<ValidationMessage> warnings) {
+        List<ValidationMessage> messages = new ArrayList<>(errors);
+        messages.addAll(warnings);
+        Map<String, JsonLocation> locations = locate(file, document, messages);
+        return new Located(withLocations(errors, locations), withLocations(warnings, locations));
+    }
+
+    private Map<String, JsonLocation> locate(final String file, final int document,
+        final List<ValidationMessage> messages) {
+        Set<String> pointers = messages.stream()
+            .map(message -> message.getInstanceLocation().toString())
+            .collect(Collectors.toSet());
+        try {
+            InputStream inputStream = jsonInputs.open(file);
+            JsonParser parser = validation.getFormat().isYaml(file)
+                ? yamlMapper.getFactory().createParser(inputStream)
+                : OBJECT_MAPPER.getFactory().createParser(inputStream);
+            return JsonLocationIndex.locate(parser, document, pointers);
+        } catch (IOException e) {
+            log.debug("File: " + file + " - locating messages - Failure", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private static List<String> withLocations(final List<ValidationMessage> messages,
+        final Map<String, JsonLocation> locations) {
+        return messages.stream()
+            .map(message -> {
+                JsonLocation location = locations.get(message.getInstanceLocation().toString());
+                return location == null ? message.toString() : message + " (" + JsonLocationIndex.format(location) + ")";
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The described errors and warnings of a document.
+     */
+    static final class Located {
+
+        private final List<String> errors;
+        private final List<String> warnings;
+
+        private Located(final List<String> errors, final List<String> warnings) {
+            this.errors = errors;
+            this.warnings = warnings;
+        }
+
+        List<String> getErrors() {
+            return errors;
+        }
+
+        List<String> getWarnings() {
+            return warnings;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+/**
+ * Referential integrity rule of a validation: every value at the {@code pointer} of a file must exist at the
+ * {@code target} pointer of one of the validated files.
+ * <pre>
+ * {@code
+ * <references>
+ *     <reference>
+ *         <pointer>/parentId</pointer>
+ *         <target>/id</target>
+ *     </reference>
+ * </references>
+ * }
+ * </pre>
+ */
+public class Reference {
+    private String pointer;
+    private String target;
+
+    public String getPointer() {
+        return pointer;
+    }
+
+    public void setPointer(String pointer) {
+        this.pointer = pointer;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    @Override
+    public String toString() {
+        return pointer + " -> " + target;
+    }
+}
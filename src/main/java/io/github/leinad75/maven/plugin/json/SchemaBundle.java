@@ -0,0 +1,156 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * A schema prepared once by the {@code bundle-schema} goal of the module owning it: the detected specification
+ * version, the result of the meta validation, the rewritten strict schema and all documents referenced by
+ * {@code $ref}. Consumers load the bundle instead of the schema file and skip all of this work, only the validator
+ * trees are still compiled. The bundle is a Smile document, the binary form of json read without parsing text, in
+ * which repeated field names and short texts like the keywords of the schemas are written once.
+ */
+class SchemaBundle {
+
+    static final int FORMAT_VERSION = 2;
+    static final String CLASSIFIER = "schema-bundle";
+    static final String TYPE = "smile";
+
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(SmileFactory.builder()
+        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+        .build());
+
+    private final String schemaFile;
+    private final String specVersion;
+    private final boolean metaValidated;
+    private final JsonNode schemaNode;
+    private final JsonNode strictSchemaNode;
+    private final Map<String, String> documents;
+
+    SchemaBundle(final String schemaFile, final String specVersion, final boolean metaValidated,
+        final JsonNode schemaNode, final JsonNode strictSchemaNode, final Map<String, String> documents) {
+        this.schemaFile = schemaFile;
+        this.specVersion = specVersion;
+        this.metaValidated = metaValidated;
+        this.schemaNode = schemaNode;
+        this.strictSchemaNode = strictSchemaNode;
+        this.documents = documents;
+    }
+
+    String getSchemaFile() {
+        return schemaFile;
+    }
+
+    /**
+     * Returns the id of the specification version of the schema, see {@code VersionFlag#getId()}.
+     */
+    String getSpecVersion() {
+        return specVersion;
+    }
+
+    boolean isMetaValidated() {
+        return metaValidated;
+    }
+
+    JsonNode getSchemaNode() {
+        return schemaNode;
+    }
+
+    JsonNode getStrictSchemaNode() {
+        return strictSchemaNode;
+    }
+
+    /**
+     * Returns the content of each document referenced by the schema, by its URI.
+     */
+    Map<String, String> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @param objectMapper the mapper reading the referenced documents
+     */
+    void write(final ObjectMapper objectMapper, final File file) throws IOException {
+        ObjectNode bundle = SMILE_MAPPER.createObjectNode();
+        bundle.put("formatVersion", FORMAT_VERSION);
+        bundle.put("schemaFile", schemaFile);
+        bundle.put("specVersion", specVersion);
+        bundle.put("metaValidated", metaValidated);
+        bundle.set("schema", schemaNode);
+        bundle.set("strictSchema", strictSchemaNode);
+        ObjectNode documentNodes = bundle.putObject("documents");
+        for (Map.Entry<String, String> document : documents.entrySet()) {
+            documentNodes.set(document.getKey(), objectMapper.readTree(document.getValue()));
+        }
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        try (OutputStream outputStream = Files.newOutputStream(file.toPath())) {
+            SMILE_MAPPER.writeValue(outputStream, bundle);
+        }
+    }
+
+    /**
+     * Returns the schema bundle file given to a validation, either a file or a dependency artifact with the classifier
+     * {@value #CLASSIFIER} given as {@code groupId:artifactId}.
+     */
+    static String resolve(final ValidatorRequest request, final String schemaBundle) throws MojoExecutionException {
+        if (new File(schemaBundle).isFile()) {
+            return schemaBundle;
+        }
+        if (request.getProject() != null && request.getProject().getArtifacts() != null) {
+            for (Artifact artifact : request.getProject().getArtifacts()) {
+                if (schemaBundle.equals(artifact.getGroupId() + ":" + artifact.getArtifactId())
+                    && CLASSIFIER.equals(artifact.getClassifier()) && artifact.getFile() != null) {
+                    return artifact.getFile().getPath();
+                }
+            }
+        }
+        throw new MojoExecutionException("Schema bundle " + schemaBundle
+            + " is neither a file nor a dependency with the classifier " + CLASSIFIER);
+    }
+
+    static SchemaBundle read(final File file) throws IOException {
+        JsonNode bundle;
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            bundle = SMILE_MAPPER.readTree(inputStream);
+        }
+        if (bundle.path("formatVersion").asInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported schema bundle format " + bundle.path("formatVersion") + " in " + file
+                + ", expected " + FORMAT_VERSION);
+        }
+        Map<String, String> documents = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = bundle.path("documents").fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            documents.put(field.getKey(), field.getValue().toString());
+        }
+        return new SchemaBundle(bundle.path("schemaFile").asText(), bundle.path("specVersion").asText(),
+            bundle.path("metaValidated").asBoolean(), bundle.get("schema"), bundle.get("strictSchema"), documents);
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import com.networknt.schema.resource.SchemaLoader;
+import io.github.leinad75.maven.plugin.json.regex.RegexKeyword;
+import io.github.leinad75.maven.plugin.json.util.SchemaClosure;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * The documents referenced by the schema of a validation, resolved up front, see {@link SchemaClosure}, so no worker
+ * waits for a document while validating, and the schema factory loading them.
+ */
+class SchemaDocuments {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String CACHE_DIRECTORY = "json-validator/schemas";
+    private static final SchemaLoader OFFLINE_SCHEMA_LOADER = iri -> SchemaClosure.isRemote(iri.toString())
+        ? () -> {
+            throw new IOException("Schema " + iri + " is not available offline");
+        }
+        : null;
+
+    private final ValidatorRequest request;
+    private final Validation validation;
+
+    SchemaDocuments(final ValidatorRequest request, final Validation validation) {
+        this.request = request;
+        this.validation = validation;
+    }
+
+    /**
+     * Returns the documents referenced by the schema by their URI, from the schema mirror, the cache in the build
+     * directory or their origin. Documents which can not be resolved up front are loaded when used, unless strictly
+     * offline.
+     */
+    Map<String, String> resolve(final String schemaFile, final JsonNode schemaNode) throws MojoFailureException {
+        File mirrorDirectory = validation.getSchemaMirror() == null || validation.getSchemaMirror().isBlank()
+            ? null : new File(validation.getSchemaMirror());
+        File cacheDirectory = request.getBuildDirectory() == null
+            ? null : new File(request.getBuildDirectory(), CACHE_DIRECTORY);
+        try {
+            SchemaClosure schemaClosure = new SchemaClosure(OBJECT_MAPPER, mirrorDirectory, cacheDirectory,
+                validation.isStrictOffline());
+            Map<String, String> documents = schemaClosure.resolve(schemaNode, new File(schemaFile).getAbsoluteFile().toURI());
+            if (request.getLog().isDebugEnabled()) {
+                schemaClosure.getSources().forEach((uri, source) ->
+                    request.getLog().debug("Schema: " + uri + " - resolved from " + source));
+            }
+            schemaClosure.getUnresolved().forEach((uri, reason) -> request.getLog().warn("Schema: " + uri
+                + " - not resolved up front (" + reason + "), it is loaded when used"));
+            return documents;
+        } catch (IOException e) {
+            throw new MojoFailureException("Failed to resolve the references of schema " + schemaFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the factory of the schema, with the regex engine of the validation and loading the referenced documents
+     * from the resolved ones.
+     */
+    JsonSchemaFactory createFactory(final VersionFlag versionFlag, final Map<String, String> documents) {
+        return JsonSchemaFactory.getInstance(versionFlag, builder -> builder
+            .metaSchema(RegexKeyword.getMetaSchema(versionFlag, validation.getRegexEngine(), validation.getRegexStepBudget()))
+            .schemaMappers(schemaMappers -> schemaMappers.mapPrefix("https://localhost", "classpath:"))
+            .schemaLoaders(schemaLoaders -> {
+                schemaLoaders.schemas(documents);
+                if (validation.isStrictOffline()) {
+                    schemaLoaders.add(OFFLINE_SCHEMA_LOADER);
+                }
+            })
+        );
+    }
+}
@@ -15,6 +15,10 @@
  */
 package io.github.leinad75.maven.plugin.json;
 
+import io.github.leinad75.maven.plugin.json.codegen.ValidatorEngine;
+import io.github.leinad75.maven.plugin.json.regex.RegexEngine;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.maven.model.FileSet;
 
 /**
@@ -32,6 +36,93 @@ import org.apache.maven.model.FileSet;
  *           <exclude>**\*.schema</exclude>
  *       </excludes>
  *     </validation>
+ *     <!-- json entries of all archives in a directory, validated with 4 threads -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/file.schema</jsonSchema>
+ *       <directory>${project.basedir}/src/test/fixtures</directory>
+ *       <archives>true</archives>
+ *       <threads>4</threads>
+ *       <includes>
+ *           <include>**\*.json</include>
+ *       </includes>
+ *     </validation>
+ *     <!-- json entries of dependency artifacts -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/file.schema</jsonSchema>
+ *       <dependencies>
+ *           <dependency>com.example.config:*-bundle</dependency>
+ *       </dependencies>
+ *       <includes>
+ *           <include>config/**\*.json</include>
+ *       </includes>
+ *     </validation>
+ *     <!-- a file holding one large array, its elements are validated in parallel against the items schema -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/records.schema</jsonSchema>
+ *       <jsonFile>${project.basedir}/src/main/conf/records.json</jsonFile>
+ *       <splitArray>true</splitArray>
+ *       <batchSize>1000</batchSize>
+ *       <compactDocuments>true</compactDocuments>
+ *       <incremental>true</incremental>
+ *     </validation>
+ *     <!-- only the subtrees at the JSON pointers are validated, the rest of the file is skipped -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/spec.schema</jsonSchema>
+ *       <jsonFile>${project.basedir}/src/main/conf/manifest.json</jsonFile>
+ *       <pointers>
+ *           <pointer>/spec</pointer>
+ *       </pointers>
+ *     </validation>
+ *     <!-- a reproducible 1% sample plus all files changed since origin/main or modified within the last day -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/file.schema</jsonSchema>
+ *       <directory>${project.basedir}/src/test/fixtures</directory>
+ *       <sample>1%</sample>
+ *       <sampleSeed>42</sampleSeed>
+ *       <sampleGitBase>origin/main</sampleGitBase>
+ *       <sampleModifiedWithin>PT24H</sampleModifiedWithin>
+ *     </validation>
+ *     <!-- ids unique over all files, parent ids must refer to an existing id -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/node.schema</jsonSchema>
+ *       <directory>${project.basedir}/src/main/conf/nodes</directory>
+ *       <uniqueKeys>
+ *           <uniqueKey>/id</uniqueKey>
+ *       </uniqueKeys>
+ *       <references>
+ *           <reference>
+ *               <pointer>/parentId</pointer>
+ *               <target>/id</target>
+ *           </reference>
+ *       </references>
+ *     </validation>
+ *     <!-- remote $refs are read from a local mirror, the build fails instead of accessing the network -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/service.schema</jsonSchema>
+ *       <directory>${project.basedir}/src/main/conf/services</directory>
+ *       <schemaMirror>${project.basedir}/schema-mirror</schemaMirror>
+ *       <strictOffline>true</strictOffline>
+ *     </validation>
+ *     <!-- the schema bundle attached by the bundle-schema goal of the module owning the schema -->
+ *     <validation>
+ *       <schemaBundle>com.example:customer-schema</schemaBundle>
+ *       <directory>${project.basedir}/src/main/conf/customers</directory>
+ *     </validation>
+ *     <!-- YAML files, a file may hold several documents separated by --- -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/deployment.schema</jsonSchema>
+ *       <directory>${project.basedir}/src/main/k8s</directory>
+ *       <format>YAML</format>
+ *       <includes>
+ *           <include>**\*.yaml</include>
+ *       </includes>
+ *     </validation>
+ *     <!-- the quick check runs Java code generated from the schema instead of the interpreter -->
+ *     <validation>
+ *       <jsonSchema>${project.basedir}/src/main/conf/event.schema</jsonSchema>
+ *       <directory>${project.basedir}/src/main/conf/events</directory>
+ *       <validatorEngine>GENERATED</validatorEngine>
+ *     </validation>
  *     <!-- Additional validation rules -->
  *     <validation>
  *       <strict>true</strict>
@@ -50,6 +141,29 @@ public class Validation extends FileSet {
     private String jsonFile;
     private boolean strict = false;
     private boolean metaValidation = true;
+    private boolean quickCheck = true;
+    private boolean archives = false;
+    private int threads = 1;
+    private List<String> dependencies = new ArrayList<>();
+    private RegexEngine regexEngine = RegexEngine.JDK;
+    private ValidatorEngine validatorEngine = ValidatorEngine.INTERPRETER;
+    private long regexStepBudget = 10_000_000L;
+    private boolean splitArray = false;
+    private int batchSize = 1000;
+    private boolean incremental = false;
+    private List<String> pointers = new ArrayList<>();
+    private String sample;
+    private long sampleSeed = 0L;
+    private String sampleGitBase;
+    private String sampleModifiedWithin;
+    private List<String> uniqueKeys = new ArrayList<>();
+    private List<Reference> references = new ArrayList<>();
+    private boolean indexOnDisk = false;
+    private String schemaMirror;
+    private boolean strictOffline = false;
+    private String schemaBundle;
+    private boolean compactDocuments = false;
+    private InputFormat format = InputFormat.AUTO;
 
     private static final long serialVersionUID = 1L;
 
@@ -85,6 +199,190 @@ public class Validation extends FileSet {
         this.metaValidation = metaValidation;
     }
 
+    public boolean isQuickCheck() {
+        return quickCheck;
+    }
+
+    public void setQuickCheck(boolean quickCheck) {
+        this.quickCheck = quickCheck;
+    }
+
+    public boolean isArchives() {
+        return archives;
+    }
+
+    public void setArchives(boolean archives) {
+        this.archives = archives;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(List<String> dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    public RegexEngine getRegexEngine() {
+        return regexEngine;
+    }
+
+    public void setRegexEngine(RegexEngine regexEngine) {
+        this.regexEngine = regexEngine;
+    }
+
+    public ValidatorEngine getValidatorEngine() {
+        return validatorEngine;
+    }
+
+    public void setValidatorEngine(ValidatorEngine validatorEngine) {
+        this.validatorEngine = validatorEngine;
+    }
+
+    public long getRegexStepBudget() {
+        return regexStepBudget;
+    }
+
+    public void setRegexStepBudget(long regexStepBudget) {
+        this.regexStepBudget = regexStepBudget;
+    }
+
+    public boolean isSplitArray() {
+        return splitArray;
+    }
+
+    public void setSplitArray(boolean splitArray) {
+        this.splitArray = splitArray;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public List<String> getPointers() {
+        return pointers;
+    }
+
+    public void setPointers(List<String> pointers) {
+        this.pointers = pointers;
+    }
+
+    public String getSample() {
+        return sample;
+    }
+
+    public void setSample(String sample) {
+        this.sample = sample;
+    }
+
+    public long getSampleSeed() {
+        return sampleSeed;
+    }
+
+    public void setSampleSeed(long sampleSeed) {
+        this.sampleSeed = sampleSeed;
+    }
+
+    public String getSampleGitBase() {
+        return sampleGitBase;
+    }
+
+    public void setSampleGitBase(String sampleGitBase) {
+        this.sampleGitBase = sampleGitBase;
+    }
+
+    public String getSampleModifiedWithin() {
+        return sampleModifiedWithin;
+    }
+
+    public void setSampleModifiedWithin(String sampleModifiedWithin) {
+        this.sampleModifiedWithin = sampleModifiedWithin;
+    }
+
+    public List<String> getUniqueKeys() {
+        return uniqueKeys;
+    }
+
+    public void setUniqueKeys(List<String> uniqueKeys) {
+        this.uniqueKeys = uniqueKeys;
+    }
+
+    public List<Reference> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<Reference> references) {
+        this.references = references;
+    }
+
+    public boolean isIndexOnDisk() {
+        return indexOnDisk;
+    }
+
+    public void setIndexOnDisk(boolean indexOnDisk) {
+        this.indexOnDisk = indexOnDisk;
+    }
+
+    public String getSchemaMirror() {
+        return schemaMirror;
+    }
+
+    public void setSchemaMirror(String schemaMirror) {
+        this.schemaMirror = schemaMirror;
+    }
+
+    public boolean isStrictOffline() {
+        return strictOffline;
+    }
+
+    public void setStrictOffline(boolean strictOffline) {
+        this.strictOffline = strictOffline;
+    }
+
+    public String getSchemaBundle() {
+        return schemaBundle;
+    }
+
+    public void setSchemaBundle(String schemaBundle) {
+        this.schemaBundle = schemaBundle;
+    }
+
+    public boolean isCompactDocuments() {
+        return compactDocuments;
+    }
+
+    public void setCompactDocuments(boolean compactDocuments) {
+        this.compactDocuments = compactDocuments;
+    }
+
+    public InputFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(InputFormat format) {
+        this.format = format;
+    }
+
     @Override
     public String toString() {
         return "Validation{" +
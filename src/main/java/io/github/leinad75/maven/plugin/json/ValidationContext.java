@@ -0,0 +1,179 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import io.github.leinad75.maven.plugin.json.util.MemoryAdmission;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * State shared by all executors of one plugin run: the loaded and compiled schemas, the files claimed for
+ * validation against a schema with their outcome, the heap budget of parallel validations and optionally a worker pool holding the
+ * thread budget of the whole run and the forked JVMs validating files.
+ */
+public class ValidationContext {
+
+    private final Map<String, FutureTask<LoadedSchema>> schemas = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> claimedFiles = new ConcurrentHashMap<>();
+    private ExecutorService executorService;
+    private MemoryAdmission memoryAdmission;
+    private ForkedWorkers forkedWorkers;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool itemsPool;
+
+    /**
+     * Returns the worker pool shared by all executors, or {@code null} if every executor uses its own threads.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public ValidationContext setExecutorService(final ExecutorService executorServiceInput) {
+        executorService = executorServiceInput;
+        return this;
+    }
+
+    /**
+     * Sets the thread budget of the run, the number of threads validating the elements of split arrays. By default
+     * the number of processors.
+     */
+    ValidationContext setThreads(final int threadsInput) {
+        threads = Math.max(threadsInput, 1);
+        return this;
+    }
+
+    /**
+     * Returns the pool validating the batches of split arrays for all executors, so concurrently validated arrays
+     * share the thread budget instead of using one thread per processor each.
+     */
+    synchronized ForkJoinPool getItemsPool() {
+        if (itemsPool == null) {
+            itemsPool = new ForkJoinPool(threads);
+        }
+        return itemsPool;
+    }
+
+    /**
+     * Stops the threads created for the run.
+     */
+    synchronized void shutdown() {
+        if (itemsPool != null) {
+            itemsPool.shutdownNow();
+            itemsPool = null;
+        }
+    }
+
+    /**
+     * Returns the forked JVMs validating the files of all executors, or {@code null} if files are validated in the
+     * Maven JVM.
+     */
+    ForkedWorkers getForkedWorkers() {
+        return forkedWorkers;
+    }
+
+    ValidationContext setForkedWorkers(final ForkedWorkers forkedWorkersInput) {
+        forkedWorkers = forkedWorkersInput;
+        return this;
+    }
+
+    /**
+     * Returns the heap budget shared by all executors, by default half of the maximum heap.
+     */
+    public synchronized MemoryAdmission getMemoryAdmission() {
+        if (memoryAdmission == null) {
+            memoryAdmission = new MemoryAdmission(Runtime.getRuntime().maxMemory() / 2);
+        }
+        return memoryAdmission;
+    }
+
+    public synchronized ValidationContext setMemoryAdmission(final MemoryAdmission memoryAdmissionInput) {
+        memoryAdmission = memoryAdmissionInput;
+        return this;
+    }
+
+    /**
+     * Sets the heap budget given as a percentage of the maximum heap like {@code 50%} or as a size like {@code 2g}.
+     *
+     * @throws MojoExecutionException if the budget is not valid
+     */
+    public ValidationContext setHeapBudget(final String heapBudget) throws MojoExecutionException {
+        try {
+            return setMemoryAdmission(new MemoryAdmission(
+                MemoryAdmission.parseBudget(heapBudget, Runtime.getRuntime().maxMemory())));
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage() + ", expected a percentage like 50% or a size like 2g", e);
+        }
+    }
+
+    /**
+     * Returns the summary of the memory admission, or {@code null} if no tasks were admitted.
+     */
+    synchronized String getMemoryAdmissionSummary() {
+        return memoryAdmission == null || memoryAdmission.getTasks() == 0 ? null : memoryAdmission.getSummary();
+    }
+
+    /**
+     * Returns the schema loaded for the key. The first caller loads it, concurrent callers wait for its result, a
+     * failed load fails all of them.
+     */
+    LoadedSchema getLoadedSchema(final String key, final Callable<LoadedSchema> loader) throws MojoFailureException {
+        FutureTask<LoadedSchema> task = new FutureTask<>(loader);
+        FutureTask<LoadedSchema> existing = schemas.putIfAbsent(key, task);
+        if (existing == null) {
+            task.run();
+            existing = task;
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Interrupted while loading schema " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MojoFailureException) {
+                throw (MojoFailureException) e.getCause();
+            }
+            throw new MojoFailureException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Claims a file for validation with the schema and settings of the key. Returns {@code null} if the caller claimed
+     * it and must record its outcome, see {@link #recordOutcome(String, String, String)}, or else the outcome recorded
+     * by the validation which claimed it before: its failure message, {@code null} if it is valid.
+     */
+    CompletableFuture<String> claim(final String file, final String key) {
+        return claimedFiles.putIfAbsent(key + "|" + file, new CompletableFuture<>());
+    }
+
+    /**
+     * Records the outcome of a claimed file, its failure message or {@code null} if it is valid. Only the first
+     * outcome of a file is kept.
+     */
+    void recordOutcome(final String file, final String key, final String message) {
+        CompletableFuture<String> outcome = claimedFiles.get(key + "|" + file);
+        if (outcome != null) {
+            outcome.complete(message);
+        }
+    }
+}
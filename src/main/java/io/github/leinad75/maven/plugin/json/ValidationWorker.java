@@ -0,0 +1,270 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Main class of a forked JVM validating files for the Maven JVM, see {@link ForkedWorkers}. Frames are exchanged over
+ * a connection to the loopback port given as the first argument, see {@link WorkerProtocol}, so nothing printed by the
+ * JVM or a library can corrupt them. All validations share one
+ * {@link ValidationContext}, so a schema is loaded and compiled once per worker.
+ */
+public final class ValidationWorker {
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ValidationContext context = new ValidationContext();
+    private final Map<Integer, DefaultValidatorExecutor> executors = new HashMap<>();
+    private final Map<Integer, String> configurationFailures = new HashMap<>();
+
+    ValidationWorker(final DataInputStream in, final DataOutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out.writeInt(WorkerProtocol.MAGIC);
+            out.write(Base64.getUrlDecoder().decode(args[1]));
+            out.flush();
+            new ValidationWorker(in, out).run();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Handles frames until the connection is closed.
+     */
+    void run() throws IOException {
+        int type;
+        while ((type = in.read()) >= 0) {
+            switch (type) {
+                case WorkerProtocol.CONFIGURE:
+                    configure();
+                    break;
+                case WorkerProtocol.VALIDATE:
+                    validate();
+                    break;
+                default:
+                    throw new IOException("Unexpected frame " + type);
+            }
+        }
+    }
+
+    private void configure() throws IOException {
+        int validationId = in.readInt();
+        String schemaFile = WorkerProtocol.readString(in);
+        String buildDirectory = WorkerProtocol.readString(in);
+        boolean verbose = in.readBoolean();
+        boolean debug = in.readBoolean();
+        Validation validation;
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(WorkerProtocol.readBytes(in)))) {
+            validation = (Validation) objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Failed to read validation " + validationId, e);
+        }
+        if (validation.getSchemaBundle() != null && !validation.getSchemaBundle().isBlank()) {
+            // bundles of dependencies are resolved by the Maven JVM
+            validation.setSchemaBundle(schemaFile);
+        }
+        ValidatorRequest request = new ValidatorRequest()
+            .setLog(new WorkerLog(debug))
+            .setVerbose(verbose)
+            .setBuildDirectory(buildDirectory.isEmpty() ? null : new File(buildDirectory))
+            .setContext(context);
+        try {
+            executors.put(validationId, new DefaultValidatorExecutor(request, validation, Collections.emptyList()));
+        } catch (MojoExecutionException e) {
+            configurationFailures.put(validationId, e.getMessage());
+        }
+    }
+
+    private void validate() throws IOException {
+        int validationId = in.readInt();
+        int count = in.readInt();
+        String[] files = new String[count];
+        for (int position = 0; position < count; position++) {
+            files[position] = WorkerProtocol.readString(in);
+        }
+        DefaultValidatorExecutor executor = executors.get(validationId);
+        for (int position = 0; position < count; position++) {
+            String message;
+            try {
+                message = executor == null
+                    ? "File: " + files[position] + " - " + configurationFailures.get(validationId)
+                    : executor.validateInWorker(files[position]);
+            } catch (RuntimeException e) {
+                // fails the file only, the worker goes on with the batch
+                message = "File: " + files[position] + " - validation failed: " + e;
+            }
+            synchronized (out) {
+                out.writeByte(WorkerProtocol.RESULT);
+                out.writeInt(position);
+                out.writeBoolean(message != null);
+                if (message != null) {
+                    WorkerProtocol.writeString(out, message);
+                }
+                // flushed per file, so the results of a worker exiting in the middle of a batch are not lost
+                out.flush();
+            }
+        }
+        synchronized (out) {
+            out.writeByte(WorkerProtocol.DONE);
+            out.flush();
+        }
+    }
+
+    /**
+     * {@link Log} sending the messages to the Maven JVM as {@code LOG} frames.
+     */
+    private final class WorkerLog implements Log {
+
+        private final boolean debugEnabled;
+
+        private WorkerLog(final boolean debugEnabled) {
+            this.debugEnabled = debugEnabled;
+        }
+
+        private void send(final byte level, final CharSequence content, final Throwable error) {
+            StringWriter message = new StringWriter();
+            if (content != null) {
+                message.append(content);
+            }
+            if (error != null) {
+                if (content != null) {
+                    message.append(System.lineSeparator());
+                }
+                error.printStackTrace(new PrintWriter(message));
+            }
+            synchronized (out) {
+                try {
+                    out.writeByte(WorkerProtocol.LOG);
+                    out.writeByte(level);
+                    WorkerProtocol.writeString(out, message.toString());
+                } catch (IOException e) {
+                    // the Maven JVM is gone, the worker exits when it reads the end of its input
+                }
+            }
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return debugEnabled;
+        }
+
+        @Override
+        public void debug(final CharSequence content) {
+            if (debugEnabled) {
+                send(WorkerProtocol.DEBUG, content, null);
+            }
+        }
+
+        @Override
+        public void debug(final CharSequence content, final Throwable error) {
+            if (debugEnabled) {
+                send(WorkerProtocol.DEBUG, content, error);
+            }
+        }
+
+        @Override
+        public void debug(final Throwable error) {
+            if (debugEnabled) {
+                send(WorkerProtocol.DEBUG, null, error);
+            }
+        }
+
+        @Override
+        public boolean isInfoEnabled() {
+            return true;
+        }
+
+        @Override
+        public void info(final CharSequence content) {
+            send(WorkerProtocol.INFO, content, null);
+        }
+
+        @Override
+        public void info(final CharSequence content, final Throwable error) {
+            send(WorkerProtocol.INFO, content, error);
+        }
+
+        @Override
+        public void info(final Throwable error) {
+            send(WorkerProtocol.INFO, null, error);
+        }
+
+        @Override
+        public boolean isWarnEnabled() {
+            return true;
+        }
+
+        @Override
+        public void warn(final CharSequence content) {
+            send(WorkerProtocol.WARN, content, null);
+        }
+
+        @Override
+        public void warn(final CharSequence content, final Throwable error) {
+            send(WorkerProtocol.WARN, content, error);
+        }
+
+        @Override
+        public void warn(final Throwable error) {
+            send(WorkerProtocol.WARN, null, error);
+        }
+
+        @Override
+        public boolean isErrorEnabled() {
+            return true;
+        }
+
+        @Override
+        public void error(final CharSequence content) {
+            send(WorkerProtocol.ERROR, content, null);
+        }
+
+        @Override
+        public void error(final CharSequence content, final Throwable error) {
+            send(WorkerProtocol.ERROR, content, error);
+        }
+
+        @Override
+        public void error(final Throwable error) {
+            send(WorkerProtocol.ERROR, null, error);
+        }
+    }
+}
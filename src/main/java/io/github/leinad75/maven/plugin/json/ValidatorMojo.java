@@ -15,6 +15,10 @@
  */
 package io.github.leinad75.maven.plugin.json;
 
+import io.github.leinad75.maven.plugin.json.util.AsyncLog;
+import io.github.leinad75.maven.plugin.json.util.SchemaProfiler;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import org.apache.maven.plugin.AbstractMojo;
@@ -42,16 +46,98 @@ public class ValidatorMojo extends AbstractMojo {
     @Parameter(property = "validate.validations")
     private List<Validation> validations;
 
+    /**
+     * Logs a line for every successfully validated file instead of a periodic progress line.
+     */
+    @Parameter(property = "validate.verbose", defaultValue = "false")
+    private boolean verbose;
+
+    /**
+     * Maximum number of messages logged per second, the messages beyond it are counted and reported as suppressed.
+     * 0 logs every message.
+     */
+    @Parameter(property = "validate.logRate", defaultValue = "1000")
+    private int logRate;
+
+    /**
+     * Applies the sample settings of the validations. Set to {@code false} to validate all files, for example in
+     * nightly builds.
+     */
+    @Parameter(property = "validate.sampling", defaultValue = "true")
+    private boolean sampling = true;
+
+    /**
+     * Records call counts and time per schema keyword and writes them to {@code json-validator/profile.txt} and,
+     * as collapsed stacks for flame graphs, to {@code json-validator/profile.collapsed} in the build directory.
+     */
+    @Parameter(property = "validate.profile", defaultValue = "false")
+    private boolean profile;
+
+    /**
+     * Heap available to the files validated in parallel, a percentage of the maximum heap like {@code 50%} or a size
+     * like {@code 2g}. Files are admitted by their estimated heap use, so large files are validated with less
+     * concurrency.
+     */
+    @Parameter(property = "validate.heapBudget", defaultValue = "50%")
+    private String heapBudget = "50%";
+
+    /**
+     * Number of forked JVMs validating the files, {@code 0} to validate in the Maven JVM. A value ending with {@code C},
+     * like {@code 1C}, is multiplied by the number of processors. The workers are reused by all validations.
+     */
+    @Parameter(property = "validate.forkCount", defaultValue = "0")
+    private String forkCount = "0";
+
+    /**
+     * JVM arguments of the forked workers separated by whitespace, for example {@code -Xmx4g -XX:+UseParallelGC}.
+     * Quotes keep whitespace within an argument.
+     */
+    @Parameter(property = "validate.jvmArgs")
+    private String jvmArgs;
+
     @Parameter (defaultValue = "${project}")
     protected MavenProject project;
 
     public void execute() throws MojoExecutionException, MojoFailureException {
-        ValidatorRequest req = new ValidatorRequest();
-        req.setLog(getLog()).setValidations(validations).setProject(project);
+        int forks = ForkedWorkers.parseForkCount(forkCount);
+        List<String> workerJvmArgs = ForkedWorkers.parseJvmArgs(jvmArgs);
+        try (AsyncLog log = new AsyncLog(getLog(), logRate);
+             ForkedWorkers forkedWorkers = forks > 0 ? new ForkedWorkers(forks, workerJvmArgs) : null) {
+            ValidatorRequest req = new ValidatorRequest();
+            req.setLog(log).setValidations(validations).setProject(project).setVerbose(verbose).setSampling(sampling);
+            req.getContext().setHeapBudget(heapBudget).setForkedWorkers(forkedWorkers);
+            if (profile) {
+                req.setProfiler(new SchemaProfiler());
+            }
 
-        for (final Validation validation : req.getValidations()) {
-            new DefaultValidatorExecutor(req, validation).performValidation();
+            try {
+                for (final Validation validation : req.getValidations()) {
+                    new DefaultValidatorExecutor(req, validation).performValidation();
+                }
+            } finally {
+                req.getContext().shutdown();
+                if (profile) {
+                    writeProfile(req);
+                }
+                String memoryAdmissionSummary = req.getContext().getMemoryAdmissionSummary();
+                if (memoryAdmissionSummary != null) {
+                    req.getLog().info(memoryAdmissionSummary);
+                }
+                if (forkedWorkers != null && forkedWorkers.getSummary() != null) {
+                    req.getLog().info(forkedWorkers.getSummary());
+                }
+            }
         }
+    }
 
+    private void writeProfile(ValidatorRequest req) throws MojoExecutionException {
+        File directory = new File(project.getBuild().getDirectory(), "json-validator");
+        try {
+            req.getProfiler().writeTable(new File(directory, "profile.txt"));
+            req.getProfiler().writeCollapsedStacks(new File(directory, "profile.collapsed"));
+            req.getLog().info("Schema profile written to " + directory);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write schema profile to " + directory, e);
+        }
     }
 }
@@ -15,6 +15,8 @@
  */
 package io.github.leinad75.maven.plugin.json;
 
+import io.github.leinad75.maven.plugin.json.util.SchemaProfiler;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,6 +33,11 @@ public class ValidatorRequest {
     private List<Validation> validations;
     private MavenProject project;
     private Log log;
+    private boolean verbose;
+    private boolean sampling = true;
+    private SchemaProfiler profiler;
+    private ValidationContext context;
+    private File buildDirectory;
 
     public List<Validation> getValidations() {
         if (validations == null) {
@@ -62,6 +69,73 @@ public class ValidatorRequest {
         return this;
     }
 
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public ValidatorRequest setVerbose(final boolean verboseInput) {
+        verbose = verboseInput;
+        return this;
+    }
+
+    /**
+     * Returns whether the sample settings of the validations apply, otherwise all files are validated.
+     */
+    public boolean isSampling() {
+        return sampling;
+    }
+
+    public ValidatorRequest setSampling(final boolean samplingInput) {
+        sampling = samplingInput;
+        return this;
+    }
+
+    /**
+     * Returns the profiler recording the keyword timings, or {@code null} if profiling is disabled.
+     */
+    public SchemaProfiler getProfiler() {
+        return profiler;
+    }
+
+    public ValidatorRequest setProfiler(final SchemaProfiler profilerInput) {
+        profiler = profilerInput;
+        return this;
+    }
+
+    /**
+     * Returns the state shared by all executors of this request, created on first use.
+     */
+    public ValidationContext getContext() {
+        if (context == null) {
+            context = new ValidationContext();
+        }
+        return context;
+    }
+
+    public ValidatorRequest setContext(final ValidationContext contextInput) {
+        context = contextInput;
+        return this;
+    }
+
+    /**
+     * Returns the directory for caches and indexes, the build directory of the project unless set explicitly, or
+     * {@code null} if there is neither.
+     */
+    public File getBuildDirectory() {
+        if (buildDirectory != null) {
+            return buildDirectory;
+        }
+        if (project != null && project.getBuild() != null) {
+            return new File(project.getBuild().getDirectory());
+        }
+        return null;
+    }
+
+    public ValidatorRequest setBuildDirectory(final File buildDirectoryInput) {
+        buildDirectory = buildDirectoryInput;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ValidationRequest {log: " + getLog() + ", project: " + getProject() + ", validations: " + getValidations() + "}";
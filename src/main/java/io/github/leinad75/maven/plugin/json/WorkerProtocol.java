@@ -0,0 +1,95 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Frames exchanged with a forked validation worker over a loopback socket. Each frame starts with its type
+ * byte; strings and byte arrays are written as their length followed by the bytes, strings encoded as UTF-8.
+ * <ul>
+ *     <li>{@code CONFIGURE} validation id, schema file, build directory, verbose, debug, serialized {@link Validation}</li>
+ *     <li>{@code VALIDATE} validation id, number of files, files</li>
+ *     <li>{@code LOG} level, message</li>
+ *     <li>{@code RESULT} position of the file in its batch, failed, failure message if failed</li>
+ *     <li>{@code DONE} sent by the worker after the results of a batch</li>
+ * </ul>
+ * The worker connects to the port given as its first argument and starts by writing {@link #MAGIC} followed by the
+ * {@value #NONCE_LENGTH} bytes of the nonce given as its second argument, Base64 encoded, so no other local process
+ * can pose as the worker. It exits when the connection is closed. Its standard output and error are left to the JVM
+ * and the libraries.
+ */
+final class WorkerProtocol {
+
+    static final int MAGIC = 0x4A534657;
+    static final int NONCE_LENGTH = 16;
+
+    static final byte CONFIGURE = 1;
+    static final byte VALIDATE = 2;
+    static final byte LOG = 3;
+    static final byte RESULT = 4;
+    static final byte DONE = 5;
+
+    static final byte DEBUG = 0;
+    static final byte INFO = 1;
+    static final byte WARN = 2;
+    static final byte ERROR = 3;
+
+    private WorkerProtocol() {
+    }
+
+    static void writeString(final DataOutput out, final String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String readString(final DataInput in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    static void writeBytes(final DataOutput out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static byte[] readBytes(final DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes a message logged by a worker to the log of the Maven JVM.
+     */
+    static void log(final Log log, final byte level, final String message) {
+        switch (level) {
+            case DEBUG:
+                log.debug(message);
+                break;
+            case INFO:
+                log.info(message);
+                break;
+            case WARN:
+                log.warn(message);
+                break;
+            default:
+                log.error(message);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonNodePath;
+import com.networknt.schema.PathType;
+import com.networknt.schema.ValidationMessage;
+import io.github.leinad75.maven.plugin.json.jfr.FileParseRecorder;
+import io.github.leinad75.maven.plugin.json.util.JsonInputs;
+import io.github.leinad75.maven.plugin.json.util.JsonSubtreeReader;
+import io.github.leinad75.maven.plugin.json.util.PrettyPrintIterable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Validates the documents of a YAML file one by one while the stream is read, so only the current document is held in
+ * memory.
+ */
+class YamlDocuments {
+
+    /**
+     * Validates a selected subtree of a document, adding its errors and warnings.
+     */
+    interface SubtreeValidator {
+
+        void validate(JsonNode subtree, JsonNodePath location, List<ValidationMessage> errorMessages,
+            List<ValidationMessage> warningMessages);
+    }
+
+    private final Validation validation;
+    private final JsonInputs jsonInputs;
+    private final ObjectMapper yamlMapper;
+    private final MessageLocations messageLocations;
+    private final Log log;
+
+    YamlDocuments(final Validation validation, final JsonInputs jsonInputs, final ObjectMapper yamlMapper,
+        final MessageLocations messageLocations, final Log log) {
+        this.validation = validation;
+        this.jsonInputs = jsonInputs;
+        this.yamlMapper = yamlMapper;
+        this.messageLocations = messageLocations;
+        this.log = log;
+    }
+
+    /**
+     * Validates the selected subtrees of each document and returns the errors with their YAML locations, prefixed by
+     * the number of the document if the file holds more than one. The warnings are logged.
+     *
+     * @param documentListener accepts each document before it is validated
+     */
+    List<String> validate(final String file, final Consumer<JsonNode> documentListener,
+        final SubtreeValidator subtreeValidator) throws MojoFailureException {
+        Map<Integer, List<ValidationMessage>> errorsByDocument = new LinkedHashMap<>();
+        Map<Integer, List<ValidationMessage>> warningsByDocument = new HashMap<>();
+        int documentCount = 0;
+        FileParseRecorder parseRecorder;
+        try {
+            parseRecorder = new FileParseRecorder(file, jsonInputs.open(file));
+        } catch (final IOException e) {
+            log.error("File: " + file + " - parsing - Failure");
+            throw new MojoFailureException("Failed to parse YAML from file " + file + " - " + e.getMessage(), e);
+        }
+        try (MappingIterator<JsonNode> documents = yamlMapper.readerFor(JsonNode.class)
+            .readValues(parseRecorder.getInputStream())) {
+            while (true) {
+                // each document is an event of its own, the validation between the documents is not parse time
+                parseRecorder.begin();
+                if (!documents.hasNextValue()) {
+                    break;
+                }
+                JsonNode document = documents.nextValue();
+                parseRecorder.end();
+                int documentIndex = documentCount++;
+                documentListener.accept(document);
+                List<ValidationMessage> errorMessages = new ArrayList<>();
+                List<ValidationMessage> warningMessages = new ArrayList<>();
+                for (Map.Entry<JsonNodePath, JsonNode> selection : selectSubtrees(file, document).entrySet()) {
+                    subtreeValidator.validate(selection.getValue(), selection.getKey(), errorMessages, warningMessages);
+                }
+                if (!errorMessages.isEmpty()) {
+                    errorsByDocument.put(documentIndex, errorMessages);
+                    warningsByDocument.put(documentIndex, warningMessages);
+                }
+            }
+        } catch (final IOException e) {
+            log.error("File: " + file + " - parsing - Failure");
+            throw new MojoFailureException("Failed to parse YAML from file " + file + " - " + e.getMessage(), e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("File: " + file + " - validated " + documentCount + " documents");
+        }
+
+        List<String> described = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        for (Map.Entry<Integer, List<ValidationMessage>> entry : errorsByDocument.entrySet()) {
+            MessageLocations.Located located = messageLocations.locate(file, entry.getKey(), entry.getValue(),
+                warningsByDocument.get(entry.getKey()));
+            String prefix = documentCount > 1 ? "document " + (entry.getKey() + 1) + ": " : "";
+            located.getErrors().forEach(message -> described.add(prefix + message));
+            located.getWarnings().forEach(message -> warnings.add(prefix + message));
+        }
+        if (!warnings.isEmpty()) {
+            log.warn(new PrettyPrintIterable<>(warnings).toString());
+        }
+        return described;
+    }
+
+    /**
+     * Returns the subtrees of a document selected by the configured JSON pointers, keyed by their location, or the
+     * whole document if no pointers are configured.
+     */
+    private Map<JsonNodePath, JsonNode> selectSubtrees(final String file, final JsonNode document)
+        throws MojoFailureException {
+        if (validation.getPointers().isEmpty()) {
+            return Collections.singletonMap(new JsonNodePath(PathType.JSON_POINTER), document);
+        }
+        Map<JsonNodePath, JsonNode> selections = new LinkedHashMap<>();
+        for (String pointer : validation.getPointers()) {
+            JsonNode subtree = document.at(JsonSubtreeReader.normalize(pointer));
+            if (subtree.isMissingNode()) {
+                throw new MojoFailureException("JSON pointer " + pointer + " not found in file " + file);
+            }
+            selections.put(JsonSubtreeReader.toPath(pointer), subtree);
+        }
+        return selections;
+    }
+}
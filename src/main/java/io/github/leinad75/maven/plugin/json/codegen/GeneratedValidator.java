@@ -0,0 +1,176 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.codegen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Base class of the validators generated from a schema, see {@link ValidatorGenerator}. A generated validator only
+ * decides whether a node is valid, the messages of an invalid node are collected by the interpreter.
+ * <p>
+ * Where the generated code can not be sure to decide like the interpreter, for example for a floating point number
+ * with an integral value against {@code "type": "integer"} or numbers of equal value but different types in an
+ * {@code enum}, it gives up and the node is reported as not valid, so it is checked by the interpreter. A generated
+ * validator therefore never accepts a node the interpreter rejects.
+ */
+public abstract class GeneratedValidator {
+
+    private static final Undecided UNDECIDED = new Undecided();
+
+    /**
+     * Integers up to this magnitude are exact as a double, whichever way the interpreter computes.
+     */
+    private static final long MAX_EXACT_INTEGER = 1L << 53;
+
+    /**
+     * Returns whether the node is valid, {@code false} if it is invalid or its validity could not be decided.
+     */
+    public final boolean isValid(final JsonNode node) {
+        try {
+            return validate(node);
+        } catch (RuntimeException e) {
+            // undecided or failing, like a regular expression exceeding its step budget: the interpreter decides
+            return false;
+        }
+    }
+
+    /**
+     * Validates the node against the schema the class was generated from.
+     */
+    protected abstract boolean validate(JsonNode node);
+
+    /**
+     * Returns whether the number is an integer for specifications after draft 4, which accept floating point numbers
+     * with an integral value.
+     */
+    protected static boolean isInteger(final JsonNode node) {
+        if (node.isIntegralNumber()) {
+            return true;
+        }
+        if (node.isNumber() && isIntegral(node.decimalValue())) {
+            throw UNDECIDED;
+        }
+        return false;
+    }
+
+    /**
+     * Decides {@code multipleOf} for integers which are exact as a double, any other number is undecided.
+     */
+    protected static boolean isMultipleOf(final JsonNode node, final long divisor) {
+        if (node.isIntegralNumber() && node.canConvertToLong() && Math.abs(node.longValue()) <= MAX_EXACT_INTEGER) {
+            return node.longValue() % divisor == 0;
+        }
+        throw UNDECIDED;
+    }
+
+    protected static int length(final String text) {
+        return text.codePointCount(0, text.length());
+    }
+
+    protected static boolean isEnumMember(final JsonNode values, final JsonNode node) {
+        for (JsonNode value : values) {
+            if (value.equals(node)) {
+                return true;
+            }
+        }
+        for (JsonNode value : values) {
+            if (looselyEquals(value, node)) {
+                throw UNDECIDED;
+            }
+        }
+        return false;
+    }
+
+    protected static boolean isConstant(final JsonNode value, final JsonNode node) {
+        if (value.equals(node)) {
+            return true;
+        }
+        if (looselyEquals(value, node)) {
+            throw UNDECIDED;
+        }
+        return false;
+    }
+
+    protected static boolean hasUniqueItems(final JsonNode array) {
+        boolean loose = false;
+        for (int i = 1; i < array.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                if (array.get(i).equals(array.get(j))) {
+                    return false;
+                }
+                loose |= looselyEquals(array.get(i), array.get(j));
+            }
+        }
+        if (loose) {
+            throw UNDECIDED;
+        }
+        return true;
+    }
+
+    private static boolean isIntegral(final BigDecimal value) {
+        return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+
+    /**
+     * Returns whether the nodes are equal if numbers are compared by their value only. Nodes equal this way but not by
+     * {@link JsonNode#equals(Object)} may be equal or not for the interpreter.
+     */
+    private static boolean looselyEquals(final JsonNode left, final JsonNode right) {
+        if (left.isNumber() && right.isNumber()) {
+            return left.decimalValue().compareTo(right.decimalValue()) == 0;
+        }
+        if (left.isArray() && right.isArray()) {
+            if (left.size() != right.size()) {
+                return false;
+            }
+            for (int i = 0; i < left.size(); i++) {
+                if (!looselyEquals(left.get(i), right.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (left.isObject() && right.isObject()) {
+            if (left.size() != right.size()) {
+                return false;
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> fields = left.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode other = right.get(field.getKey());
+                if (other == null || !looselyEquals(field.getValue(), other)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return left.equals(right);
+    }
+
+    /**
+     * Thrown where the generated code can not decide like the interpreter, without a stack trace as it is expected.
+     */
+    private static final class Undecided extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private Undecided() {
+            super("undecided", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.codegen;
+
+/**
+ * Thrown if no validator can be generated for a schema, because it uses a keyword or construct the generator does not
+ * support or no Java compiler is available. The schema is then checked by the interpreter.
+ */
+public class UnsupportedSchemaException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public UnsupportedSchemaException(final String message) {
+        super(message);
+    }
+}
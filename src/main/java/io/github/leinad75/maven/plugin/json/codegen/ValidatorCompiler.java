@@ -0,0 +1,193 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.codegen;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.regex.RegularExpression;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates a validator class for a schema, see {@link ValidatorGenerator}, and compiles it in memory with the Java
+ * compiler of the running JDK. The class is loaded by a class loader of its own, so it is unloaded with the schema.
+ */
+public final class ValidatorCompiler {
+
+    private ValidatorCompiler() { }
+
+    /**
+     * Returns a validator generated for the subschema at the JSON pointer of the root schema, {@code ""} for the whole
+     * schema. The source is written to the source directory if one is given, to be inspected.
+     *
+     * @param description the origin of the schema, mentioned in the generated source
+     * @throws UnsupportedSchemaException if the schema can not be generated or no Java compiler is available
+     */
+    public static GeneratedValidator compile(final JsonSchema schema, final String pointer, final String className,
+        final String description, final File sourceDirectory) throws UnsupportedSchemaException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new UnsupportedSchemaException("no Java compiler available, Maven runs on a JRE");
+        }
+        ValidatorGenerator generator = new ValidatorGenerator(schema);
+        String source = generator.generate(className, pointer, description);
+        String qualifiedName = ValidatorGenerator.PACKAGE + "." + className;
+        if (sourceDirectory != null) {
+            writeSource(source, new File(sourceDirectory, qualifiedName.replace('.', '/') + ".java"));
+        }
+
+        Map<String, byte[]> classes = compile(compiler, qualifiedName, source);
+        ClassLoader classLoader = new ClassLoader(GeneratedValidator.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(final String name) throws ClassNotFoundException {
+                byte[] bytes = classes.get(name);
+                if (bytes == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+        try {
+            return (GeneratedValidator) classLoader.loadClass(qualifiedName).getConstructor(Object[].class)
+                .newInstance((Object) generator.getConstants());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate the generated validator " + qualifiedName, e);
+        }
+    }
+
+    /**
+     * Returns a valid class name derived from the name of the schema file.
+     */
+    public static String toClassName(final String name) {
+        StringBuilder className = new StringBuilder();
+        boolean upper = true;
+        for (char c : name.toCharArray()) {
+            if (c < 128 && Character.isJavaIdentifierPart(c) && c != '$' && c != '_') {
+                className.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        if (className.length() == 0 || !Character.isJavaIdentifierStart(className.charAt(0))) {
+            className.insert(0, "Schema");
+        }
+        return className.toString();
+    }
+
+    private static Map<String, byte[]> compile(final JavaCompiler compiler, final String qualifiedName,
+        final String source) {
+        Map<String, ByteArrayOutputStream> outputs = new HashMap<>();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null,
+            StandardCharsets.UTF_8);
+        JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(standardFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                final JavaFileObject.Kind kind, final FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("memory:///" + className.replace('.', '/') + kind.extension),
+                    kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream output = new ByteArrayOutputStream();
+                        outputs.put(className, output);
+                        return output;
+                    }
+                };
+            }
+        };
+        JavaFileObject sourceFile = new SimpleJavaFileObject(
+            URI.create("memory:///" + qualifiedName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+            JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        List<String> options = Arrays.asList("-classpath", getClassPath(), "-proc:none", "-g:none", "-nowarn");
+        boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile)).call();
+        if (!compiled) {
+            // a bug of the generator, not of the schema
+            throw new IllegalStateException("Failed to compile the generated validator " + qualifiedName + ": "
+                + diagnostics.getDiagnostics());
+        }
+        return outputs.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().toByteArray()));
+    }
+
+    /**
+     * Returns the class path of the classes the generated code refers to, taken from the class loaders of the plugin
+     * rather than from the class path of the Maven JVM.
+     */
+    private static String getClassPath() {
+        Set<String> entries = new LinkedHashSet<>();
+        for (Class<?> type : Arrays.asList(GeneratedValidator.class, JsonNode.class, JsonParser.class,
+            RegularExpression.class)) {
+            CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+            URL location = codeSource == null ? null : codeSource.getLocation();
+            if (location != null) {
+                try {
+                    entries.add(Paths.get(location.toURI()).toString());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // not a file, the class can not be referred to by the compiler
+                }
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    /**
+     * Writes the source through a temporary file, so forked workers writing the same source do not interleave.
+     */
+    private static void writeSource(final String source, final File file) {
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Path temporary = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            Files.write(temporary, source.getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the source is only written to be inspected
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.codegen;
+
+/**
+ * Engines deciding whether a document is valid in the quick check, see {@code quickCheck} of the validation. The
+ * messages of failing documents are always collected by the interpreter.
+ */
+public enum ValidatorEngine {
+    /**
+     * The networknt validator tree of the schema.
+     */
+    INTERPRETER,
+    /**
+     * Java validator classes generated from the schema and compiled at runtime, see {@link ValidatorCompiler}. Schemas
+     * using keywords the generator does not support are checked by the interpreter.
+     */
+    GENERATED
+}
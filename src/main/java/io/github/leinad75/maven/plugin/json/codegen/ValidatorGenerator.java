@@ -0,0 +1,554 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.codegen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.AnnotationKeyword;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.Keyword;
+import com.networknt.schema.NonValidationKeyword;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import com.networknt.schema.ValidationContext;
+import com.networknt.schema.regex.RegularExpression;
+import io.github.leinad75.maven.plugin.json.regex.RegexCache;
+import io.github.leinad75.maven.plugin.json.regex.RegexKeyword;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the Java source of a {@link GeneratedValidator} from a compiled schema. Every subschema reachable from the
+ * entry point becomes a method checking its keywords in turn, local {@code $ref}s call the method of their target, so
+ * recursive schemas need no special handling. Values like enums, patterns and property names are passed to the
+ * constructor of the generated class as constants.
+ * <p>
+ * The keywords are interpreted like the networknt implementation does for the specification of the schema, using the
+ * same regular expression engine. Annotations and keywords unknown to the specification are ignored like there. Any
+ * other keyword, a {@code $ref} to another document and a subschema changing the base URI make the schema
+ * unsupported.
+ */
+class ValidatorGenerator {
+
+    static final String PACKAGE = "io.github.leinad75.maven.plugin.json.codegen.generated";
+
+    private static final BigDecimal MAX_EXACT_INTEGER = BigDecimal.valueOf(1L << 53);
+
+    private final JsonNode rootNode;
+    private final VersionFlag specVersion;
+    private final Map<String, Keyword> keywords;
+    private final SchemaValidatorsConfig config;
+    private final ValidationContext validationContext;
+
+    private final List<Object> constants = new ArrayList<>();
+    private final List<String> constantTypes = new ArrayList<>();
+    private final Map<String, String> methods = new LinkedHashMap<>();
+    private final Deque<String> pendingMethods = new ArrayDeque<>();
+    private final StringBuilder methodSource = new StringBuilder();
+
+    ValidatorGenerator(final JsonSchema schema) {
+        // the node of the root schema, the compiled schema may be a subschema
+        this.rootNode = schema.getParentSchema() == null ? schema.getSchemaNode() : null;
+        this.validationContext = schema.getValidationContext();
+        this.specVersion = validationContext.getMetaSchema().getSpecification();
+        this.keywords = validationContext.getMetaSchema().getKeywords();
+        this.config = validationContext.getConfig();
+    }
+
+    /**
+     * Returns the source of the validator class for the subschema at the JSON pointer, {@code ""} for the whole
+     * schema.
+     */
+    String generate(final String className, final String entryPointer, final String description)
+        throws UnsupportedSchemaException {
+        if (rootNode == null) {
+            throw new UnsupportedSchemaException("only root schemas can be generated");
+        }
+        if (config.isTypeLoose() || config.isJavaSemantics()) {
+            throw new UnsupportedSchemaException("loose type semantics are not supported");
+        }
+        String entryMethod = method(entryPointer);
+        while (!pendingMethods.isEmpty()) {
+            String pointer = pendingMethods.poll();
+            generateMethod(pointer, methods.get(pointer));
+        }
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE).append(";\n\n")
+            .append("import com.fasterxml.jackson.databind.JsonNode;\n")
+            .append("import com.networknt.schema.regex.RegularExpression;\n")
+            .append("import io.github.leinad75.maven.plugin.json.codegen.GeneratedValidator;\n")
+            .append("import java.math.BigDecimal;\n")
+            .append("import java.util.Iterator;\n")
+            .append("import java.util.Map;\n")
+            .append("import java.util.Set;\n\n")
+            .append("/**\n * Generated from ").append(comment(description)).append(" #").append(comment(entryPointer))
+            .append(", do not edit.\n */\n")
+            .append("public final class ").append(className).append(" extends GeneratedValidator {\n\n");
+        for (int i = 0; i < constants.size(); i++) {
+            source.append("    private final ").append(constantTypes.get(i)).append(" c").append(i).append(";\n");
+        }
+        source.append("\n    @SuppressWarnings(\"unchecked\")\n")
+            .append("    public ").append(className).append("(final Object[] constants) {\n");
+        for (int i = 0; i < constants.size(); i++) {
+            source.append("        c").append(i).append(" = (").append(constantTypes.get(i)).append(") constants[")
+                .append(i).append("];\n");
+        }
+        source.append("    }\n\n")
+            .append("    @Override\n")
+            .append("    protected boolean validate(final JsonNode node) {\n")
+            .append("        return ").append(entryMethod).append("(node);\n")
+            .append("    }\n")
+            .append(methodSource)
+            .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Returns the constants to pass to the constructor of the generated class.
+     */
+    Object[] getConstants() {
+        return constants.toArray();
+    }
+
+    /**
+     * Returns the name of the method validating the subschema at the pointer, generated later if it is new.
+     */
+    private String method(final String pointer) {
+        String name = methods.get(pointer);
+        if (name == null) {
+            name = "s" + methods.size();
+            methods.put(pointer, name);
+            pendingMethods.add(pointer);
+        }
+        return name;
+    }
+
+    private String constant(final String type, final Object value) {
+        constants.add(value);
+        constantTypes.add(type);
+        return "c" + (constants.size() - 1);
+    }
+
+    private void generateMethod(final String pointer, final String name) throws UnsupportedSchemaException {
+        JsonNode schemaNode = rootNode.at(pointer);
+        methodSource.append("\n    /**\n     * #").append(comment(pointer)).append("\n     */\n")
+            .append("    private boolean ").append(name).append("(final JsonNode node) {\n");
+        if (schemaNode.isBoolean()) {
+            methodSource.append("        return ").append(schemaNode.booleanValue()).append(";\n    }\n");
+            return;
+        }
+        if (!schemaNode.isObject()) {
+            throw unsupported("a schema which is not an object", pointer);
+        }
+        // before 2019-09 the keywords next to a $ref are ignored
+        boolean refOnly = schemaNode.has("$ref") && isBefore201909();
+        boolean propertiesGenerated = false;
+        for (Map.Entry<String, JsonNode> field : iterable(schemaNode.fields())) {
+            String keyword = field.getKey();
+            JsonNode value = field.getValue();
+            if (refOnly && !"$ref".equals(keyword)) {
+                continue;
+            }
+            if (!pointer.isEmpty() && ("$id".equals(keyword) || "id".equals(keyword) && specVersion == VersionFlag.V4)) {
+                throw unsupported("a subschema with an identifier", pointer);
+            }
+            if (!keywords.containsKey(keyword)) {
+                // unknown to the specification, ignored by the interpreter
+                continue;
+            }
+            String keywordPointer = pointer + "/" + escape(keyword);
+            switch (keyword) {
+                case "type":
+                    generateType(value, keywordPointer);
+                    break;
+                case "enum":
+                    if (!value.isArray()) {
+                        throw unsupported(keyword, keywordPointer);
+                    }
+                    check("isEnumMember(" + constant("JsonNode", value) + ", node)");
+                    break;
+                case "const":
+                    check("isConstant(" + constant("JsonNode", value) + ", node)");
+                    break;
+                case "minLength":
+                    check("!node.isTextual() || length(node.textValue()) >= " + count(value, keywordPointer));
+                    break;
+                case "maxLength":
+                    check("!node.isTextual() || length(node.textValue()) <= " + count(value, keywordPointer));
+                    break;
+                case "pattern":
+                    check("!node.isTextual() || " + pattern(value, keywordPointer) + ".matches(node.textValue())");
+                    break;
+                case "minimum":
+                    generateBound(schemaNode, value, keywordPointer, "exclusiveMinimum", ">");
+                    break;
+                case "maximum":
+                    generateBound(schemaNode, value, keywordPointer, "exclusiveMaximum", "<");
+                    break;
+                case "exclusiveMinimum":
+                    check("!node.isNumber() || node.decimalValue().compareTo(" + number(value, keywordPointer) + ") > 0");
+                    break;
+                case "exclusiveMaximum":
+                    check("!node.isNumber() || node.decimalValue().compareTo(" + number(value, keywordPointer) + ") < 0");
+                    break;
+                case "multipleOf":
+                    check("!node.isNumber() || isMultipleOf(node, " + divisor(value, keywordPointer) + "L)");
+                    break;
+                case "minItems":
+                    check("!node.isArray() || node.size() >= " + count(value, keywordPointer));
+                    break;
+                case "maxItems":
+                    check("!node.isArray() || node.size() <= " + count(value, keywordPointer));
+                    break;
+                case "uniqueItems":
+                    if (value.asBoolean()) {
+                        check("!node.isArray() || hasUniqueItems(node)");
+                    }
+                    break;
+                case "minProperties":
+                    check("!node.isObject() || node.size() >= " + count(value, keywordPointer));
+                    break;
+                case "maxProperties":
+                    check("!node.isObject() || node.size() <= " + count(value, keywordPointer));
+                    break;
+                case "required":
+                    generateRequired(value, keywordPointer);
+                    break;
+                case "properties":
+                case "patternProperties":
+                case "additionalProperties":
+                    if (!propertiesGenerated) {
+                        generateProperties(schemaNode, pointer);
+                        propertiesGenerated = true;
+                    }
+                    break;
+                case "items":
+                    if (!value.isObject() && !value.isBoolean()) {
+                        throw unsupported("items as an array", keywordPointer);
+                    }
+                    methodSource.append("        if (node.isArray()) {\n")
+                        .append("            for (JsonNode item : node) {\n")
+                        .append("                if (!").append(method(keywordPointer)).append("(item)) {\n")
+                        .append("                    return false;\n")
+                        .append("                }\n")
+                        .append("            }\n")
+                        .append("        }\n");
+                    break;
+                case "additionalItems":
+                    // only applies next to items as an array, which is not supported
+                    break;
+                case "allOf":
+                    for (String subschema : subschemas(value, keywordPointer)) {
+                        check(subschema + "(node)");
+                    }
+                    break;
+                case "anyOf":
+                    check(String.join("(node) || ", subschemas(value, keywordPointer)) + "(node)");
+                    break;
+                case "oneOf":
+                    methodSource.append("        int matches = 0;\n");
+                    for (String subschema : subschemas(value, keywordPointer)) {
+                        methodSource.append("        if (").append(subschema).append("(node)) {\n")
+                            .append("            matches++;\n")
+                            .append("        }\n");
+                    }
+                    check("matches == 1");
+                    break;
+                case "not":
+                    check("!" + method(keywordPointer) + "(node)");
+                    break;
+                case "if":
+                    generateConditional(schemaNode, pointer);
+                    break;
+                case "$ref":
+                    check(method(resolve(value, keywordPointer)) + "(node)");
+                    break;
+                default:
+                    checkIgnored(keyword, keywordPointer);
+            }
+        }
+        methodSource.append("        return true;\n    }\n");
+    }
+
+    /**
+     * Fails unless the interpreter ignores the keyword: annotations, keywords handled next to another one and the
+     * keywords which only assert if configured so.
+     */
+    private void checkIgnored(final String keyword, final String pointer) throws UnsupportedSchemaException {
+        Keyword implementation = keywords.get(keyword);
+        if (implementation instanceof NonValidationKeyword || implementation instanceof AnnotationKeyword) {
+            return;
+        }
+        if ("readOnly".equals(keyword) && !config.isReadOnly() || "writeOnly".equals(keyword) && !config.isWriteOnly()) {
+            return;
+        }
+        if ("format".equals(keyword) && !isBefore201909() && !Boolean.TRUE.equals(config.getFormatAssertionsEnabled())) {
+            return;
+        }
+        throw unsupported(keyword, pointer);
+    }
+
+    private boolean isBefore201909() {
+        return specVersion == VersionFlag.V4 || specVersion == VersionFlag.V6 || specVersion == VersionFlag.V7;
+    }
+
+    private void generateType(final JsonNode value, final String pointer) throws UnsupportedSchemaException {
+        List<String> conditions = new ArrayList<>();
+        for (JsonNode type : value.isArray() ? value : List.of(value)) {
+            switch (type.asText()) {
+                case "object":
+                    conditions.add("node.isObject()");
+                    break;
+                case "array":
+                    conditions.add("node.isArray()");
+                    break;
+                case "string":
+                    conditions.add("node.isTextual()");
+                    break;
+                case "boolean":
+                    conditions.add("node.isBoolean()");
+                    break;
+                case "null":
+                    conditions.add("node.isNull()");
+                    break;
+                case "number":
+                    conditions.add("node.isNumber()");
+                    break;
+                case "integer":
+                    // draft 4 does not accept a floating point number with an integral value
+                    conditions.add(specVersion == VersionFlag.V4 ? "node.isIntegralNumber()" : "isInteger(node)");
+                    break;
+                default:
+                    throw unsupported("the type " + type, pointer);
+            }
+        }
+        if (conditions.isEmpty()) {
+            throw unsupported("an empty type", pointer);
+        }
+        check(String.join(" || ", conditions));
+    }
+
+    /**
+     * Generates {@code minimum} or {@code maximum}, exclusive if draft 4 sets the boolean {@code exclusiveMinimum}
+     * or {@code exclusiveMaximum} next to it.
+     */
+    private void generateBound(final JsonNode schemaNode, final JsonNode value, final String pointer,
+        final String exclusiveKeyword, final String comparison) throws UnsupportedSchemaException {
+        boolean exclusive = specVersion == VersionFlag.V4 && schemaNode.path(exclusiveKeyword).asBoolean();
+        check("!node.isNumber() || node.decimalValue().compareTo(" + number(value, pointer) + ") " + comparison
+            + (exclusive ? " 0" : "= 0"));
+    }
+
+    private void generateRequired(final JsonNode value, final String pointer) throws UnsupportedSchemaException {
+        if (!value.isArray()) {
+            throw unsupported("required which is not an array", pointer);
+        }
+        if (value.isEmpty()) {
+            return;
+        }
+        methodSource.append("        if (node.isObject()) {\n");
+        for (JsonNode name : value) {
+            if (!name.isTextual()) {
+                throw unsupported("a required property which is not a string", pointer);
+            }
+            methodSource.append("            if (node.get(").append(constant("String", name.textValue()))
+                .append(") == null) {\n")
+                .append("                return false;\n")
+                .append("            }\n");
+        }
+        methodSource.append("        }\n");
+    }
+
+    /**
+     * Generates {@code properties}, {@code patternProperties} and {@code additionalProperties} together, the
+     * additional properties are those matched by neither of the others.
+     */
+    private void generateProperties(final JsonNode schemaNode, final String pointer) throws UnsupportedSchemaException {
+        JsonNode properties = keywords.containsKey("properties") ? schemaNode.get("properties") : null;
+        JsonNode patternProperties = keywords.containsKey("patternProperties")
+            ? schemaNode.get("patternProperties") : null;
+        JsonNode additionalProperties = keywords.containsKey("additionalProperties")
+            ? schemaNode.get("additionalProperties") : null;
+        if (properties != null && !properties.isObject() || patternProperties != null && !patternProperties.isObject()
+            || additionalProperties != null && !additionalProperties.isObject() && !additionalProperties.isBoolean()) {
+            throw unsupported("properties which are not objects", pointer);
+        }
+
+        methodSource.append("        if (node.isObject()) {\n");
+        Set<String> names = new HashSet<>();
+        if (properties != null) {
+            for (Map.Entry<String, JsonNode> property : iterable(properties.fields())) {
+                names.add(property.getKey());
+                String value = "property" + constants.size();
+                methodSource.append("            JsonNode ").append(value).append(" = node.get(")
+                    .append(constant("String", property.getKey())).append(");\n")
+                    .append("            if (").append(value).append(" != null && !")
+                    .append(method(pointer + "/properties/" + escape(property.getKey()))).append("(").append(value)
+                    .append(")) {\n")
+                    .append("                return false;\n")
+                    .append("            }\n");
+            }
+        }
+        boolean allowsAdditional = additionalProperties == null
+            || additionalProperties.isBoolean() && additionalProperties.booleanValue();
+        if (patternProperties != null && !patternProperties.isEmpty() || !allowsAdditional) {
+            methodSource.append("            for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields();")
+                .append(" fields.hasNext(); ) {\n")
+                .append("                Map.Entry<String, JsonNode> field = fields.next();\n")
+                .append("                String name = field.getKey();\n");
+            List<String> exemptions = new ArrayList<>();
+            if (!names.isEmpty()) {
+                exemptions.add("!" + constant("Set<String>", Set.copyOf(names)) + ".contains(name)");
+            }
+            if (patternProperties != null) {
+                for (Map.Entry<String, JsonNode> patternProperty : iterable(patternProperties.fields())) {
+                    String patternPointer = pointer + "/patternProperties/" + escape(patternProperty.getKey());
+                    methodSource.append("                if (")
+                        .append(pattern(patternProperty.getKey(), "patternProperties", patternPointer))
+                        .append(".matches(name) && !").append(method(patternPointer)).append("(field.getValue())) {\n")
+                        .append("                    return false;\n")
+                        .append("                }\n");
+                    // the interpreter matches the names for additionalProperties with the default engine
+                    exemptions.add("!" + constant("RegularExpression",
+                        RegularExpression.compile(patternProperty.getKey(), validationContext)) + ".matches(name)");
+                }
+            }
+            if (!allowsAdditional) {
+                String additional = additionalProperties.isBoolean()
+                    ? "true" : "!" + method(pointer + "/additionalProperties") + "(field.getValue())";
+                exemptions.add(additional);
+                methodSource.append("                if (").append(String.join(" && ", exemptions)).append(") {\n")
+                    .append("                    return false;\n")
+                    .append("                }\n");
+            }
+            methodSource.append("            }\n");
+        }
+        methodSource.append("        }\n");
+    }
+
+    private void generateConditional(final JsonNode schemaNode, final String pointer) {
+        String condition = method(pointer + "/if") + "(node)";
+        String then = schemaNode.has("then") ? method(pointer + "/then") + "(node)" : "true";
+        String otherwise = schemaNode.has("else") ? method(pointer + "/else") + "(node)" : "true";
+        check(condition + " ? " + then + " : " + otherwise);
+    }
+
+    /**
+     * Returns the pointer to the subschema the local reference points to.
+     */
+    private String resolve(final JsonNode ref, final String pointer) throws UnsupportedSchemaException {
+        String target = ref.asText();
+        if (!"#".equals(target) && !target.startsWith("#/") || target.contains("%")) {
+            throw unsupported("the reference " + target, pointer);
+        }
+        String targetPointer = target.substring(1);
+        if (rootNode.at(targetPointer).isMissingNode()) {
+            throw unsupported("the unresolved reference " + target, pointer);
+        }
+        return targetPointer;
+    }
+
+    private List<String> subschemas(final JsonNode value, final String pointer) throws UnsupportedSchemaException {
+        if (!value.isArray() || value.isEmpty()) {
+            throw unsupported("a composition which is not a non-empty array", pointer);
+        }
+        List<String> subschemas = new ArrayList<>();
+        for (int i = 0; i < value.size(); i++) {
+            subschemas.add(method(pointer + "/" + i));
+        }
+        return subschemas;
+    }
+
+    private String pattern(final JsonNode value, final String pointer) throws UnsupportedSchemaException {
+        if (!value.isTextual()) {
+            throw unsupported("a pattern which is not a string", pointer);
+        }
+        return pattern(value.textValue(), "pattern", pointer);
+    }
+
+    /**
+     * Returns the constant of the pattern compiled with the engine and budget the interpreter uses for the keyword.
+     */
+    private String pattern(final String regex, final String keyword, final String pointer)
+        throws UnsupportedSchemaException {
+        if (!(keywords.get(keyword) instanceof RegexKeyword)) {
+            throw unsupported(keyword + " without the configured regular expression engine", pointer);
+        }
+        RegexKeyword regexKeyword = (RegexKeyword) keywords.get(keyword);
+        return constant("RegularExpression",
+            RegexCache.get(regexKeyword.getEngine(), regex, regexKeyword.getStepBudget()));
+    }
+
+    private String number(final JsonNode value, final String pointer) throws UnsupportedSchemaException {
+        if (!value.isNumber()) {
+            throw unsupported("a bound which is not a number", pointer);
+        }
+        return constant("BigDecimal", value.decimalValue());
+    }
+
+    private static int count(final JsonNode value, final String pointer) throws UnsupportedSchemaException {
+        if (!value.isIntegralNumber() || !value.canConvertToInt() || value.intValue() < 0) {
+            throw unsupported("a count which is not a non-negative integer", pointer);
+        }
+        return value.intValue();
+    }
+
+    private static long divisor(final JsonNode value, final String pointer) throws UnsupportedSchemaException {
+        if (!value.isIntegralNumber() || value.decimalValue().signum() <= 0
+            || value.decimalValue().compareTo(MAX_EXACT_INTEGER) > 0) {
+            throw unsupported("a multipleOf which is not a positive integer", pointer);
+        }
+        return value.longValue();
+    }
+
+    private void check(final String condition) {
+        methodSource.append("        if (!(").append(condition).append(")) {\n")
+            .append("            return false;\n")
+            .append("        }\n");
+    }
+
+    private static UnsupportedSchemaException unsupported(final String construct, final String pointer) {
+        return new UnsupportedSchemaException(construct + " at #" + pointer + " is not supported by the generator");
+    }
+
+    private static String escape(final String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * Returns the text safe to use within a comment: printable ASCII without backslashes, which could start a unicode
+     * escape, and without the end of a comment.
+     */
+    private static String comment(final String text) {
+        StringBuilder comment = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            comment.append(c >= ' ' && c < 127 && c != '\\' ? c : '?');
+        }
+        return comment.toString().replace("*/", "*?");
+    }
+
+    private static <T> Iterable<T> iterable(final Iterator<T> iterator) {
+        return () -> iterator;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.jfr;
+
+import io.github.leinad75.maven.plugin.json.util.CountingInputStream;
+import java.io.InputStream;
+
+/**
+ * Emits the {@link FileParseEvent}s of the parse of one file. The stream is only wrapped to count its bytes if the
+ * event is enabled when the file is opened, so nothing is counted while no recording is running. The events of a
+ * recording started later are committed without the bytes.
+ * <p>
+ * A file may be parsed in several steps, for example the documents of a YAML stream, each step is committed as an
+ * event with the bytes read during that step.
+ */
+public class FileParseRecorder {
+
+    private final String filePath;
+    private final CountingInputStream countingStream;
+    private final InputStream inputStream;
+    private FileParseEvent event;
+    private long recordedBytes;
+
+    public FileParseRecorder(final String filePath, final InputStream inputStream) {
+        this.filePath = filePath;
+        this.countingStream = new FileParseEvent().isEnabled() ? new CountingInputStream(inputStream) : null;
+        this.inputStream = countingStream != null ? countingStream : inputStream;
+    }
+
+    /**
+     * Returns the stream to parse the file from.
+     */
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * Starts timing a parse step.
+     */
+    public void begin() {
+        event = new FileParseEvent();
+        event.begin();
+    }
+
+    /**
+     * Ends the parse step started last and commits its event if it is recorded.
+     */
+    public void end() {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        long bytes = countingStream != null ? countingStream.getCount() - recordedBytes : 0;
+        recordedBytes += bytes;
+        if (event.shouldCommit()) {
+            event.filePath = filePath;
+            event.bytes = bytes;
+            event.commit();
+        }
+        event = null;
+    }
+}
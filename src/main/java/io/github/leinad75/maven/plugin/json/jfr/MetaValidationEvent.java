@@ -0,0 +1,41 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for validating a schema against the meta schema of its specification version.
+ */
+@Name("io.github.leinad75.json.MetaValidation")
+@Label("Meta Validation")
+@Category({"Maven", "JSON Validator"})
+@Description("Validating a schema against the meta schema of its specification version.")
+public class MetaValidationEvent extends Event {
+
+    @Label("Schema Path")
+    public String schemaPath;
+
+    @Label("Specification Version")
+    public String specVersion;
+
+    @Label("Message Count")
+    public int messageCount;
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+import com.networknt.schema.regex.RegularExpression;
+import java.util.regex.Pattern;
+
+/**
+ * JDK regular expression whose evaluation is aborted with a {@link RegexBudgetExceededException} after a number of
+ * steps. The steps are counted as character accesses of the matcher, which grow with the amount of backtracking.
+ */
+class JdkRegularExpression implements RegularExpression {
+
+    private final Pattern pattern;
+    private final long stepBudget;
+
+    JdkRegularExpression(final Pattern pattern, final long stepBudget) {
+        this.pattern = pattern;
+        this.stepBudget = stepBudget;
+    }
+
+    @Override
+    public boolean matches(final String value) {
+        if (stepBudget <= 0) {
+            return pattern.matcher(value).find();
+        }
+        return pattern.matcher(new BudgetCharSequence(value, new long[] {stepBudget})).find();
+    }
+
+    private final class BudgetCharSequence implements CharSequence {
+        private final String value;
+        private final long[] remainingSteps;
+
+        private BudgetCharSequence(final String value, final long[] remainingSteps) {
+            this.value = value;
+            this.remainingSteps = remainingSteps;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (--remainingSteps[0] < 0) {
+                throw new RegexBudgetExceededException(pattern.pattern(), stepBudget);
+            }
+            return value.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return new BudgetCharSequence(value.substring(start, end), remainingSteps);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.BaseJsonValidator;
+import com.networknt.schema.ExecutionContext;
+import com.networknt.schema.JsonNodePath;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.SchemaLocation;
+import com.networknt.schema.ValidationContext;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import com.networknt.schema.annotation.JsonNodeAnnotation;
+import com.networknt.schema.regex.RegularExpression;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validator for the {@code patternProperties} keyword using the {@link RegexCache}. Behaves like the networknt
+ * implementation, including the annotations needed by {@code unevaluatedProperties}.
+ */
+class PatternPropertiesValidator extends BaseJsonValidator {
+
+    private final Map<RegularExpression, JsonSchema> schemas = new IdentityHashMap<>();
+    private Boolean hasUnevaluatedPropertiesValidator;
+
+    PatternPropertiesValidator(SchemaLocation schemaLocation, JsonNodePath evaluationPath, JsonNode schemaNode,
+        JsonSchema parentSchema, ValidationContext validationContext, RegexEngine engine, long stepBudget) {
+        super(schemaLocation, evaluationPath, schemaNode, parentSchema, ValidatorTypeCode.PATTERN_PROPERTIES,
+            validationContext);
+        if (!schemaNode.isObject()) {
+            throw new JsonSchemaException("patternProperties must be an object node");
+        }
+        Iterator<String> names = schemaNode.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            schemas.put(RegexCache.get(engine, name, stepBudget), validationContext.newSchema(
+                schemaLocation.append(name), evaluationPath.append(name), schemaNode.get(name), parentSchema));
+        }
+    }
+
+    @Override
+    public Set<ValidationMessage> validate(ExecutionContext executionContext, JsonNode node, JsonNode rootNode,
+        JsonNodePath instanceLocation) {
+        if (!node.isObject()) {
+            return Collections.emptySet();
+        }
+        Set<ValidationMessage> errors = null;
+        Set<String> matchedInstancePropertyNames = null;
+        boolean collectAnnotations = hasUnevaluatedPropertiesValidator() || collectAnnotations(executionContext);
+        Iterator<String> names = node.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            JsonNode value = node.get(name);
+            for (Map.Entry<RegularExpression, JsonSchema> entry : schemas.entrySet()) {
+                if (matches(entry.getKey(), name, instanceLocation)) {
+                    JsonNodePath path = instanceLocation.append(name);
+                    Set<ValidationMessage> results = entry.getValue().validate(executionContext, value, rootNode, path);
+                    if (results.isEmpty()) {
+                        if (collectAnnotations) {
+                            if (matchedInstancePropertyNames == null) {
+                                matchedInstancePropertyNames = new LinkedHashSet<>();
+                            }
+                            matchedInstancePropertyNames.add(name);
+                        }
+                    } else {
+                        if (errors == null) {
+                            errors = new LinkedHashSet<>();
+                        }
+                        errors.addAll(results);
+                    }
+                }
+            }
+        }
+        if (collectAnnotations) {
+            executionContext.getAnnotations().put(JsonNodeAnnotation.builder().instanceLocation(instanceLocation)
+                .evaluationPath(getEvaluationPath()).schemaLocation(getSchemaLocation()).keyword(getKeyword())
+                .value(matchedInstancePropertyNames != null ? matchedInstancePropertyNames : Collections.emptySet())
+                .build());
+        }
+        return errors == null ? Collections.emptySet() : Collections.unmodifiableSet(errors);
+    }
+
+    private static boolean matches(RegularExpression regex, String name, JsonNodePath instanceLocation) {
+        try {
+            return regex.matches(name);
+        } catch (RegexBudgetExceededException e) {
+            throw new JsonSchemaException(e.getMessage() + " at " + instanceLocation);
+        }
+    }
+
+    private boolean hasUnevaluatedPropertiesValidator() {
+        if (hasUnevaluatedPropertiesValidator == null) {
+            hasUnevaluatedPropertiesValidator = hasAdjacentKeywordInEvaluationPath("unevaluatedProperties");
+        }
+        return hasUnevaluatedPropertiesValidator;
+    }
+
+    @Override
+    public void preloadJsonSchema() {
+        preloadJsonSchemas(schemas.values());
+        hasUnevaluatedPropertiesValidator();
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.BaseJsonValidator;
+import com.networknt.schema.ExecutionContext;
+import com.networknt.schema.JsonNodePath;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.JsonType;
+import com.networknt.schema.SchemaLocation;
+import com.networknt.schema.TypeFactory;
+import com.networknt.schema.ValidationContext;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import com.networknt.schema.regex.RegularExpression;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Validator for the {@code pattern} keyword using the {@link RegexCache}. Produces the same messages as the networknt
+ * implementation.
+ */
+class PatternValidator extends BaseJsonValidator {
+
+    private final String pattern;
+    private final RegularExpression compiledPattern;
+
+    PatternValidator(SchemaLocation schemaLocation, JsonNodePath evaluationPath, JsonNode schemaNode,
+        JsonSchema parentSchema, ValidationContext validationContext, RegexEngine engine, long stepBudget) {
+        super(schemaLocation, evaluationPath, schemaNode, parentSchema, ValidatorTypeCode.PATTERN, validationContext);
+        pattern = schemaNode.isTextual() ? schemaNode.textValue() : "";
+        compiledPattern = RegexCache.get(engine, pattern, stepBudget);
+    }
+
+    @Override
+    public Set<ValidationMessage> validate(ExecutionContext executionContext, JsonNode node, JsonNode rootNode,
+        JsonNodePath instanceLocation) {
+        if (TypeFactory.getValueNodeType(node, validationContext.getConfig()) != JsonType.STRING) {
+            return Collections.emptySet();
+        }
+        try {
+            if (!compiledPattern.matches(node.asText())) {
+                return Collections.singleton(message().instanceNode(node).instanceLocation(instanceLocation)
+                    .locale(executionContext.getExecutionConfig().getLocale())
+                    .failFast(executionContext.isFailFast()).arguments(pattern).build());
+            }
+        } catch (RegexBudgetExceededException e) {
+            throw new JsonSchemaException(e.getMessage() + " at " + instanceLocation);
+        }
+        return Collections.emptySet();
+    }
+}
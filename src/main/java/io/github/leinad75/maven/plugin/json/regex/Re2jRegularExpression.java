@@ -0,0 +1,36 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+import com.google.re2j.Pattern;
+import com.networknt.schema.regex.RegularExpression;
+
+/**
+ * RE2/J regular expression, matching in linear time so no step budget is needed.
+ */
+class Re2jRegularExpression implements RegularExpression {
+
+    private final Pattern pattern;
+
+    Re2jRegularExpression(final Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public boolean matches(final String value) {
+        return pattern.matcher(value).find();
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+import com.networknt.schema.regex.RegularExpression;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of compiled regular expressions shared by all schemas and validation threads. The least recently used
+ * pattern is evicted when the cache is full.
+ */
+public final class RegexCache {
+
+    private static final int MAX_SIZE = 4096;
+
+    private static final Map<String, Object> PATTERNS = Collections.synchronizedMap(
+        new LinkedHashMap<String, Object>(256, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Object> eldest) {
+                return size() > MAX_SIZE;
+            }
+        });
+
+    private RegexCache() { }
+
+    /**
+     * Returns the regular expression compiled with the given engine. The step budget only applies to the
+     * {@link RegexEngine#JDK} engine, a budget of {@code 0} disables it.
+     */
+    public static RegularExpression get(final RegexEngine engine, final String regex, final long stepBudget) {
+        final Object pattern = PATTERNS.computeIfAbsent(engine + ":" + regex, key -> compile(engine, regex));
+        if (engine == RegexEngine.RE2J) {
+            return new Re2jRegularExpression((com.google.re2j.Pattern) pattern);
+        }
+        return new JdkRegularExpression((java.util.regex.Pattern) pattern, stepBudget);
+    }
+
+    private static Object compile(final RegexEngine engine, final String regex) {
+        if (engine == RegexEngine.RE2J) {
+            return com.google.re2j.Pattern.compile(regex);
+        }
+        return java.util.regex.Pattern.compile(regex);
+    }
+
+    static int size() {
+        return PATTERNS.size();
+    }
+}
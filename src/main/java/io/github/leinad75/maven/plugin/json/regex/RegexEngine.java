@@ -0,0 +1,30 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+/**
+ * Regular expression engines available for the {@code pattern} and {@code patternProperties} keywords.
+ */
+public enum RegexEngine {
+    /**
+     * The backtracking {@link java.util.regex.Pattern} engine of the JDK, guarded by a step budget.
+     */
+    JDK,
+    /**
+     * The RE2/J engine, matching in time linear to the input but without support for backreferences and lookaround.
+     */
+    RE2J
+}
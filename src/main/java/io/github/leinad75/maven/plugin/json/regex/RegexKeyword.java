@@ -0,0 +1,111 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.AbstractKeyword;
+import com.networknt.schema.JsonMetaSchema;
+import com.networknt.schema.JsonNodePath;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonValidator;
+import com.networknt.schema.Keyword;
+import com.networknt.schema.SchemaLocation;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import com.networknt.schema.ValidationContext;
+import com.networknt.schema.ValidatorTypeCode;
+import com.networknt.schema.Vocabularies;
+import com.networknt.schema.Vocabulary;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the {@code pattern} and {@code patternProperties} keywords of a meta schema with validators using the
+ * selected {@link RegexEngine} and the shared {@link RegexCache}.
+ */
+public class RegexKeyword extends AbstractKeyword {
+
+    private final RegexEngine engine;
+    private final long stepBudget;
+
+    RegexKeyword(final ValidatorTypeCode keyword, final RegexEngine engine, final long stepBudget) {
+        super(keyword.getValue());
+        this.engine = engine;
+        this.stepBudget = stepBudget;
+    }
+
+    public RegexEngine getEngine() {
+        return engine;
+    }
+
+    public long getStepBudget() {
+        return stepBudget;
+    }
+
+    @Override
+    public JsonValidator newValidator(SchemaLocation schemaLocation, JsonNodePath evaluationPath, JsonNode schemaNode,
+        JsonSchema parentSchema, ValidationContext validationContext) {
+        if (ValidatorTypeCode.PATTERN.getValue().equals(getValue())) {
+            return new PatternValidator(schemaLocation, evaluationPath, schemaNode, parentSchema, validationContext,
+                engine, stepBudget);
+        }
+        return new PatternPropertiesValidator(schemaLocation, evaluationPath, schemaNode, parentSchema,
+            validationContext, engine, stepBudget);
+    }
+
+    /**
+     * Returns the meta schema of the given version with the regular expression keywords replaced.
+     */
+    public static JsonMetaSchema getMetaSchema(final VersionFlag versionFlag, final RegexEngine engine,
+        final long stepBudget) {
+        RegexKeyword pattern = new RegexKeyword(ValidatorTypeCode.PATTERN, engine, stepBudget);
+        RegexKeyword patternProperties = new RegexKeyword(ValidatorTypeCode.PATTERN_PROPERTIES, engine, stepBudget);
+        return JsonMetaSchema.builder(getBaseMetaSchema(versionFlag))
+            .keyword(pattern)
+            .keyword(patternProperties)
+            // since 2019-09 the keywords of the vocabularies are put over the keywords above when the meta schema is built
+            .vocabularyFactory(iri -> replaceKeywords(Vocabularies.getVocabulary(iri), pattern, patternProperties))
+            .build();
+    }
+
+    private static Vocabulary replaceKeywords(final Vocabulary vocabulary, final Keyword... replacements) {
+        if (vocabulary == null) {
+            return null;
+        }
+        Map<String, Keyword> keywords = new LinkedHashMap<>();
+        for (Keyword keyword : vocabulary.getKeywords()) {
+            keywords.put(keyword.getValue(), keyword);
+        }
+        for (Keyword replacement : replacements) {
+            keywords.replace(replacement.getValue(), replacement);
+        }
+        return new Vocabulary(vocabulary.getIri(), keywords.values().toArray(new Keyword[0]));
+    }
+
+    private static JsonMetaSchema getBaseMetaSchema(final VersionFlag versionFlag) {
+        switch (versionFlag) {
+            case V4:
+                return JsonMetaSchema.getV4();
+            case V6:
+                return JsonMetaSchema.getV6();
+            case V7:
+                return JsonMetaSchema.getV7();
+            case V201909:
+                return JsonMetaSchema.getV201909();
+            default:
+                return JsonMetaSchema.getV202012();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * {@link Log} writing to a delegate log from a single background thread. Validation threads only enqueue their
+ * messages, the background thread writes them in batches in the order they were logged. The queue is bounded: when
+ * the delegate falls behind, logging blocks until the background thread has caught up. Closing the log writes all
+ * pending messages before it returns, messages logged after that are written directly to the delegate.
+ * <p>
+ * The number of messages per second is limited: a flood of messages, like the failures of thousands of files, would
+ * otherwise keep the build busy writing its output. Messages beyond the limit are dropped and counted, their number is
+ * logged as a warning with the next message passing the limit and when the log is closed.
+ */
+public class AsyncLog implements Log, AutoCloseable {
+
+    static final int BATCH_SIZE = 256;
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    public static final int DEFAULT_MESSAGES_PER_SECOND = 1000;
+
+    private enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final class Entry {
+        private final Level level;
+        private final CharSequence content;
+        private final Throwable error;
+
+        private Entry(Level level, CharSequence content, Throwable error) {
+            this.level = level;
+            this.content = content;
+            this.error = error;
+        }
+    }
+
+    private static final Entry END = new Entry(Level.DEBUG, null, null);
+
+    private final Log delegate;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+    private final int messagesPerSecond;
+    // logging holds the read lock while it enqueues, closing takes the write lock so no message is queued after END
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private boolean closed;
+    private double allowance;
+    private long refilled;
+    private long suppressed;
+
+    public AsyncLog(final Log delegate) {
+        this(delegate, DEFAULT_MESSAGES_PER_SECOND);
+    }
+
+    /**
+     * @param messagesPerSecond the maximum number of messages written per second, 0 or less for no limit
+     */
+    public AsyncLog(final Log delegate, final int messagesPerSecond) {
+        this(delegate, DEFAULT_CAPACITY, messagesPerSecond);
+    }
+
+    AsyncLog(final Log delegate, final int capacity, final int messagesPerSecond) {
+        this.delegate = delegate;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.messagesPerSecond = messagesPerSecond;
+        this.allowance = messagesPerSecond;
+        this.refilled = System.nanoTime();
+        writer = new Thread(this::write, "json-validator-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void write() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Entry entry : batch) {
+                    if (entry == END) {
+                        return;
+                    }
+                    try {
+                        writeEntry(entry);
+                    } catch (RuntimeException e) {
+                        // a failing delegate must not stop the writer: the threads logging would block on a full
+                        // queue forever, so the message is dropped and the next ones are still written
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeEntry(Entry entry) {
+        switch (entry.level) {
+            case DEBUG:
+                if (entry.error == null) {
+                    delegate.debug(entry.content);
+                } else if (entry.content == null) {
+                    delegate.debug(entry.error);
+                } else {
+                    delegate.debug(entry.content, entry.error);
+                }
+                break;
+            case INFO:
+                if (entry.error == null) {
+                    delegate.info(entry.content);
+                } else if (entry.content == null) {
+                    delegate.info(entry.error);
+                } else {
+                    delegate.info(entry.content, entry.error);
+                }
+                break;
+            case WARN:
+                if (entry.error == null) {
+                    delegate.warn(entry.content);
+                } else if (entry.content == null) {
+                    delegate.warn(entry.error);
+                } else {
+                    delegate.warn(entry.content, entry.error);
+                }
+                break;
+            default:
+                if (entry.error == null) {
+                    delegate.error(entry.content);
+                } else if (entry.content == null) {
+                    delegate.error(entry.error);
+                } else {
+                    delegate.error(entry.content, entry.error);
+                }
+        }
+    }
+
+    private void log(Level level, CharSequence content, Throwable error) {
+        Entry entry = new Entry(level, content, error);
+        Entry suppression;
+        synchronized (this) {
+            if (!acquirePermit()) {
+                return;
+            }
+            suppression = takeSuppression();
+        }
+        lifecycle.readLock().lock();
+        try {
+            if (!closed) {
+                if (suppression != null) {
+                    put(suppression);
+                }
+                put(entry);
+                return;
+            }
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+        // the writer has stopped or is writing its last messages, wait for them to keep the order
+        joinWriter();
+        synchronized (delegate) {
+            if (suppression != null) {
+                writeDirectly(suppression);
+            }
+            writeDirectly(entry);
+        }
+    }
+
+    /**
+     * Takes a permit for one message, refilling the allowance at the configured rate up to one second worth of
+     * messages. Counts the message as suppressed if there is no permit left. Must be called holding this lock.
+     */
+    private boolean acquirePermit() {
+        if (messagesPerSecond <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        allowance = Math.min(messagesPerSecond,
+            allowance + (now - refilled) * (double) messagesPerSecond / TimeUnit.SECONDS.toNanos(1));
+        refilled = now;
+        if (allowance < 1) {
+            suppressed++;
+            return false;
+        }
+        allowance--;
+        return true;
+    }
+
+    /**
+     * Returns the warning for the messages suppressed since the last one, or null if none were. Must be called
+     * holding this lock.
+     */
+    private Entry takeSuppression() {
+        if (suppressed == 0) {
+            return null;
+        }
+        Entry entry = new Entry(Level.WARN, suppressed + " messages suppressed, more than " + messagesPerSecond
+            + " messages were logged per second", null);
+        suppressed = 0;
+        return entry;
+    }
+
+    private void writeDirectly(Entry entry) {
+        try {
+            writeEntry(entry);
+        } catch (RuntimeException e) {
+            // same as the writer, a failing delegate does not fail the caller logging
+        }
+    }
+
+    private void joinWriter() {
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Enqueues the entry, waiting for space if the queue is full. An interrupt does not lose the message, the
+     * interrupt status is restored once the entry is queued.
+     */
+    private void put(Entry entry) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(entry);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        lifecycle.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        put(END);
+        joinWriter();
+        Entry suppression;
+        synchronized (this) {
+            suppression = takeSuppression();
+        }
+        if (suppression != null) {
+            synchronized (delegate) {
+                writeDirectly(suppression);
+            }
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        if (isDebugEnabled()) {
+            log(Level.DEBUG, content, null);
+        }
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        if (isDebugEnabled()) {
+            log(Level.DEBUG, content, error);
+        }
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        if (isDebugEnabled()) {
+            log(Level.DEBUG, null, error);
+        }
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled();
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        log(Level.INFO, content, null);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        log(Level.INFO, content, error);
+    }
+
+    @Override
+    public void info(Throwable error) {
+        log(Level.INFO, null, error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        log(Level.WARN, content, null);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        log(Level.WARN, content, error);
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        log(Level.WARN, null, error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return delegate.isErrorEnabled();
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        log(Level.ERROR, content, null);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        log(Level.ERROR, content, error);
+    }
+
+    @Override
+    public void error(Throwable error) {
+        log(Level.ERROR, null, error);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NumericNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node factory building documents with less heap than the default one. Objects keep their fields in a
+ * {@link CompactObjectMap}, arrays start small, and short texts and small integers are shared by all nodes with the
+ * same value, which is common for keys, enums and flags repeated over many records. The nodes are plain Jackson nodes,
+ * so the validators traverse them like any other document.
+ */
+public class CompactNodeFactory extends JsonNodeFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_SHARED_TEXT_LENGTH = 32;
+    private static final int MAX_SHARED_TEXTS = 16 * 1024;
+    private static final IntNode[] SHARED_INTS = new IntNode[1024];
+
+    static {
+        for (int i = 0; i < SHARED_INTS.length; i++) {
+            SHARED_INTS[i] = new IntNode(i);
+        }
+    }
+
+    private final transient Map<String, TextNode> sharedTexts = new ConcurrentHashMap<>();
+
+    public CompactNodeFactory() {
+        super(false);
+    }
+
+    @Override
+    public ObjectNode objectNode() {
+        return new ObjectNode(this, new CompactObjectMap());
+    }
+
+    @Override
+    public ArrayNode arrayNode() {
+        return new ArrayNode(this, 2);
+    }
+
+    @Override
+    public TextNode textNode(final String text) {
+        if (text == null || text.length() > MAX_SHARED_TEXT_LENGTH) {
+            return super.textNode(text);
+        }
+        final TextNode shared = sharedTexts.get(text);
+        if (shared != null) {
+            return shared;
+        }
+        final TextNode node = super.textNode(text);
+        if (sharedTexts.size() < MAX_SHARED_TEXTS) {
+            sharedTexts.putIfAbsent(text, node);
+        }
+        return node;
+    }
+
+    @Override
+    public NumericNode numberNode(final int v) {
+        return v >= 0 && v < SHARED_INTS.length ? SHARED_INTS[v] : super.numberNode(v);
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Insertion ordered map of the fields of an object node, keeping names and values in two arrays instead of one
+ * {@code LinkedHashMap} entry per field. Fields are looked up by a linear scan, field names read by the parser are
+ * interned so most comparisons are identity checks. Objects with many fields get a hash index.
+ */
+class CompactObjectMap extends AbstractMap<String, JsonNode> {
+
+    private static final int INDEX_THRESHOLD = 16;
+
+    private String[] names;
+    private JsonNode[] values;
+    private int size;
+    private Map<String, Integer> index;
+
+    CompactObjectMap() {
+        names = new String[4];
+        values = new JsonNode[4];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public JsonNode get(final Object key) {
+        final int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public JsonNode put(final String key, final JsonNode value) {
+        final int i = indexOf(key);
+        if (i >= 0) {
+            final JsonNode previous = values[i];
+            values[i] = value;
+            return previous;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        names[size] = key;
+        values[size] = value;
+        size++;
+        if (index != null) {
+            index.put(key, size - 1);
+        } else if (size > INDEX_THRESHOLD) {
+            // built over all fields including the new one
+            buildIndex();
+        }
+        return null;
+    }
+
+    @Override
+    public JsonNode remove(final Object key) {
+        final int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        final JsonNode previous = values[i];
+        removeAt(i);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        index = null;
+    }
+
+    @Override
+    public Set<Entry<String, JsonNode>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, JsonNode>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(final Object key) {
+        if (index != null) {
+            final Integer i = index.get(key);
+            return i == null ? -1 : i;
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(final int i) {
+        System.arraycopy(names, i + 1, names, i, size - i - 1);
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        size--;
+        names[size] = null;
+        values[size] = null;
+        if (index != null) {
+            buildIndex();
+        }
+    }
+
+    private void buildIndex() {
+        index = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            index.put(names[i], i);
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, JsonNode>> {
+        private int next;
+        private int current = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<String, JsonNode> next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            current = next++;
+            final int i = current;
+            return new SimpleEntry<>(names[i], values[i]) {
+                @Override
+                public JsonNode setValue(final JsonNode value) {
+                    values[i] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(current);
+            next = current;
+            current = -1;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * Remembers dependency artifacts which were validated successfully. An entry is keyed by the checksum of the artifact
+ * and of the validation settings, so an artifact is validated again as soon as either of them changes.
+ */
+public class DependencyCache {
+
+    private final File cacheFile;
+    private final Properties entries = new Properties();
+
+    public DependencyCache(final File cacheFile) throws IOException {
+        this.cacheFile = cacheFile;
+        if (cacheFile.isFile()) {
+            try (InputStream inputStream = Files.newInputStream(cacheFile.toPath())) {
+                entries.load(inputStream);
+            }
+        }
+    }
+
+    public boolean contains(final String key) {
+        return entries.containsKey(key);
+    }
+
+    public void put(final String key, final String artifactId) {
+        entries.setProperty(key, artifactId);
+    }
+
+    public void save() throws IOException {
+        Files.createDirectories(cacheFile.getParentFile().toPath());
+        try (OutputStream outputStream = Files.newOutputStream(cacheFile.toPath())) {
+            entries.store(outputStream, "Dependency artifacts validated successfully");
+        }
+    }
+
+    public static String checksum(final File file) throws IOException {
+        final MessageDigest digest = newDigest();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return toHex(digest.digest());
+    }
+
+    public static String checksum(final String value) {
+        return toHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+}
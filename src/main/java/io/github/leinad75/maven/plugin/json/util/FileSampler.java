@@ -0,0 +1,105 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Selects a reproducible sample of files. Every file gets a pseudo random rank from a hash of the seed and its key,
+ * usually the path relative to the validation directory, so the same seed always selects the same files on every
+ * machine. A percentage sample includes each file whose rank falls below the percentage, so adding or removing other
+ * files does not change whether a file is selected; a count sample takes the files with the lowest ranks.
+ */
+public class FileSampler {
+
+    private final double fraction;
+    private final int count;
+    private final long seed;
+
+    /**
+     * @param sample a percentage like {@code 5%} or an absolute number of files like {@code 1000}
+     * @param seed the seed of the selection
+     * @throws IllegalArgumentException if the sample is neither a percentage nor a number
+     */
+    public FileSampler(final String sample, final long seed) {
+        final String value = sample.trim();
+        if (value.endsWith("%")) {
+            fraction = Double.parseDouble(value.substring(0, value.length() - 1).trim()) / 100d;
+            count = -1;
+        } else {
+            fraction = -1;
+            count = Integer.parseInt(value);
+        }
+        if (fraction > 1 || (fraction < 0 && count < 0)) {
+            throw new IllegalArgumentException("Invalid sample " + sample);
+        }
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the sampled files in their original order. Files matching {@code alwaysIncluded} are part of the
+     * sample in addition to the sampled files.
+     */
+    public List<String> select(final List<String> files, final Function<String, String> key,
+        final Predicate<String> alwaysIncluded) {
+        final Set<String> selected = new HashSet<>();
+        final List<String> candidates = new ArrayList<>();
+        for (final String file : files) {
+            if (alwaysIncluded.test(file)) {
+                selected.add(file);
+            } else if (fraction >= 0) {
+                if (toUnitInterval(hash(seed, key.apply(file))) < fraction) {
+                    selected.add(file);
+                }
+            } else {
+                candidates.add(file);
+            }
+        }
+        if (count >= 0) {
+            candidates.stream()
+                .sorted(Comparator.comparingLong((String file) -> hash(seed, key.apply(file))).thenComparing(key))
+                .limit(count)
+                .forEach(selected::add);
+        }
+        return files.stream().filter(selected::contains).collect(Collectors.toList());
+    }
+
+    private static double toUnitInterval(final long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the seed and the UTF-8 bytes of the key, finished with the SplitMix64 mixer.
+     */
+    static long hash(final long seed, final String key) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (final byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
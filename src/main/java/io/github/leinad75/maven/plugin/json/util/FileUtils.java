@@ -18,8 +18,16 @@ package io.github.leinad75.maven.plugin.json.util;
 import io.github.leinad75.maven.plugin.json.Validation;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.SelectorUtils;
 
 /**
  * Utility class for file handling.
@@ -29,8 +37,16 @@ import org.apache.maven.plugin.MojoExecutionException;
  */
 public final class FileUtils {
 
+    private static final String ARCHIVE_INCLUDES = "**/*.zip,**/*.jar";
+    private static final String ARCHIVE_ENTRY_INCLUDES = "**/*.json";
+
     private FileUtils() { }
 
+    /**
+     * Returns all files of the validation directory matching its includes and excludes. If archive scanning is
+     * enabled the entries of all zip and jar archives in the directory are added as well, see {@link JsonInputs}.
+     * Includes and excludes are matched against the path of the entry inside the archive.
+     */
     public static List<String> getListOfFiles(final Validation validation) throws MojoExecutionException {
         final File directory = new File(validation.getDirectory());
         final String includes;
@@ -40,11 +56,22 @@ public final class FileUtils {
             includes = String.join(",", validation.getIncludes());
         }
         try {
-            return org.codehaus.plexus.util.FileUtils.getFileNames(
+            final List<String> files = new ArrayList<>(org.codehaus.plexus.util.FileUtils.getFileNames(
                     directory,
                     includes,
                     String.join(",", validation.getExcludes()),
-                    true);
+                    true));
+            if (validation.isArchives()) {
+                for (final String archive : org.codehaus.plexus.util.FileUtils.getFileNames(
+                        directory,
+                        ARCHIVE_INCLUDES,
+                        String.join(",", validation.getExcludes()),
+                        true)) {
+                    files.remove(archive);
+                    files.addAll(getListOfArchiveEntries(archive, validation));
+                }
+            }
+            return files;
         } catch (final IllegalStateException | IOException e) {
             throw new MojoExecutionException(
                     String.format(
@@ -55,4 +82,42 @@ public final class FileUtils {
         }
     }
 
+    /**
+     * Returns all dependency artifacts whose {@code groupId:artifactId} matches one of the dependency patterns of the
+     * validation. Patterns may contain {@code *} wildcards.
+     */
+    public static List<Artifact> getDependencyArtifacts(final Validation validation, final Collection<Artifact> artifacts) {
+        return artifacts.stream()
+            .filter(artifact -> artifact.getFile() != null && artifact.getFile().isFile())
+            .filter(artifact -> validation.getDependencies().stream().anyMatch(pattern ->
+                SelectorUtils.match(pattern, artifact.getGroupId() + ":" + artifact.getArtifactId())))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the entries of the archive matching the includes and excludes of the validation, by default all json
+     * entries. The entries are returned in the form {@code archive!/path/in/archive}, see {@link JsonInputs}.
+     */
+    public static List<String> getListOfArchiveEntries(final String archive, final Validation validation)
+        throws IOException {
+        final List<String> entries = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            final Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                final ZipEntry zipEntry = zipEntries.nextElement();
+                if (!zipEntry.isDirectory() && isSelected(zipEntry.getName(), validation)) {
+                    entries.add(archive + JsonInputs.ARCHIVE_SEPARATOR + zipEntry.getName());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static boolean isSelected(final String path, final Validation validation) {
+        final boolean included = validation.getIncludes().isEmpty()
+            ? SelectorUtils.matchPath(ARCHIVE_ENTRY_INCLUDES, path)
+            : validation.getIncludes().stream().anyMatch(include -> SelectorUtils.matchPath(include, path));
+        return included && validation.getExcludes().stream().noneMatch(exclude -> SelectorUtils.matchPath(exclude, path));
+    }
+
 }
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lists the files changed in a git working tree since the merge base with a base ref, including uncommitted and
+ * untracked files, by running the {@code git} command line client.
+ */
+public final class GitChanges {
+
+    private GitChanges() {
+    }
+
+    /**
+     * Returns the absolute paths of all files changed since the merge base of {@code HEAD} and the base ref.
+     *
+     * @param directory a directory inside the working tree
+     * @param baseRef the base ref, for example {@code origin/main}
+     * @throws IOException if git fails, for example because the directory is not part of a working tree
+     */
+    public static Set<String> getChangedFiles(final File directory, final String baseRef) throws IOException {
+        final File topLevel = new File(git(directory, "rev-parse", "--show-toplevel").trim());
+        final String mergeBase = git(directory, "merge-base", baseRef, "HEAD").trim();
+        final Set<String> files = new HashSet<>();
+        addFiles(files, topLevel, git(topLevel, "diff", "--name-only", "-z", mergeBase));
+        addFiles(files, topLevel, git(topLevel, "ls-files", "--others", "--exclude-standard", "-z"));
+        return files;
+    }
+
+    /**
+     * Adds the paths of the NUL separated output, which git prints verbatim instead of quoting paths holding
+     * whitespace, quotes or non-ASCII characters.
+     */
+    private static void addFiles(final Set<String> files, final File topLevel, final String output) {
+        for (final String path : output.split("\0")) {
+            if (!path.isEmpty()) {
+                files.add(new File(topLevel, path).getAbsolutePath());
+            }
+        }
+    }
+
+    private static String git(final File directory, final String... arguments) throws IOException {
+        final String[] command = new String[arguments.length + 1];
+        command[0] = "git";
+        System.arraycopy(arguments, 0, command, 1, arguments.length);
+        final Process process = new ProcessBuilder(command).directory(directory).start();
+        final CompletableFuture<String> error = CompletableFuture.supplyAsync(() -> read(process.getErrorStream()));
+        final String output = read(process.getInputStream());
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException("git " + String.join(" ", arguments) + " failed: " + error.join().trim());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git", e);
+        }
+        return output;
+    }
+
+    private static String read(final InputStream inputStream) {
+        try (InputStream in = inputStream) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            in.transferTo(bytes);
+            return bytes.toString(StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            return "";
+        }
+    }
+}
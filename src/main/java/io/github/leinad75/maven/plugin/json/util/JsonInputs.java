@@ -0,0 +1,99 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Opens json inputs for reading. An input is either a plain file, a gzip ({@code .gz}) or zstd ({@code .zst})
+ * compressed file or an entry of a zip/jar archive, written as {@code path/to/archive.zip!/path/in/archive.json}.
+ * Archive entries are streamed directly from the archive without extracting them. Archives stay open until this
+ * object is closed, so the entries of one archive can be read concurrently.
+ */
+public class JsonInputs implements Closeable {
+
+    public static final String ARCHIVE_SEPARATOR = "!/";
+
+    private final Map<String, ZipFile> archives = new ConcurrentHashMap<>();
+
+    public InputStream open(final String input) throws IOException {
+        final int separator = input.indexOf(ARCHIVE_SEPARATOR);
+        final InputStream inputStream;
+        if (separator < 0) {
+            inputStream = new FileInputStream(input);
+        } else {
+            final ZipFile archive = getArchive(input.substring(0, separator));
+            final String entryName = input.substring(separator + ARCHIVE_SEPARATOR.length());
+            final ZipEntry entry = archive.getEntry(entryName);
+            if (entry == null) {
+                throw new FileNotFoundException("Entry " + entryName + " not found in archive " + archive.getName());
+            }
+            inputStream = archive.getInputStream(entry);
+        }
+        return decompress(input, new BufferedInputStream(inputStream));
+    }
+
+    private ZipFile getArchive(final String archiveFile) throws IOException {
+        try {
+            return archives.computeIfAbsent(archiveFile, file -> {
+                try {
+                    return new ZipFile(file);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static InputStream decompress(final String input, final InputStream inputStream) throws IOException {
+        if (input.endsWith(".gz")) {
+            return new GZIPInputStream(inputStream);
+        } else if (input.endsWith(".zst")) {
+            return new ZstdInputStream(inputStream);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (final ZipFile archive : archives.values()) {
+            try {
+                archive.close();
+            } catch (final IOException e) {
+                exception = e;
+            }
+        }
+        archives.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Source locations of the values at a set of JSON pointers. The document is scanned token by token without building
+ * a tree and only the locations of the requested pointers are kept, the scan stops as soon as all of them are found.
+ * This is meant for files which failed validation, the regular parse does not track locations.
+ */
+public final class JsonLocationIndex {
+
+    private JsonLocationIndex() {
+    }
+
+    /**
+     * Returns the location of the first token of the value at each of the pointers found in the document read by the
+     * parser, which is closed afterwards.
+     */
+    public static Map<String, JsonLocation> locate(final JsonParser parser, final Collection<String> pointers)
+        throws IOException {
+        return locate(parser, 0, pointers);
+    }
+
+    /**
+     * Returns the locations of the pointers within one document of a stream of documents, like a multi-document YAML
+     * file. The documents before it are skipped without tracking pointers, the parser is closed afterwards.
+     */
+    public static Map<String, JsonLocation> locate(final JsonParser parser, final int document,
+        final Collection<String> pointers) throws IOException {
+        final Set<String> remaining = new HashSet<>(pointers);
+        final Map<String, JsonLocation> locations = new HashMap<>();
+        try (JsonParser jsonParser = parser) {
+            for (int skipped = 0; skipped < document; skipped++) {
+                if (jsonParser.nextToken() == null) {
+                    return locations;
+                }
+                jsonParser.skipChildren();
+            }
+            JsonToken token;
+            while (!remaining.isEmpty() && (token = jsonParser.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME && !token.isStructEnd()) {
+                    final String pointer = getPointer(jsonParser, token);
+                    if (remaining.remove(pointer)) {
+                        locations.put(pointer, jsonParser.currentTokenLocation());
+                    }
+                }
+                if (jsonParser.getParsingContext().inRoot()) {
+                    // the document ended, the following ones are not scanned
+                    break;
+                }
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Returns the JSON pointer of the value starting with the current token of the parser.
+     */
+    static String getPointer(final JsonParser parser, final JsonToken token) {
+        final JsonStreamContext context = parser.getParsingContext();
+        if (token.isStructStart()) {
+            // the parser already entered the new container, its value is addressed by the enclosing context
+            return context.getParent() == null ? "" : context.getParent().pathAsPointer().toString();
+        }
+        return context.pathAsPointer().toString();
+    }
+
+    /**
+     * Formats a location as {@code line L, column C}.
+     */
+    public static String format(final JsonLocation location) {
+        return "line " + location.getLineNr() + ", column " + location.getColumnNr();
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonNodePath;
+import com.networknt.schema.PathType;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the subtrees at a set of JSON pointers from a document. Only the selected subtrees are built as nodes, all
+ * other containers are skipped token by token, so the memory used follows the size of the selected content. Reading
+ * stops as soon as all subtrees are found. Pointers nested in another selected pointer are taken from its subtree.
+ */
+public final class JsonSubtreeReader {
+
+    private JsonSubtreeReader() {
+    }
+
+    /**
+     * Returns the subtrees found in the document read by the parser, keyed by their normalized pointer, see
+     * {@link #normalize(String)}. The parser is closed afterwards.
+     *
+     * @throws IllegalArgumentException if a pointer is not a valid JSON pointer
+     */
+    public static Map<String, JsonNode> read(final ObjectMapper objectMapper, final JsonParser parser,
+        final Collection<String> pointers) throws IOException {
+        final Set<String> remaining = new HashSet<>();
+        for (final String pointer : pointers) {
+            remaining.add(normalize(pointer));
+        }
+        final Map<String, JsonNode> subtrees = new LinkedHashMap<>();
+        try (JsonParser jsonParser = parser) {
+            JsonToken token;
+            while (!remaining.isEmpty() && (token = jsonParser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME || token.isStructEnd()) {
+                    continue;
+                }
+                final String pointer = JsonLocationIndex.getPointer(jsonParser, token);
+                if (remaining.remove(pointer)) {
+                    final JsonNode subtree = objectMapper.readTree(jsonParser);
+                    subtrees.put(pointer, subtree);
+                    // the parser is past the subtree, nested pointers are not reached anymore
+                    for (final Iterator<String> nested = remaining.iterator(); nested.hasNext(); ) {
+                        final String selected = nested.next();
+                        if (selected.startsWith(pointer + "/")) {
+                            nested.remove();
+                            final JsonNode value = subtree.at(selected.substring(pointer.length()));
+                            if (!value.isMissingNode()) {
+                                subtrees.put(selected, value);
+                            }
+                        }
+                    }
+                } else if (token.isStructStart() && !isOnPath(pointer, remaining)) {
+                    jsonParser.skipChildren();
+                }
+            }
+        }
+        return subtrees;
+    }
+
+    private static boolean isOnPath(final String pointer, final Set<String> pointers) {
+        final String prefix = pointer + "/";
+        for (final String selected : pointers) {
+            if (selected.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the pointer in the form reported by the parser.
+     */
+    public static String normalize(final String pointer) {
+        return JsonPointer.compile(pointer).toString();
+    }
+
+    /**
+     * Converts the pointer to the instance location of its value, used to validate a subtree at its location.
+     */
+    public static JsonNodePath toPath(final String pointer) {
+        JsonNodePath path = new JsonNodePath(PathType.JSON_POINTER);
+        for (JsonPointer segment = JsonPointer.compile(pointer); !segment.matches(); segment = segment.tail()) {
+            path = segment.getMatchingIndex() >= 0
+                ? path.append(segment.getMatchingIndex())
+                : path.append(segment.getMatchingProperty());
+        }
+        return path;
+    }
+}
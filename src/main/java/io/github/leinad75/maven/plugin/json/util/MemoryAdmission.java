@@ -0,0 +1,191 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admits validation tasks by their estimated heap use against a budget, so large files are validated with limited
+ * concurrency while small files run on all threads. The heap use of a file is estimated from its size and an
+ * expansion factor, the ratio of the estimated size of the parsed trees to the size of the files learned from the
+ * files parsed so far. A task larger than the whole budget is admitted once nothing else is running.
+ */
+public class MemoryAdmission {
+
+    /**
+     * Expansion factor used until files were parsed, parsed trees are typically 5 to 10 times larger than the file.
+     */
+    static final double DEFAULT_EXPANSION_FACTOR = 8d;
+
+    /**
+     * The trees of the first files are all measured, later only every n-th tree.
+     */
+    private static final int LEARNED_FILES = 32;
+    private static final int LEARN_INTERVAL = 16;
+    private static final long MIN_COST = 64 * 1024;
+
+    private final long budget;
+    private long admitted;
+    private long peakAdmitted;
+    private long tasks;
+    private long files;
+    private long waitingTasks;
+    private long waitNanos;
+    private final AtomicInteger parses = new AtomicInteger();
+    private final AtomicLong parsedBytes = new AtomicLong();
+    private final AtomicLong treeBytes = new AtomicLong();
+
+    public MemoryAdmission(final long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Heap budget must be positive: " + budget);
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Parses a budget given as a percentage of the maximum heap like {@code 50%} or as a size like {@code 512m}.
+     */
+    public static long parseBudget(final String budget, final long maxMemory) {
+        final String value = budget.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (value.endsWith("%")) {
+                final double percentage = Double.parseDouble(value.substring(0, value.length() - 1));
+                if (percentage <= 0 || percentage > 100) {
+                    throw new IllegalArgumentException("Invalid heap budget " + budget);
+                }
+                return (long) (maxMemory * percentage / 100);
+            }
+            final int unit = "kmg".indexOf(value.charAt(value.length() - 1));
+            final String number = unit < 0 ? value : value.substring(0, value.length() - 1);
+            return Long.parseLong(number) << (10 * (unit + 1));
+        } catch (final NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid heap budget " + budget, e);
+        }
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the heap use estimated for files of the given total size.
+     */
+    public long estimate(final long fileBytes) {
+        return Math.min(budget, Math.max(MIN_COST, Math.round(fileBytes * getExpansionFactor())));
+    }
+
+    public double getExpansionFactor() {
+        final long bytes = parsedBytes.get();
+        return bytes == 0 ? DEFAULT_EXPANSION_FACTOR : (double) treeBytes.get() / bytes;
+    }
+
+    /**
+     * Waits until the estimated heap use of a task is available.
+     */
+    public synchronized void acquire(final long cost, final int fileCount) throws InterruptedException {
+        final long start = System.nanoTime();
+        boolean waited = false;
+        while (admitted > 0 && admitted + cost > budget) {
+            waited = true;
+            wait();
+        }
+        admitted += cost;
+        peakAdmitted = Math.max(peakAdmitted, admitted);
+        tasks++;
+        files += fileCount;
+        if (waited) {
+            waitingTasks++;
+            waitNanos += System.nanoTime() - start;
+        }
+    }
+
+    public synchronized void release(final long cost) {
+        admitted -= cost;
+        notifyAll();
+    }
+
+    /**
+     * Returns {@code true} if the tree of the next parsed file should be measured, the first files and then every
+     * few files to follow changes of the corpus.
+     */
+    public boolean shouldLearn() {
+        final int count = parses.incrementAndGet();
+        return count <= LEARNED_FILES || count % LEARN_INTERVAL == 0;
+    }
+
+    /**
+     * Learns the expansion factor from a parsed file.
+     */
+    public void learn(final long fileBytes, final JsonNode node) {
+        if (fileBytes > 0) {
+            treeBytes.addAndGet(estimateTreeSize(node));
+            parsedBytes.addAndGet(fileBytes);
+        }
+    }
+
+    public synchronized long getTasks() {
+        return tasks;
+    }
+
+    public synchronized String getSummary() {
+        return String.format("Memory admission: %d tasks for %d files, peak %d of %d MB admitted, %d tasks waited"
+                + " %d ms for memory, expansion factor %.1f", tasks, files, toMegabytes(peakAdmitted),
+            toMegabytes(budget), waitingTasks, TimeUnit.NANOSECONDS.toMillis(waitNanos), getExpansionFactor());
+    }
+
+    private static long toMegabytes(final long bytes) {
+        return bytes >> 20;
+    }
+
+    /**
+     * Estimates the heap used by a tree of a 64 bit JVM with compressed references: node objects, the maps and lists
+     * of containers and the strings of field names and texts. Shared nodes like booleans and nulls are not counted.
+     */
+    static long estimateTreeSize(final JsonNode root) {
+        long size = 0;
+        final Deque<JsonNode> nodes = new ArrayDeque<>();
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            final JsonNode node = nodes.pop();
+            if (node.isObject()) {
+                // node, LinkedHashMap and its table, an entry and a key string per field
+                size += 16 + 56 + 16L + 4L * node.size() * 2;
+                for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+                    final Map.Entry<String, JsonNode> field = fields.next();
+                    size += 40 + 40 + field.getKey().length();
+                    nodes.push(field.getValue());
+                }
+            } else if (node.isArray()) {
+                // node, ArrayList and its element array
+                size += 16 + 24 + 16L + 4L * node.size();
+                node.forEach(nodes::push);
+            } else if (node.isTextual()) {
+                size += 16 + 40 + node.textValue().length();
+            } else if (node.isNumber() || node.isBinary() || node.isPojo()) {
+                size += 24;
+            }
+        }
+        return size;
+    }
+}
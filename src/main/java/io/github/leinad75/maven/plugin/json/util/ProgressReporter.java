@@ -0,0 +1,76 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Logs a progress line with throughput and estimated remaining time, at most once per interval.
+ */
+public class ProgressReporter {
+
+    private static final long DEFAULT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final Log log;
+    private final int total;
+    private final long intervalNanos;
+    private final long startNanos;
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicLong nextReportNanos;
+
+    public ProgressReporter(final Log log, final int total) {
+        this(log, total, DEFAULT_INTERVAL_NANOS);
+    }
+
+    ProgressReporter(final Log log, final int total, final long intervalNanos) {
+        this.log = log;
+        this.total = total;
+        this.intervalNanos = intervalNanos;
+        this.startNanos = System.nanoTime();
+        this.nextReportNanos = new AtomicLong(startNanos + intervalNanos);
+    }
+
+    /**
+     * Counts a processed file and logs the progress if the interval has passed since the last progress line.
+     */
+    public void fileProcessed() {
+        final int count = processed.incrementAndGet();
+        final long now = System.nanoTime();
+        final long next = nextReportNanos.get();
+        if (now - next >= 0 && nextReportNanos.compareAndSet(next, now + intervalNanos)) {
+            log.info(getProgress(count, now));
+        }
+    }
+
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    String getProgress(final int count, final long now) {
+        final double seconds = Math.max(now - startNanos, 1) / 1_000_000_000d;
+        final double filesPerSecond = count / seconds;
+        final long remainingSeconds = filesPerSecond > 0 ? Math.round((total - count) / filesPerSecond) : 0;
+        return String.format("Validated %d/%d files (%.1f files/s, ETA %d:%02d)",
+            count, total, filesPerSecond, remainingSeconds / 60, remainingSeconds % 60);
+    }
+}
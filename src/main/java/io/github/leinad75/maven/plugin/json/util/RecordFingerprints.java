@@ -0,0 +1,104 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Persisted set of the fingerprints of the records of a file which were validated successfully, a 64 bit hash of the
+ * bytes of each record. A record is only validated again if its fingerprint is not contained, so after editing a few
+ * records of a large file only these are parsed and validated. The fingerprints do not depend on the position of a
+ * record, inserting or removing records keeps the fingerprints of the others.
+ */
+public class RecordFingerprints {
+
+    private static final int MAGIC = 0x4a565246;
+
+    private final long[] fingerprints;
+
+    private RecordFingerprints(final long[] fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * Loads the fingerprints from the file, an empty set if the file does not exist or can not be read.
+     */
+    public static RecordFingerprints load(final File file) {
+        if (!file.isFile()) {
+            return new RecordFingerprints(new long[0]);
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (input.readInt() != MAGIC) {
+                return new RecordFingerprints(new long[0]);
+            }
+            final long[] fingerprints = new long[input.readInt()];
+            for (int i = 0; i < fingerprints.length; i++) {
+                fingerprints[i] = input.readLong();
+            }
+            return new RecordFingerprints(fingerprints);
+        } catch (final IOException e) {
+            return new RecordFingerprints(new long[0]);
+        }
+    }
+
+    /**
+     * Writes the fingerprints to the file, replacing it atomically.
+     */
+    public static void save(final File file, final long[] fingerprints, final int count) throws IOException {
+        final long[] sorted = Arrays.copyOf(fingerprints, count);
+        Arrays.sort(sorted);
+        Files.createDirectories(file.getParentFile().toPath());
+        final File temporary = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary.toPath())))) {
+            output.writeInt(MAGIC);
+            output.writeInt(sorted.length);
+            for (final long fingerprint : sorted) {
+                output.writeLong(fingerprint);
+            }
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public boolean contains(final long fingerprint) {
+        return Arrays.binarySearch(fingerprints, fingerprint) >= 0;
+    }
+
+    public int size() {
+        return fingerprints.length;
+    }
+
+    /**
+     * Returns the fingerprint of the bytes of a record.
+     */
+    public static long fingerprint(final byte[] bytes, final int offset, final int length) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            hash ^= bytes[i] & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
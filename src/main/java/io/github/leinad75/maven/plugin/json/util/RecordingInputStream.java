@@ -0,0 +1,103 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Input stream keeping the bytes read since the last {@link #discard(long)}, so the raw bytes of a value can be taken
+ * by the offsets a parser reports. The parser reads ahead, the kept bytes therefore always reach past the value the
+ * parser has just finished.
+ */
+public class RecordingInputStream extends FilterInputStream {
+
+    private byte[] buffer = new byte[64 * 1024];
+    private long start;
+    private int length;
+
+    public RecordingInputStream(final InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = super.read();
+        if (b >= 0) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) b;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int count = super.read(b, off, len);
+        if (count > 0) {
+            ensureCapacity(count);
+            System.arraycopy(b, off, buffer, length, count);
+            length += count;
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        // skipped bytes must be recorded as well, at the end of the stream nothing is skipped
+        return Math.max(read(new byte[(int) Math.min(n, 8192)]), 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Returns the buffer holding the kept bytes, the byte at stream offset {@code offset} is at index
+     * {@link #indexOf(long)}.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int indexOf(final long offset) {
+        if (offset < start || offset > start + length) {
+            throw new IllegalArgumentException("Offset " + offset + " is not kept");
+        }
+        return (int) (offset - start);
+    }
+
+    /**
+     * Drops the kept bytes before the stream offset.
+     */
+    public void discard(final long offset) {
+        final int drop = indexOf(offset);
+        System.arraycopy(buffer, drop, buffer, 0, length - drop);
+        length -= drop;
+        start = offset;
+    }
+
+    private void ensureCapacity(final int count) {
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+        }
+    }
+}
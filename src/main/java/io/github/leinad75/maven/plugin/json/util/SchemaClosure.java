@@ -0,0 +1,317 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the closure of the {@code $ref}s of a schema before validating, so no schema is fetched while files are
+ * validated. The documents referenced by a level of the closure are resolved in parallel, each one from the first of:
+ * <ol>
+ * <li>the mirror directory, a document {@code https://host/path} is read from {@code <mirror>/host/path},</li>
+ * <li>the cache directory, holding the remote documents of earlier runs named by the hash of their content,</li>
+ * <li>the network, unless the closure is resolved offline.</li>
+ * </ol>
+ * Local {@code file:} documents are read to follow their references but are not cached. Documents bundled with the
+ * plugin or the validator library, on the classpath or below {@code json-schema.org}, are not resolved.
+ * <p>
+ * The cache may be shared by the modules of a parallel build and by concurrent builds: its files are written to a
+ * temporary file moved in place, and its index is merged with the entries saved meanwhile under a file lock.
+ */
+public class SchemaClosure {
+
+    private static final String INDEX_FILE = "schemas.properties";
+    private static final String LOCK_FILE = INDEX_FILE + ".lock";
+    // a file lock is held by the JVM, it does not exclude the threads of the same build
+    private static final Object CACHE_LOCK = new Object();
+    private static final Set<String> REMOTE_SCHEMES = Set.of("http", "https");
+    private static final List<String> BUNDLED_PREFIXES = List.of(
+        "https://localhost", "http://json-schema.org/", "https://json-schema.org/");
+
+    private final ObjectMapper objectMapper;
+    private final File mirrorDirectory;
+    private final File cacheDirectory;
+    private final boolean offline;
+    private final Properties cacheIndex = new Properties();
+    private final Map<String, String> documents = new ConcurrentHashMap<>();
+    private final Map<String, String> unresolved = new ConcurrentHashMap<>();
+    private final Map<String, String> sources = new ConcurrentHashMap<>();
+
+    /**
+     * @param mirrorDirectory directory mirroring remote documents by host and path, or {@code null}
+     * @param cacheDirectory directory of the remote documents resolved before, or {@code null} to cache nothing
+     * @param offline {@code true} to never access the network
+     */
+    public SchemaClosure(final ObjectMapper objectMapper, final File mirrorDirectory, final File cacheDirectory,
+        final boolean offline) throws IOException {
+        this.objectMapper = objectMapper;
+        this.mirrorDirectory = mirrorDirectory;
+        this.cacheDirectory = cacheDirectory;
+        this.offline = offline;
+        if (cacheDirectory != null && new File(cacheDirectory, INDEX_FILE).isFile()) {
+            try (InputStream inputStream = Files.newInputStream(new File(cacheDirectory, INDEX_FILE).toPath())) {
+                cacheIndex.load(inputStream);
+            }
+        }
+    }
+
+    /**
+     * Resolves all documents referenced by the schema, directly or through other documents. Offline, all documents
+     * must be resolved. Otherwise the documents which could not be resolved are left to the schema factory, which
+     * fetches them when they are used, see {@link #getUnresolved()}.
+     *
+     * @param baseUri the URI relative references of the schema are resolved against, usually its file
+     * @return the content of each remote document by its URI
+     * @throws IOException if documents could not be resolved offline, listing all of them, or the cache can not be
+     *     written
+     */
+    public Map<String, String> resolve(final JsonNode schemaNode, final URI baseUri) throws IOException {
+        Set<String> visited = new HashSet<>();
+        Set<String> embeddedIds = ConcurrentHashMap.newKeySet();
+        Set<String> level = new TreeSet<>();
+        collectReferences(schemaNode, baseUri, level, embeddedIds);
+        while (!level.isEmpty()) {
+            level.removeAll(visited);
+            level.removeAll(embeddedIds);
+            visited.addAll(level);
+            Set<String> next = ConcurrentHashMap.newKeySet();
+            level.parallelStream().forEach(uri -> {
+                JsonNode node = load(uri);
+                if (node != null) {
+                    collectReferences(node, URI.create(uri), next, embeddedIds);
+                }
+            });
+            level = new TreeSet<>(next);
+        }
+        // a reference loaded before the document embedding its target was read
+        unresolved.keySet().removeAll(embeddedIds);
+        if (offline && !unresolved.isEmpty()) {
+            throw new IOException("Unresolved schema references: " + new TreeMap<>(unresolved).entrySet().stream()
+                .map(entry -> entry.getKey() + " (" + entry.getValue() + ")")
+                .collect(Collectors.joining(", ")));
+        }
+        saveCache();
+        return Collections.unmodifiableMap(new TreeMap<>(documents));
+    }
+
+    /**
+     * Returns the reason each document could not be resolved by its URI.
+     */
+    public Map<String, String> getUnresolved() {
+        return new TreeMap<>(unresolved);
+    }
+
+    /**
+     * Returns where each remote document was resolved from: {@code mirror}, {@code cache} or {@code network}.
+     */
+    public Map<String, String> getSources() {
+        return new TreeMap<>(sources);
+    }
+
+    /**
+     * Returns {@code true} for documents which must be fetched, those not bundled with the plugin or the library.
+     */
+    public static boolean isRemote(final String uri) {
+        return REMOTE_SCHEMES.contains(URI.create(uri).getScheme()) && BUNDLED_PREFIXES.stream().noneMatch(uri::startsWith);
+    }
+
+    private JsonNode load(final String uri) {
+        try {
+            if ("file".equals(URI.create(uri).getScheme())) {
+                File file = new File(URI.create(uri));
+                if (!file.isFile()) {
+                    unresolved.put(uri, "file not found");
+                    return null;
+                }
+                return objectMapper.readTree(file);
+            }
+            String content = readRemote(uri);
+            if (content == null) {
+                return null;
+            }
+            JsonNode node = objectMapper.readTree(content);
+            documents.put(uri, content);
+            return node;
+        } catch (IOException e) {
+            unresolved.put(uri, e.toString());
+            return null;
+        }
+    }
+
+    private String readRemote(final String uri) throws IOException {
+        URI location = URI.create(uri);
+        if (mirrorDirectory != null) {
+            File mirrored = new File(mirrorDirectory, location.getHost() + location.getPath());
+            if (mirrored.isFile()) {
+                sources.put(uri, "mirror");
+                return Files.readString(mirrored.toPath());
+            }
+        }
+        String hash = cacheIndex.getProperty(uri);
+        if (hash != null) {
+            File cached = new File(cacheDirectory, hash + ".json");
+            if (cached.isFile()) {
+                String content = Files.readString(cached.toPath());
+                // a modified cache entry is resolved again
+                if (hash.equals(DependencyCache.checksum(content))) {
+                    sources.put(uri, "cache");
+                    return content;
+                }
+            }
+        }
+        if (offline) {
+            unresolved.put(uri, mirrorDirectory == null ? "offline, no mirror" : "offline, not in mirror " + mirrorDirectory);
+            return null;
+        }
+        try (InputStream inputStream = location.toURL().openStream()) {
+            sources.put(uri, "network");
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void saveCache() throws IOException {
+        if (cacheDirectory == null || documents.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(cacheDirectory.toPath());
+        Map<String, String> hashes = new TreeMap<>();
+        for (Map.Entry<String, String> document : documents.entrySet()) {
+            String hash = DependencyCache.checksum(document.getValue());
+            File cached = new File(cacheDirectory, hash + ".json");
+            if (!cached.isFile()) {
+                replace(cached.toPath(), document.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+            hashes.put(document.getKey(), hash);
+        }
+        Path indexFile = new File(cacheDirectory, INDEX_FILE).toPath();
+        synchronized (CACHE_LOCK) {
+            try (FileChannel channel = FileChannel.open(new File(cacheDirectory, LOCK_FILE).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                // keeps the entries saved by other builds since this one read the index
+                if (Files.isRegularFile(indexFile)) {
+                    try (InputStream inputStream = Files.newInputStream(indexFile)) {
+                        cacheIndex.load(inputStream);
+                    }
+                }
+                cacheIndex.putAll(hashes);
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                cacheIndex.store(content, "Resolved schema documents by the hash of their content");
+                replace(indexFile, content.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Writes the file to a temporary file moved in place, so a concurrent reader sees either version in full.
+     */
+    private static void replace(final Path file, final byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, content);
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Adds the absolute URIs of the documents referenced below the node, following {@code $id}s, or the {@code id}s
+     * of draft-04, changing the base. The URIs of the subschemas identified that way are added to {@code embeddedIds},
+     * references to them are resolved within their document.
+     */
+    private static void collectReferences(final JsonNode node, final URI baseUri, final Set<String> uris,
+        final Set<String> embeddedIds) {
+        if (node.isArray()) {
+            node.forEach(element -> collectReferences(element, baseUri, uris, embeddedIds));
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+        URI base = baseUri;
+        JsonNode id = node.has("$id") ? node.get("$id") : node.get("id");
+        if (id != null && id.isTextual() && !id.asText().startsWith("#")) {
+            URI identified = resolve(base, id.asText());
+            if (identified != null) {
+                base = identified;
+                embeddedIds.add(withoutFragment(identified));
+            }
+        }
+        JsonNode ref = node.get("$ref");
+        if (ref != null && ref.isTextual() && !ref.asText().startsWith("#")) {
+            URI target = resolve(base, ref.asText());
+            if (target != null) {
+                String uri = withoutFragment(target);
+                if ("file".equals(target.getScheme()) || isRemote(uri)) {
+                    uris.add(uri);
+                }
+            }
+        }
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            // values of these keywords are data, not schemas
+            if (!"enum".equals(field.getKey()) && !"const".equals(field.getKey()) && !"examples".equals(field.getKey())) {
+                collectReferences(field.getValue(), base, uris, embeddedIds);
+            }
+        }
+    }
+
+    private static URI resolve(final URI base, final String reference) {
+        try {
+            URI uri = new URI(reference);
+            return base == null || uri.isAbsolute() ? uri : base.resolve(uri);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static String withoutFragment(final URI uri) {
+        String text = uri.toString();
+        int fragment = text.indexOf('#');
+        return fragment < 0 ? text : text.substring(0, fragment);
+    }
+}
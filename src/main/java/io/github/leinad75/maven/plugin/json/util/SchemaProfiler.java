@@ -0,0 +1,144 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import com.networknt.schema.JsonValidator;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+import com.networknt.schema.walk.WalkEvent;
+import com.networknt.schema.walk.WalkFlow;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keyword walk listener recording call counts and cumulative time per schema location and keyword. The results are
+ * written as a table sorted by total time and as collapsed stacks, the input format of flame graph tools.
+ */
+public class SchemaProfiler implements JsonSchemaWalkListener {
+
+    private static final class Stats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+    }
+
+    private static final class Frame {
+        private final String name;
+        private final String stack;
+        private final long startNanos = System.nanoTime();
+        private long childNanos;
+
+        private Frame(String name, Frame parent) {
+            this.name = name;
+            this.stack = parent == null ? name : parent.stack + ";" + name;
+        }
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> stacks = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Runs the action with a root frame, so the recorded stacks of different schemas are kept apart. The frames of
+     * keywords left by an exception of the action are closed with the root frame, so the walks which follow on the same
+     * thread are not recorded below them.
+     */
+    public <T> T profile(String name, Supplier<T> action) {
+        Deque<Frame> stack = frames.get();
+        int depth = stack.size();
+        enter(name);
+        try {
+            return action.get();
+        } finally {
+            while (stack.size() > depth) {
+                exit();
+            }
+        }
+    }
+
+    @Override
+    public WalkFlow onWalkStart(WalkEvent walkEvent) {
+        JsonValidator validator = walkEvent.getValidator();
+        enter(walkEvent.getKeyword() + " " + validator.getSchemaLocation());
+        return WalkFlow.CONTINUE;
+    }
+
+    @Override
+    public void onWalkEnd(WalkEvent walkEvent, Set<ValidationMessage> validationMessages) {
+        exit();
+    }
+
+    private void enter(String name) {
+        Deque<Frame> stack = frames.get();
+        stack.push(new Frame(name.replace(';', ','), stack.peek()));
+    }
+
+    private void exit() {
+        Deque<Frame> stack = frames.get();
+        Frame frame = stack.pop();
+        long totalNanos = System.nanoTime() - frame.startNanos;
+        long selfNanos = Math.max(totalNanos - frame.childNanos, 0);
+        if (!stack.isEmpty()) {
+            stack.peek().childNanos += totalNanos;
+        }
+        Stats frameStats = stats.computeIfAbsent(frame.name, name -> new Stats());
+        frameStats.calls.increment();
+        frameStats.totalNanos.add(totalNanos);
+        frameStats.selfNanos.add(selfNanos);
+        stacks.computeIfAbsent(frame.stack, name -> new LongAdder()).add(selfNanos);
+    }
+
+    /**
+     * Writes all keywords sorted by their cumulative time, the most expensive first.
+     */
+    public void writeTable(File file) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            writer.printf("%12s %12s %10s  %s%n", "total ms", "self ms", "calls", "keyword location");
+            stats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Stats> e) -> e.getValue().totalNanos.sum()).reversed())
+                .forEach(e -> writer.printf("%12.3f %12.3f %10d  %s%n",
+                    toMillis(e.getValue().totalNanos.sum()), toMillis(e.getValue().selfNanos.sum()),
+                    e.getValue().calls.sum(), e.getKey()));
+        }
+    }
+
+    /**
+     * Writes one line per stack with its self time in microseconds.
+     */
+    public void writeCollapsedStacks(File file) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            stacks.forEach((stack, nanos) -> writer.println(stack + " " + TimeUnit.NANOSECONDS.toMicros(nanos.sum())));
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
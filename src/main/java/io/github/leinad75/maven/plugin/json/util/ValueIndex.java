@@ -0,0 +1,178 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+/**
+ * Compact set of 64 bit value hashes, each mapped to the index of the first file it was added for. The hashes are
+ * kept in an open addressing table of 12 bytes per slot instead of one object per value, either on the heap or, for
+ * very large sets, in a memory mapped file. The table grows when it is half full and holds at most about 67 million
+ * values.
+ */
+public class ValueIndex implements Closeable {
+
+    private static final int SLOT_SIZE = 12;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / SLOT_SIZE;
+
+    private final File spillDirectory;
+    private ByteBuffer table;
+    private File spillFile;
+    private int capacity;
+    private int size;
+
+    public ValueIndex() {
+        this(null);
+    }
+
+    /**
+     * @param spillDirectory directory of the memory mapped table, or {@code null} to keep the table on the heap
+     */
+    public ValueIndex(final File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        table = allocate(INITIAL_CAPACITY);
+        capacity = INITIAL_CAPACITY;
+    }
+
+    /**
+     * Returns the hash of a value, never 0 which marks an empty slot.
+     */
+    public static long hash(final String value) {
+        final long hash = FileSampler.hash(0L, value);
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Adds the hash for the file unless it is contained already. Hashes must be created by {@link #hash(String)}.
+     *
+     * @return the index of the file the hash was added for before, or -1 if it was added now
+     */
+    public synchronized int putIfAbsent(final long hash, final int fileIndex) {
+        int slot = slot(hash, capacity);
+        long current;
+        while ((current = table.getLong(slot * SLOT_SIZE)) != 0) {
+            if (current == hash) {
+                return table.getInt(slot * SLOT_SIZE + Long.BYTES);
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        table.putLong(slot * SLOT_SIZE, hash);
+        table.putInt(slot * SLOT_SIZE + Long.BYTES, fileIndex);
+        if (++size * 2 > capacity) {
+            grow();
+        }
+        return -1;
+    }
+
+    public synchronized boolean contains(final long hash) {
+        int slot = slot(hash, capacity);
+        long current;
+        while ((current = table.getLong(slot * SLOT_SIZE)) != 0) {
+            if (current == hash) {
+                return true;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Calls the consumer with every hash and its file index.
+     */
+    public synchronized void forEach(final HashConsumer consumer) {
+        for (int slot = 0; slot < capacity; slot++) {
+            final long key = table.getLong(slot * SLOT_SIZE);
+            if (key != 0) {
+                consumer.accept(key, table.getInt(slot * SLOT_SIZE + Long.BYTES));
+            }
+        }
+    }
+
+    /**
+     * Consumer of a hash and a file index.
+     */
+    @FunctionalInterface
+    public interface HashConsumer {
+        void accept(long hash, int fileIndex);
+    }
+
+    private void grow() {
+        if (capacity * 2 > MAX_CAPACITY) {
+            throw new IllegalStateException("Value index exceeds " + MAX_CAPACITY / 2 + " values");
+        }
+        final ByteBuffer oldTable = table;
+        final int oldCapacity = capacity;
+        final File oldSpillFile = spillFile;
+        capacity = oldCapacity * 2;
+        table = allocate(capacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            final long key = oldTable.getLong(slot * SLOT_SIZE);
+            if (key != 0) {
+                int newSlot = slot(key, capacity);
+                while (table.getLong(newSlot * SLOT_SIZE) != 0) {
+                    newSlot = (newSlot + 1) & (capacity - 1);
+                }
+                table.putLong(newSlot * SLOT_SIZE, key);
+                table.putInt(newSlot * SLOT_SIZE + Long.BYTES, oldTable.getInt(slot * SLOT_SIZE + Long.BYTES));
+            }
+        }
+        delete(oldSpillFile);
+    }
+
+    private ByteBuffer allocate(final int slots) {
+        if (spillDirectory == null) {
+            return ByteBuffer.allocate(slots * SLOT_SIZE);
+        }
+        try {
+            Files.createDirectories(spillDirectory.toPath());
+            spillFile = File.createTempFile("value-index", ".bin", spillDirectory);
+            try (RandomAccessFile file = new RandomAccessFile(spillFile, "rw")) {
+                // a new file is filled with zeros, the mapping stays valid after the channel is closed
+                return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, (long) slots * SLOT_SIZE);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to create value index in " + spillDirectory, e);
+        }
+    }
+
+    private static int slot(final long key, final int capacity) {
+        return (int) (key ^ (key >>> 32)) & (capacity - 1);
+    }
+
+    private static void delete(final File file) {
+        if (file != null && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        delete(spillFile);
+        spillFile = null;
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import io.github.leinad75.maven.plugin.json.util.RecordFingerprints;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for class <code>ArrayItemsValidator</code>.
+ */
+public class ArrayItemsValidatorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final JsonSchema ITEMS_SCHEMA = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7)
+        .getSchema("{\"type\": \"object\", \"required\": [\"id\"], \"properties\": {\"id\": {\"type\": \"integer\"}}}");
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static ArrayItemsValidator validate(final String json, final RecordFingerprints knownRecords)
+        throws Exception {
+        final ArrayItemsValidator validator = new ArrayItemsValidator(OBJECT_MAPPER, ITEMS_SCHEMA, 2, POOL);
+        validator.setKnownRecords(knownRecords);
+        validator.validate(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        return validator;
+    }
+
+    @Test
+    public void testUnchangedRecordsAreSkipped() throws Exception {
+        final File file = new File(folder.getRoot(), "records.bin");
+        final ArrayItemsValidator first = validate("[{\"id\": 1}, {\"id\": \"2\"}, {\"id\": 3}, 4]",
+            RecordFingerprints.load(file));
+        Assert.assertEquals(4, first.getItemCount());
+        Assert.assertEquals(0, first.getUnchangedCount());
+        Assert.assertEquals(2, first.getMessageCount());
+        final long[] validFingerprints = first.getValidFingerprints();
+        Assert.assertEquals(2, validFingerprints.length);
+        RecordFingerprints.save(file, validFingerprints, validFingerprints.length);
+
+        // a record inserted in front keeps the fingerprints of the others, the invalid records are validated again
+        final ArrayItemsValidator second = validate("[{\"id\": 0}, {\"id\": 1}, {\"id\": \"2\"}, {\"id\": 3}, 4]",
+            RecordFingerprints.load(file));
+        Assert.assertEquals(5, second.getItemCount());
+        Assert.assertEquals(2, second.getUnchangedCount());
+        Assert.assertEquals(2, second.getMessageCount());
+        Assert.assertEquals("/2/id", second.getMessages().get(0).getInstanceLocation().toString());
+        Assert.assertEquals("/4", second.getMessages().get(1).getInstanceLocation().toString());
+    }
+
+    @Test
+    public void testWithoutKnownRecords() throws Exception {
+        final ArrayItemsValidator validator = validate("[{\"id\": 1}, \"text\"]", null);
+        Assert.assertEquals(2, validator.getItemCount());
+        Assert.assertEquals(1, validator.getMessageCount());
+        Assert.assertEquals(0, validator.getValidFingerprints().length);
+    }
+
+    @Test
+    public void testMessagesOfLowestIndexesAreKept() throws Exception {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\": \"").append(i).append("\"}");
+        }
+        final ArrayItemsValidator validator = new ArrayItemsValidator(OBJECT_MAPPER, ITEMS_SCHEMA, 7, POOL);
+        validator.validate(new ByteArrayInputStream(json.append(']').toString().getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(1000, validator.getMessageCount());
+        Assert.assertEquals(ArrayItemsValidator.MAX_MESSAGES, validator.getMessages().size());
+        for (int i = 0; i < ArrayItemsValidator.MAX_MESSAGES; i++) {
+            Assert.assertEquals("/" + i + "/id", validator.getMessages().get(i).getInstanceLocation().toString());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import io.github.leinad75.maven.plugin.json.util.MemoryAdmission;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for class <code>FileBatches</code>.
+ */
+public class FileBatchesTest {
+
+    private static final long LARGE_FILE_BYTES = FileBatches.MAX_BATCH_BYTES + 1;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String newFile(final String name, final long bytes) throws IOException {
+        final File file = folder.newFile(name);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(bytes);
+        }
+        return file.getPath();
+    }
+
+    @Test
+    public void testBatchEnds() throws Exception {
+        final List<String> files = new ArrayList<>();
+        files.add(newFile("small-1.json", 10));
+        files.add(newFile("small-2.json", 10));
+        files.add(newFile("large.json", LARGE_FILE_BYTES));
+        files.add(newFile("small-3.json", 10));
+        final FileBatches fileBatches = new FileBatches(files);
+        // a file exceeding the bytes of a batch ends the batch before it and is a batch of its own
+        Assert.assertEquals(2, fileBatches.getBatchEnd(0));
+        Assert.assertEquals(3, fileBatches.getBatchEnd(2));
+        Assert.assertEquals(4, fileBatches.getBatchEnd(3));
+    }
+
+    @Test
+    public void testBatchEndsOfArchiveEntries() {
+        final List<String> entries = new ArrayList<>();
+        for (int entry = 0; entry < FileBatches.MAX_BATCH_FILES + 6; entry++) {
+            entries.add("data.zip!/entry-" + entry + ".json");
+        }
+        final FileBatches fileBatches = new FileBatches(entries);
+        Assert.assertEquals(0, FileBatches.getFileSize(entries.get(0)));
+        Assert.assertEquals(FileBatches.MAX_BATCH_FILES, fileBatches.getBatchEnd(0));
+        Assert.assertEquals(entries.size(), fileBatches.getBatchEnd(FileBatches.MAX_BATCH_FILES));
+    }
+
+    @Test
+    public void testValidateAdmittedWithinBudget() throws Exception {
+        final List<String> files = new ArrayList<>();
+        for (int file = 0; file < 5; file++) {
+            files.add(newFile("large-" + file + ".json", LARGE_FILE_BYTES));
+        }
+        // the budget admits one large file at a time
+        final MemoryAdmission memoryAdmission = new MemoryAdmission(new MemoryAdmission(Long.MAX_VALUE)
+            .estimate(LARGE_FILE_BYTES));
+        final Set<Integer> validated = ConcurrentHashMap.newKeySet();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            new FileBatches(files).validateAdmitted(executorService, memoryAdmission, fileIndex -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                validated.add(fileIndex);
+                running.decrementAndGet();
+            });
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(Set.of(0, 1, 2, 3, 4), validated);
+        Assert.assertEquals(1, maxRunning.get());
+        Assert.assertEquals(5, memoryAdmission.getTasks());
+    }
+
+    @Test
+    public void testValidateAdmittedBatchesSmallFiles() throws Exception {
+        final List<String> files = new ArrayList<>();
+        for (int file = 0; file < 3; file++) {
+            files.add(newFile("small-" + file + ".json", 10));
+        }
+        final MemoryAdmission memoryAdmission = new MemoryAdmission(1L << 30);
+        final Set<Integer> validated = ConcurrentHashMap.newKeySet();
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            new FileBatches(files).validateAdmitted(executorService, memoryAdmission, validated::add);
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(Set.of(0, 1, 2), validated);
+        Assert.assertEquals(1, memoryAdmission.getTasks());
+        Assert.assertTrue(memoryAdmission.getSummary(), memoryAdmission.getSummary().startsWith(
+            "Memory admission: 1 tasks for 3 files"));
+    }
+}
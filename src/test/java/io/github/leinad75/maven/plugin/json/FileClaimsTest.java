@@ -0,0 +1,104 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for class <code>FileClaims</code>.
+ */
+public class FileClaimsTest {
+
+    private static final String KEY = "schema|strict";
+
+    private static List<String> files(final String... files) {
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    @Test
+    public void testFilesClaimedBeforeRemoved() throws Exception {
+        final ValidationContext context = new ValidationContext();
+        final FileClaims first = new FileClaims(context, Mockito.mock(Log.class));
+        final List<String> firstFiles = files("a.json", "b.json", "a.json");
+        first.claim(firstFiles, KEY, "schema");
+        // a file selected twice is validated once
+        Assert.assertEquals(Arrays.asList("a.json", "b.json"), firstFiles);
+
+        final FileClaims second = new FileClaims(context, Mockito.mock(Log.class));
+        final List<String> secondFiles = files("b.json", "c.json");
+        second.claim(secondFiles, KEY, "schema");
+        Assert.assertEquals(Collections.singletonList("c.json"), secondFiles);
+
+        final FileClaims otherSettings = new FileClaims(context, Mockito.mock(Log.class));
+        final List<String> otherFiles = files("a.json");
+        otherSettings.claim(otherFiles, KEY + "|pointers", "schema");
+        Assert.assertEquals(Collections.singletonList("a.json"), otherFiles);
+    }
+
+    @Test
+    public void testFailuresOfFilesClaimedBefore() throws Exception {
+        final ValidationContext context = new ValidationContext();
+        final FileClaims first = new FileClaims(context, Mockito.mock(Log.class));
+        first.claim(files("a.json", "b.json"), KEY, "schema");
+        final FileClaims second = new FileClaims(context, Mockito.mock(Log.class));
+        second.claim(files("a.json", "b.json"), KEY, "schema");
+
+        // the second validation waits for the outcomes of the first one
+        final CompletableFuture<Map<String, String>> failures = CompletableFuture.supplyAsync(() -> {
+            try {
+                return second.awaitFailuresClaimedBefore();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        first.recordOutcome("a.json", null);
+        Assert.assertFalse(failures.isDone());
+        first.recordOutcome("b.json", "b.json is invalid");
+        Assert.assertEquals(Collections.singletonMap("b.json", "b.json is invalid"), failures.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAbortedFilesFail() throws Exception {
+        final ValidationContext context = new ValidationContext();
+        final FileClaims first = new FileClaims(context, Mockito.mock(Log.class));
+        first.claim(files("a.json", "b.json"), KEY, "schema");
+        first.recordOutcome("a.json", null);
+        first.abort();
+        final FileClaims second = new FileClaims(context, Mockito.mock(Log.class));
+        second.claim(files("a.json", "b.json"), KEY, "schema");
+        Assert.assertEquals(Collections.singletonMap("b.json", "Failed to validate file b.json, its validation was aborted"),
+            second.awaitFailuresClaimedBefore());
+    }
+
+    @Test
+    public void testOutcomesIgnoredBeforeClaiming() throws Exception {
+        final ValidationContext context = new ValidationContext();
+        new FileClaims(context, Mockito.mock(Log.class)).recordOutcome("a.json", "a.json is invalid");
+        final List<String> files = files("a.json");
+        new FileClaims(context, Mockito.mock(Log.class)).claim(files, KEY, "schema");
+        Assert.assertEquals(Collections.singletonList("a.json"), files);
+    }
+}
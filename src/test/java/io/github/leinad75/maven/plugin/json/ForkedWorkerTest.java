@@ -0,0 +1,88 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests for class <code>ForkedWorker</code>.
+ */
+public class ForkedWorkerTest {
+
+    private static final byte[] NONCE = new byte[WorkerProtocol.NONCE_LENGTH];
+
+    static {
+        Arrays.fill(NONCE, (byte) 7);
+    }
+
+    @Test
+    public void testOtherConnectionsRejected() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(100);
+            CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return ForkedWorker.accept(serverSocket, NONCE, () -> true, System.currentTimeMillis() + 10_000);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            byte[] forgedNonce = NONCE.clone();
+            forgedNonce[0]++;
+            try (Socket forged = connect(serverSocket, forgedNonce)) {
+                // the forged connection is closed without reading a frame
+                assertEquals(-1, forged.getInputStream().read());
+            }
+            try (Socket worker = connect(serverSocket, NONCE); Socket socket = accepted.get(10, TimeUnit.SECONDS)) {
+                worker.getOutputStream().write(WorkerProtocol.DONE);
+                worker.getOutputStream().flush();
+                assertEquals(WorkerProtocol.DONE, new DataInputStream(socket.getInputStream()).readByte());
+            }
+        }
+    }
+
+    @Test
+    public void testWorkerNotConnecting() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(100);
+            ForkedWorker.accept(serverSocket, NONCE, () -> false, System.currentTimeMillis() + 10_000);
+            fail("Must throw an exception");
+        } catch (IOException e) {
+            assertEquals("did not connect", e.getMessage());
+        }
+    }
+
+    private static Socket connect(final ServerSocket serverSocket, final byte[] nonce) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeInt(WorkerProtocol.MAGIC);
+        out.write(nonce);
+        out.flush();
+        return socket;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Test;
+
+public class ForkedWorkersTest {
+
+    @Test
+    public void testParseForkCount() throws MojoExecutionException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        assertEquals(0, ForkedWorkers.parseForkCount("0"));
+        assertEquals(3, ForkedWorkers.parseForkCount(" 3 "));
+        assertEquals(processors, ForkedWorkers.parseForkCount("1C"));
+        assertEquals(Math.max(1, processors / 2), ForkedWorkers.parseForkCount("0.5c"));
+        assertEquals(0, ForkedWorkers.parseForkCount("0C"));
+    }
+
+    @Test
+    public void testParseJvmArgs() throws MojoExecutionException {
+        assertEquals(Collections.emptyList(), ForkedWorkers.parseJvmArgs(null));
+        assertEquals(Collections.emptyList(), ForkedWorkers.parseJvmArgs("  "));
+        assertEquals(Arrays.asList("-Xmx4g", "-Dtitle=JSON files", "-Dquote=it's", "-Dempty="),
+            ForkedWorkers.parseJvmArgs(" -Xmx4g\t\"-Dtitle=JSON files\" -Dquote=\"it's\" -Dempty=''"));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testUnclosedQuoteInJvmArgs() throws MojoExecutionException {
+        ForkedWorkers.parseJvmArgs("-Dtitle='JSON files");
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testInvalidForkCount() throws MojoExecutionException {
+        ForkedWorkers.parseForkCount("-1");
+    }
+}
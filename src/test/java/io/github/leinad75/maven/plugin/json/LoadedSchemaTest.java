@@ -0,0 +1,128 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.PathType;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import com.networknt.schema.SpecVersionDetector;
+import io.github.leinad75.maven.plugin.json.codegen.GeneratedValidator;
+import io.github.leinad75.maven.plugin.json.regex.RegexEngine;
+import io.github.leinad75.maven.plugin.json.regex.RegexKeyword;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for class <code>LoadedSchema</code>, the generated validators must decide the test files like the interpreter.
+ */
+public class LoadedSchemaTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String SCHEMA_DIRECTORY = "src/test/resources/input-schema-files/";
+    private static final List<String> SCHEMAS = Arrays.asList("data.schema", "data-draft07.schema",
+        "data-2019-09.schema", "data-2020-12.schema", "node.schema", "record.schema", "records.schema",
+        "unique-records.schema");
+    private static final List<String> DOCUMENT_DIRECTORIES = Arrays.asList("input-json-files",
+        "input-json-files-extra", "input-array-files");
+
+    private static LoadedSchema load(final String schemaFile) throws Exception {
+        return load(schemaFile, Mockito.mock(Log.class));
+    }
+
+    private static LoadedSchema load(final String schemaFile, final Log log) throws Exception {
+        final JsonNode schemaNode = OBJECT_MAPPER.readTree(new File(schemaFile));
+        final VersionFlag versionFlag = SpecVersionDetector.detect(schemaNode);
+        final SchemaValidatorsConfig config = new SchemaValidatorsConfig();
+        config.setPathType(PathType.JSON_POINTER);
+        final JsonSchemaFactory jsonSchemaFactory = JsonSchemaFactory.getInstance(versionFlag, builder -> builder
+            .metaSchema(RegexKeyword.getMetaSchema(versionFlag, RegexEngine.JDK, 10_000_000L)));
+        return new LoadedSchema(schemaFile, schemaNode, null, jsonSchemaFactory, config, log);
+    }
+
+    private static List<JsonNode> readDocuments() throws Exception {
+        final List<JsonNode> documents = new ArrayList<>();
+        for (final String directory : DOCUMENT_DIRECTORIES) {
+            final File[] files = new File("src/test/resources/" + directory).listFiles();
+            Assert.assertNotNull(directory, files);
+            for (final File file : files) {
+                documents.add(OBJECT_MAPPER.readTree(file));
+            }
+        }
+        return documents;
+    }
+
+    @Test
+    public void testGeneratedValidatorsConformToInterpreter() throws Exception {
+        final List<JsonNode> documents = readDocuments();
+        for (final String schemaName : SCHEMAS) {
+            final Log log = Mockito.mock(Log.class);
+            final LoadedSchema loadedSchema = load(SCHEMA_DIRECTORY + schemaName, log);
+            for (final boolean strict : new boolean[] {false, true}) {
+                final GeneratedValidator generatedValidator = loadedSchema.getGeneratedValidator(strict, false, null);
+                // the log tells why the schema was not generated
+                Assert.assertNotNull(Mockito.mockingDetails(log).getInvocations().toString(), generatedValidator);
+                for (final JsonNode document : documents) {
+                    final boolean valid = (strict ? loadedSchema.getStrictSchema() : loadedSchema.getSchema())
+                        .validate(document).isEmpty();
+                    Assert.assertEquals(schemaName + " strict=" + strict + " " + document, valid,
+                        generatedValidator.isValid(document));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGeneratedItemsValidatorConformsToInterpreter() throws Exception {
+        final LoadedSchema loadedSchema = load(SCHEMA_DIRECTORY + "records.schema");
+        for (final boolean strict : new boolean[] {false, true}) {
+            final GeneratedValidator generatedValidator = loadedSchema.getGeneratedValidator(strict, true, null);
+            Assert.assertNotNull(generatedValidator);
+            int invalid = 0;
+            for (final JsonNode document : readDocuments()) {
+                for (final JsonNode item : document.isArray() ? document : Arrays.asList(document)) {
+                    final boolean valid = loadedSchema.getItemsSchema(strict).validate(item).isEmpty();
+                    Assert.assertEquals("strict=" + strict + " " + item, valid, generatedValidator.isValid(item));
+                    invalid += valid ? 0 : 1;
+                }
+            }
+            // the corpus has to exercise both outcomes
+            Assert.assertTrue(invalid > 0);
+        }
+    }
+
+    @Test
+    public void testGeneratedValidatorShared() throws Exception {
+        final LoadedSchema loadedSchema = load(SCHEMA_DIRECTORY + "node.schema");
+        Assert.assertSame(loadedSchema.getGeneratedValidator(true, false, null),
+            loadedSchema.getGeneratedValidator(true, false, null));
+        Assert.assertNotSame(loadedSchema.getGeneratedValidator(true, false, null),
+            loadedSchema.getGeneratedValidator(false, false, null));
+    }
+
+    @Test
+    public void testUnsupportedSchemaFallsBackToInterpreter() throws Exception {
+        Assert.assertNull(load(SCHEMA_DIRECTORY + "prefixed-records.schema").getGeneratedValidator(false, false, null));
+    }
+}
@@ -30,6 +30,14 @@ public class ValidationTest {
         final Validation validation = new Validation();
         Assert.assertNull(validation.getJsonFile());
         Assert.assertNull(validation.getJsonSchema());
+        Assert.assertTrue(validation.isQuickCheck());
+    }
+
+    @Test
+    public void testValidationQuickCheck() {
+        final Validation validation = new Validation();
+        validation.setQuickCheck(false);
+        Assert.assertFalse(validation.isQuickCheck());
     }
 
     @Test
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.PathType;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import io.github.leinad75.maven.plugin.json.util.JsonInputs;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+/**
+ * Tests for class <code>YamlDocuments</code>.
+ */
+public class YamlDocumentsTest {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"required\": [\"name\"],"
+        + " \"properties\": {\"id\": {\"type\": \"integer\"}, \"name\": {\"type\": \"string\"}}}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<JsonNode> listened = new ArrayList<>();
+
+    private List<String> validate(final String yaml, final String... pointers) throws Exception {
+        final File file = folder.newFile("documents.yaml");
+        Files.write(file.toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+        final Validation validation = new Validation();
+        validation.setPointers(Arrays.asList(pointers));
+        final SchemaValidatorsConfig config = new SchemaValidatorsConfig();
+        config.setPathType(PathType.JSON_POINTER);
+        final JsonSchema schema = JsonSchemaFactory.getInstance(VersionFlag.V7).getSchema(SCHEMA, config);
+        final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+        final Log log = Mockito.mock(Log.class);
+        try (JsonInputs jsonInputs = new JsonInputs()) {
+            final YamlDocuments yamlDocuments = new YamlDocuments(validation, jsonInputs, yamlMapper,
+                new MessageLocations(validation, jsonInputs, yamlMapper, log), log);
+            return yamlDocuments.validate(file.getPath(), listened::add,
+                (subtree, location, errors, warnings) -> errors.addAll(location.getNameCount() == 0
+                    ? schema.validate(subtree)
+                    : schema.validate(schema.createExecutionContext(), subtree, subtree, location)));
+        }
+    }
+
+    @Test
+    public void testFailingDocumentsNumbered() throws Exception {
+        final List<String> messages = validate("id: 1\nname: first\n---\nid: two\nname: second\n---\nid: 3\n");
+        Assert.assertEquals(3, listened.size());
+        Assert.assertEquals(Arrays.asList("document 2: /id: string found, integer expected (line 4, column 5)",
+            "document 3: : required property 'name' not found (line 7, column 1)"), messages);
+    }
+
+    @Test
+    public void testSingleDocumentNotNumbered() throws Exception {
+        final List<String> messages = validate("id: one\nname: first\n");
+        Assert.assertEquals(Collections.singletonList("/id: string found, integer expected (line 1, column 5)"),
+            messages);
+    }
+
+    @Test
+    public void testSelectedSubtrees() throws Exception {
+        final List<String> messages = validate("spec:\n  id: 1\n---\nspec:\n  id: 2\n  name: second\n", "/spec");
+        Assert.assertEquals(Collections.singletonList("document 1: /spec: required property 'name' not found"
+            + " (line 2, column 3)"), messages);
+    }
+
+    @Test
+    public void testMissingPointerFails() throws Exception {
+        try {
+            validate("id: 1\nname: first\n", "/spec");
+            Assert.fail("Must throw an exception");
+        } catch (final MojoFailureException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("JSON pointer /spec not found in file "));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.codegen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.PathType;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import com.networknt.schema.SpecVersionDetector;
+import io.github.leinad75.maven.plugin.json.regex.RegexEngine;
+import io.github.leinad75.maven.plugin.json.regex.RegexKeyword;
+import java.io.File;
+import java.nio.file.Files;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for class <code>ValidatorCompiler</code>, the generated validators must decide like the interpreter.
+ */
+public class ValidatorCompilerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String DRAFT_04 = "\"$schema\": \"http://json-schema.org/draft-04/schema#\", ";
+    private static final String DRAFT_07 = "\"$schema\": \"http://json-schema.org/draft-07/schema#\", ";
+    private static final String DRAFT_2020_12 = "\"$schema\": \"https://json-schema.org/draft/2020-12/schema\", ";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static JsonSchema interpret(final String schema) throws Exception {
+        final JsonNode schemaNode = OBJECT_MAPPER.readTree(schema);
+        final VersionFlag versionFlag = SpecVersionDetector.detect(schemaNode);
+        final SchemaValidatorsConfig config = new SchemaValidatorsConfig();
+        config.setPathType(PathType.JSON_POINTER);
+        final JsonSchema jsonSchema = JsonSchemaFactory.getInstance(versionFlag, builder -> builder
+            .metaSchema(RegexKeyword.getMetaSchema(versionFlag, RegexEngine.JDK, 10_000_000L)))
+            .getSchema(schemaNode, config);
+        jsonSchema.initializeValidators();
+        return jsonSchema;
+    }
+
+    /**
+     * Asserts the generated validator accepts exactly the documents the interpreter accepts.
+     */
+    private static void assertConforms(final String schema, final String... documents) throws Exception {
+        final JsonSchema jsonSchema = interpret(schema);
+        final GeneratedValidator generatedValidator = ValidatorCompiler.compile(jsonSchema, "", "Test", "test", null);
+        for (final String document : documents) {
+            final JsonNode node = OBJECT_MAPPER.readTree(document);
+            Assert.assertEquals(schema + " " + document, jsonSchema.validate(node).isEmpty(),
+                generatedValidator.isValid(node));
+        }
+    }
+
+    private static void assertUnsupported(final String schema) throws Exception {
+        try {
+            ValidatorCompiler.compile(interpret(schema), "", "Test", "test", null);
+            Assert.fail("Must not generate " + schema);
+        } catch (final UnsupportedSchemaException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("is not supported"));
+        }
+    }
+
+    @Test
+    public void testObjectKeywords() throws Exception {
+        assertConforms("{" + DRAFT_07 + "\"type\": \"object\", \"properties\": {\"a\": {\"type\": \"string\"},"
+                + " \"b\": {\"type\": \"integer\", \"minimum\": 0, \"maximum\": 10}}, \"required\": [\"a\"],"
+                + " \"additionalProperties\": false, \"minProperties\": 1, \"maxProperties\": 2}",
+            "{\"a\": \"x\"}", "{\"a\": 1}", "{\"b\": 1}", "{\"a\": \"x\", \"b\": 11}", "{\"a\": \"x\", \"b\": -1}",
+            "{\"a\": \"x\", \"b\": 10}", "{\"a\": \"x\", \"c\": 1}", "{\"a\": \"x\", \"b\": 1.5}", "[]", "\"a\"",
+            "{}");
+    }
+
+    @Test
+    public void testPatternAndAdditionalProperties() throws Exception {
+        assertConforms("{" + DRAFT_07 + "\"properties\": {\"id\": {\"type\": \"integer\"}},"
+                + " \"patternProperties\": {\"^x-\": {\"type\": \"string\"}},"
+                + " \"additionalProperties\": {\"type\": \"boolean\"}}",
+            "{\"x-a\": \"s\"}", "{\"x-a\": 1}", "{\"id\": 1, \"y\": true}", "{\"y\": \"s\"}", "{\"id\": true}",
+            "{\"x-id\": \"s\", \"id\": 2}");
+    }
+
+    @Test
+    public void testStringKeywords() throws Exception {
+        assertConforms("{" + DRAFT_07 + "\"type\": \"string\", \"minLength\": 2, \"maxLength\": 3,"
+                + " \"pattern\": \"^[a-z]+$\"}",
+            "\"ab\"", "\"a\"", "\"abcd\"", "\"AB\"", "\"\\ud83d\\ude00\\ud83d\\ude00\"", "1", "null");
+    }
+
+    @Test
+    public void testArrayKeywords() throws Exception {
+        assertConforms("{" + DRAFT_07 + "\"type\": \"array\", \"items\": {\"type\": \"number\"}, \"minItems\": 1,"
+                + " \"maxItems\": 3, \"uniqueItems\": true}",
+            "[]", "[1]", "[1, 2, 3, 4]", "[1, 1]", "[1, \"a\"]", "[1.5, 2]", "{}");
+        // without items as an array additionalItems has no effect
+        assertConforms("{" + DRAFT_07 + "\"additionalItems\": false}", "[]", "[1]");
+        assertConforms("{" + DRAFT_07 + "\"items\": {\"type\": \"integer\"}, \"additionalItems\": false}",
+            "[1]", "[\"a\"]");
+        assertUnsupported("{" + DRAFT_07 + "\"items\": [{\"type\": \"integer\"}], \"additionalItems\": false}");
+    }
+
+    @Test
+    public void testNumberKeywords() throws Exception {
+        assertConforms("{" + DRAFT_07 + "\"exclusiveMinimum\": 0, \"exclusiveMaximum\": 5, \"multipleOf\": 2}",
+            "0", "2", "4", "5", "3", "-2", "\"x\"");
+        assertConforms("{" + DRAFT_04 + "\"type\": \"integer\", \"minimum\": 1, \"exclusiveMinimum\": true,"
+                + " \"maximum\": 3, \"exclusiveMaximum\": false}",
+            "1", "2", "3", "4", "2.0", "2.5");
+    }
+
+    @Test
+    public void testCompositions() throws Exception {
+        assertConforms("{" + DRAFT_07 + "\"anyOf\": [{\"type\": \"string\"}, {\"type\": \"integer\"}]}",
+            "\"x\"", "1", "true");
+        assertConforms("{" + DRAFT_07 + "\"oneOf\": [{\"minimum\": 0}, {\"maximum\": 10}]}", "5", "-1", "11", "\"x\"");
+        assertConforms("{" + DRAFT_07 + "\"allOf\": [{\"minimum\": 0}, {\"multipleOf\": 3}]}", "3", "4", "-3");
+        assertConforms("{" + DRAFT_07 + "\"not\": {\"type\": \"null\"}}", "null", "1");
+        assertConforms("{" + DRAFT_07 + "\"if\": {\"properties\": {\"kind\": {\"const\": \"a\"}}},"
+                + " \"then\": {\"required\": [\"a\"]}, \"else\": {\"required\": [\"b\"]}}",
+            "{\"kind\": \"a\", \"a\": 1}", "{\"kind\": \"a\"}", "{\"kind\": \"b\", \"b\": 1}", "{\"kind\": \"b\", \"a\": 1}");
+    }
+
+    @Test
+    public void testEnumAndBooleanSchemas() throws Exception {
+        assertConforms("{" + DRAFT_07 + "\"enum\": [\"a\", 1, {\"k\": [1, 2]}]}",
+            "\"a\"", "1", "{\"k\": [1, 2]}", "\"b\"", "{\"k\": [2, 1]}", "null");
+        assertConforms("{" + DRAFT_07 + "\"properties\": {\"a\": false, \"b\": true}}", "{\"a\": 1}", "{\"b\": 1}");
+    }
+
+    @Test
+    public void testReferences() throws Exception {
+        // recursive
+        assertConforms("{" + DRAFT_07 + "\"$ref\": \"#/definitions/node\", \"definitions\": {\"node\": {"
+                + "\"type\": \"object\", \"required\": [\"name\"], \"properties\": {\"children\": {\"type\": \"array\","
+                + " \"items\": {\"$ref\": \"#/definitions/node\"}}}}}}",
+            "{\"name\": 1, \"children\": [{\"name\": 2}]}", "{\"name\": 1, \"children\": [{}]}", "{}");
+        // the keywords next to a reference are ignored before 2019-09
+        assertConforms("{" + DRAFT_07 + "\"$ref\": \"#/definitions/text\", \"minLength\": 2,"
+            + " \"definitions\": {\"text\": {\"type\": \"string\"}}}", "\"a\"", "1");
+        assertConforms("{" + DRAFT_2020_12 + "\"$ref\": \"#/$defs/text\", \"minLength\": 2,"
+            + " \"$defs\": {\"text\": {\"type\": \"string\"}}}", "\"ab\"", "\"a\"", "1");
+    }
+
+    @Test
+    public void testFormatAnnotationSince201909() throws Exception {
+        assertConforms("{" + DRAFT_2020_12 + "\"format\": \"email\"}", "\"nope\"");
+        assertUnsupported("{" + DRAFT_07 + "\"format\": \"email\"}");
+    }
+
+    @Test
+    public void testUnsupportedSchemas() throws Exception {
+        assertUnsupported("{" + DRAFT_07 + "\"items\": [{\"type\": \"string\"}]}");
+        assertUnsupported("{" + DRAFT_2020_12 + "\"prefixItems\": [{\"type\": \"string\"}]}");
+        assertUnsupported("{" + DRAFT_07 + "\"properties\": {\"a\": {\"$id\": \"http://example.com/a\"}}}");
+        assertUnsupported("{" + DRAFT_07 + "\"propertyNames\": {\"maxLength\": 3}}");
+        assertUnsupported("{" + DRAFT_07 + "\"multipleOf\": 0.5}");
+    }
+
+    /**
+     * Tests the documents the generated code can not decide like the interpreter are left to the interpreter
+     */
+    @Test
+    public void testUndecidedDocumentsNotAccepted() throws Exception {
+        final String[][] cases = {
+            {"{" + DRAFT_07 + "\"type\": \"integer\"}", "1.0"},
+            {"{" + DRAFT_07 + "\"enum\": [1]}", "1.0"},
+            {"{" + DRAFT_07 + "\"const\": {\"a\": 1}}", "{\"a\": 1.0}"},
+            {"{" + DRAFT_07 + "\"uniqueItems\": true}", "[1, 1.0]"},
+            {"{" + DRAFT_07 + "\"not\": {\"type\": \"integer\"}}", "1.0"},
+            {"{" + DRAFT_07 + "\"multipleOf\": 3}", "9007199254740993"},
+        };
+        for (final String[] undecided : cases) {
+            final GeneratedValidator generatedValidator = ValidatorCompiler.compile(interpret(undecided[0]), "",
+                "Test", "test", null);
+            Assert.assertFalse(undecided[0], generatedValidator.isValid(OBJECT_MAPPER.readTree(undecided[1])));
+        }
+    }
+
+    @Test
+    public void testSourceWritten() throws Exception {
+        final File directory = folder.newFolder();
+        ValidatorCompiler.compile(interpret("{" + DRAFT_07 + "\"properties\": {\"*/\\\\u000a\": {\"type\": \"string\"}}}"),
+            "", "CommentValidator", "comment.schema", directory);
+        final File source = new File(directory, ValidatorGenerator.PACKAGE.replace('.', '/') + "/CommentValidator.java");
+        Assert.assertTrue(new String(Files.readAllBytes(source.toPath())).contains("extends GeneratedValidator"));
+    }
+
+    @Test
+    public void testClassNames() {
+        Assert.assertEquals("DataDraft07Schema", ValidatorCompiler.toClassName("data-draft07.schema"));
+        Assert.assertEquals("Schema2020", ValidatorCompiler.toClassName("2020"));
+    }
+}
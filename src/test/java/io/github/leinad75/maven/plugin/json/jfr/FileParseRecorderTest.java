@@ -0,0 +1,96 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+/**
+ * Tests for class <code>FileParseRecorder</code>.
+ */
+public class FileParseRecorderTest {
+
+    private static final byte[] CONTENT = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testStreamNotWrappedWithoutRecording() {
+        final InputStream inputStream = new ByteArrayInputStream(CONTENT);
+        final FileParseRecorder parseRecorder = new FileParseRecorder("data.json", inputStream);
+        assertSame(inputStream, parseRecorder.getInputStream());
+        parseRecorder.begin();
+        parseRecorder.end();
+    }
+
+    @Test
+    public void testBytesOfEachStep() throws Exception {
+        final List<RecordedEvent> events = record(() -> {
+            final FileParseRecorder parseRecorder = new FileParseRecorder("data.yml", new ByteArrayInputStream(CONTENT));
+            parseRecorder.begin();
+            parseRecorder.getInputStream().read(new byte[3]);
+            parseRecorder.end();
+            parseRecorder.begin();
+            parseRecorder.getInputStream().read(new byte[100]);
+            parseRecorder.end();
+        });
+        assertEquals(2, events.size());
+        assertEquals(3, events.get(0).getLong("bytes"));
+        assertEquals(CONTENT.length - 3, events.get(1).getLong("bytes"));
+    }
+
+    @Test
+    public void testRecordingStartedWhileParsing() throws Exception {
+        final FileParseRecorder parseRecorder = new FileParseRecorder("data.json", new ByteArrayInputStream(CONTENT));
+        final List<RecordedEvent> events = record(() -> {
+            parseRecorder.begin();
+            parseRecorder.getInputStream().read(new byte[100]);
+            parseRecorder.end();
+        });
+        assertEquals(1, events.size());
+        assertEquals("data.json", events.get(0).getString("filePath"));
+        assertEquals(0, events.get(0).getLong("bytes"));
+    }
+
+    private interface Parse {
+        void run() throws Exception;
+    }
+
+    private static List<RecordedEvent> record(final Parse parse) throws Exception {
+        final File recordingFile = File.createTempFile("file-parse", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FileParseEvent.class);
+            recording.start();
+            parse.run();
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+            return RecordingFile.readAllEvents(recordingFile.toPath()).stream()
+                .filter(event -> event.getEventType().getName().equals("io.github.leinad75.json.FileParse"))
+                .collect(Collectors.toList());
+        } finally {
+            recordingFile.delete();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2015 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+import com.networknt.schema.regex.RegularExpression;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for class <code>RegexCache</code>.
+ */
+public class RegexCacheTest {
+
+    private static final String CATASTROPHIC_PATTERN = "^(.*x){12}y$";
+    private static final String CATASTROPHIC_INPUT = "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx";
+
+    @Test
+    public void testJdkMatches() {
+        final RegularExpression regex = RegexCache.get(RegexEngine.JDK, "^/([^/]+(/[^/]+)*)?$", 0);
+        Assert.assertTrue(regex.matches("/var/lib"));
+        Assert.assertFalse(regex.matches("swap"));
+    }
+
+    @Test
+    public void testRe2jMatches() {
+        final RegularExpression regex = RegexCache.get(RegexEngine.RE2J, "^/([^/]+(/[^/]+)*)?$", 0);
+        Assert.assertTrue(regex.matches("/var/lib"));
+        Assert.assertFalse(regex.matches("swap"));
+    }
+
+    @Test
+    public void testPatternsCompiledOnce() {
+        RegexCache.get(RegexEngine.JDK, "^cached$", 0);
+        final int size = RegexCache.size();
+        RegexCache.get(RegexEngine.JDK, "^cached$", 1000);
+        Assert.assertEquals(size, RegexCache.size());
+    }
+
+    @Test(expected = RegexBudgetExceededException.class)
+    public void testJdkStepBudgetExceeded() {
+        RegexCache.get(RegexEngine.JDK, CATASTROPHIC_PATTERN, 100_000).matches(CATASTROPHIC_INPUT);
+    }
+
+    @Test
+    public void testRe2jLinearTime() {
+        Assert.assertFalse(RegexCache.get(RegexEngine.RE2J, CATASTROPHIC_PATTERN, 0).matches(CATASTROPHIC_INPUT));
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2015 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.regex;
+
+import com.networknt.schema.InputFormat;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for class <code>RegexKeyword</code>.
+ */
+public class RegexKeywordTest {
+
+    private static final String CATASTROPHIC_INPUT = "\"xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx\"";
+
+    private static JsonSchema getSchema(final VersionFlag versionFlag, final RegexEngine engine, final String schema) {
+        return JsonSchemaFactory.getInstance(versionFlag, builder -> builder
+            .metaSchema(RegexKeyword.getMetaSchema(versionFlag, engine, 100_000)))
+            .getSchema("{\"$schema\": \"" + versionFlag.getId() + "\", " + schema + "}");
+    }
+
+    /**
+     * Tests the keywords are replaced in every version, also in the versions whose keywords come from vocabularies
+     */
+    @Test
+    public void testKeywordsReplacedInAllVersions() {
+        for (final VersionFlag versionFlag : VersionFlag.values()) {
+            Assert.assertEquals(versionFlag.getId(), 1, getSchema(versionFlag, RegexEngine.RE2J,
+                "\"pattern\": \"^(.*x){12}y$\"").validate(CATASTROPHIC_INPUT, InputFormat.JSON).size());
+            try {
+                getSchema(versionFlag, RegexEngine.JDK, "\"pattern\": \"^(.*x){12}y$\"")
+                    .validate(CATASTROPHIC_INPUT, InputFormat.JSON);
+                Assert.fail("Step budget not applied to " + versionFlag.getId());
+            } catch (JsonSchemaException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("^(.*x){12}y$"));
+            }
+            try {
+                getSchema(versionFlag, RegexEngine.JDK, "\"patternProperties\": {\"^(.*x){12}y$\": true}")
+                    .validate("{" + CATASTROPHIC_INPUT + ": 1}", InputFormat.JSON);
+                Assert.fail("Step budget not applied to the patternProperties of " + versionFlag.getId());
+            } catch (JsonSchemaException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("^(.*x){12}y$"));
+            }
+        }
+    }
+}
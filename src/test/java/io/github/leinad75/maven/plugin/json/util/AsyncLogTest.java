@@ -0,0 +1,141 @@
+/**
+ * Copyright 2015 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+/**
+ * Tests for class <code>AsyncLog</code>.
+ */
+public class AsyncLogTest {
+
+    @Test
+    public void testMessagesWrittenInOrderOnClose() {
+        final Log delegate = Mockito.mock(Log.class);
+        final IllegalStateException error = new IllegalStateException();
+        try (AsyncLog log = new AsyncLog(delegate)) {
+            log.info("first");
+            log.warn("second");
+            log.error("third", error);
+            log.error(error);
+        }
+        final InOrder inOrder = Mockito.inOrder(delegate);
+        inOrder.verify(delegate).info("first");
+        inOrder.verify(delegate).warn("second");
+        inOrder.verify(delegate).error("third", error);
+        inOrder.verify(delegate).error(error);
+    }
+
+    @Test
+    public void testDebugDroppedWhenDisabled() {
+        final Log delegate = Mockito.mock(Log.class);
+        Mockito.doReturn(false).when(delegate).isDebugEnabled();
+        try (AsyncLog log = new AsyncLog(delegate)) {
+            log.debug("dropped");
+        }
+        Mockito.verify(delegate, Mockito.never()).debug(Mockito.any(CharSequence.class));
+    }
+
+    @Test
+    public void testWriterSurvivesFailingDelegate() {
+        final Log delegate = Mockito.mock(Log.class);
+        Mockito.doThrow(new IllegalStateException()).when(delegate).info("failing");
+        try (AsyncLog log = new AsyncLog(delegate)) {
+            log.info("failing");
+            log.info("next");
+        }
+        Mockito.verify(delegate).info("next");
+    }
+
+    @Test
+    public void testLoggingBlocksWhenQueueIsFull() throws InterruptedException {
+        final Log delegate = Mockito.mock(Log.class);
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return null;
+        }).when(delegate).info("first");
+        final int capacity = 4;
+        // the writer holds at most one batch, the queue at most its capacity: one more message has to wait
+        final int messages = AsyncLog.BATCH_SIZE + capacity + 1;
+        try (AsyncLog log = new AsyncLog(delegate, capacity, 0)) {
+            log.info("first");
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            final Thread producer = new Thread(() -> {
+                for (int i = 0; i < messages; i++) {
+                    log.info("message");
+                }
+            });
+            producer.start();
+            producer.join(500);
+            assertTrue(producer.isAlive());
+            release.countDown();
+            producer.join(10_000);
+            assertFalse(producer.isAlive());
+        }
+        Mockito.verify(delegate, Mockito.times(messages)).info("message");
+    }
+
+    @Test
+    public void testMessagesBeyondRateSuppressed() {
+        final Log delegate = Mockito.mock(Log.class);
+        final int messages = 1000;
+        try (AsyncLog log = new AsyncLog(delegate, 10)) {
+            for (int i = 0; i < messages; i++) {
+                log.error("failure");
+            }
+        }
+        final ArgumentCaptor<CharSequence> warning = ArgumentCaptor.forClass(CharSequence.class);
+        Mockito.verify(delegate).warn(warning.capture());
+        final Matcher matcher = Pattern.compile("(\\d+) messages suppressed, more than 10 messages were logged per second")
+            .matcher(warning.getValue());
+        assertTrue(warning.getValue().toString(), matcher.matches());
+        final int suppressed = Integer.parseInt(matcher.group(1));
+        // the permits refill while the loop runs, but never by much more than the burst of one second
+        assertTrue(String.valueOf(suppressed), suppressed >= messages - 20);
+        Mockito.verify(delegate, Mockito.times(messages - suppressed)).error("failure");
+    }
+
+    @Test
+    public void testMessagesAfterCloseWrittenDirectly() {
+        final Log delegate = Mockito.mock(Log.class);
+        final AsyncLog log = new AsyncLog(delegate, 1, 0);
+        log.info("queued");
+        log.close();
+        // the queue holds a single message, a queued write would block forever or be lost
+        log.info("first");
+        log.info("second");
+        log.close();
+        final InOrder inOrder = Mockito.inOrder(delegate);
+        inOrder.verify(delegate).info("queued");
+        inOrder.verify(delegate).info("first");
+        inOrder.verify(delegate).info("second");
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class CompactNodeFactoryTest {
+
+    private static final ObjectMapper COMPACT_MAPPER = new ObjectMapper().setNodeFactory(new CompactNodeFactory());
+    private static final String JSON = "{\"id\": 7, \"name\": \"record\", \"tags\": [\"a\", \"b\", \"a\"],"
+        + " \"nested\": {\"flag\": true, \"value\": null, \"ratio\": 0.5, \"big\": 123456789}}";
+
+    @Test
+    public void testSameTreeAsDefaultModel() throws Exception {
+        final JsonNode compact = COMPACT_MAPPER.readTree(JSON);
+        final JsonNode tree = new ObjectMapper().readTree(JSON);
+        assertEquals(tree, compact);
+        assertEquals(compact, tree);
+        assertEquals(tree.toString(), compact.toString());
+        assertEquals(7, compact.get("id").intValue());
+        assertSame(compact.at("/tags/0"), compact.at("/tags/2"));
+    }
+
+    @Test
+    public void testFieldsOfLargeObjects() throws Exception {
+        final StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 40; i++) {
+            json.append(i == 0 ? "" : ",").append("\"field").append(i).append("\": ").append(i);
+        }
+        final ObjectNode node = (ObjectNode) COMPACT_MAPPER.readTree(json.append('}').toString());
+        assertEquals(40, node.size());
+        assertEquals(39, node.get("field39").intValue());
+        node.remove("field3");
+        assertNull(node.get("field3"));
+        assertEquals(4, node.get("field4").intValue());
+        node.put("field4", "four");
+        final List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        assertEquals(39, names.size());
+        assertEquals("field4", names.get(3));
+        assertEquals("four", node.get("field4").textValue());
+    }
+
+    @Test
+    public void testEveryFieldOfObjectsAboveIndexThreshold() throws Exception {
+        final StringBuilder json = new StringBuilder("{");
+        final StringBuilder required = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            json.append(i == 0 ? "" : ",").append("\"f").append(i).append("\": ").append(i);
+            required.append(i == 0 ? "" : ",").append("\"f").append(i).append('"');
+        }
+        final JsonNode node = COMPACT_MAPPER.readTree(json.append('}').toString());
+        for (int i = 0; i < 20; i++) {
+            assertTrue("f" + i, node.has("f" + i));
+            assertEquals(i, node.get("f" + i).intValue());
+        }
+
+        final JsonSchema schema = JsonSchemaFactory.getInstance(VersionFlag.V7).getSchema("{\"type\": \"object\","
+            + " \"required\": " + required.append(']') + ", \"properties\": {\"f16\": {\"maximum\": 15}}}");
+        assertEquals(1, schema.validate(node).size());
+        assertTrue(schema.validate(node).iterator().next().getMessage().contains("f16"));
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2015 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class FileSamplerTest {
+
+    private static List<String> files(final int count) {
+        final List<String> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add("fixtures/file-" + i + ".json");
+        }
+        return files;
+    }
+
+    @Test
+    public void testCountSample() {
+        final List<String> sample = new FileSampler("10", 1L).select(files(1000), Function.identity(), file -> false);
+        assertEquals(10, sample.size());
+        assertEquals(sample, new FileSampler("10", 1L).select(files(1000), Function.identity(), file -> false));
+        assertNotEquals(sample, new FileSampler("10", 2L).select(files(1000), Function.identity(), file -> false));
+    }
+
+    @Test
+    public void testPercentageSampleIsStable() {
+        final List<String> sample = new FileSampler("10%", 7L).select(files(1000), Function.identity(), file -> false);
+        assertTrue(String.valueOf(sample.size()), sample.size() > 50 && sample.size() < 150);
+        // files added to the corpus do not change the selection of the existing files
+        final List<String> larger = new FileSampler("10%", 7L).select(files(2000), Function.identity(), file -> false);
+        assertEquals(sample, larger.subList(0, sample.size()));
+    }
+
+    @Test
+    public void testAlwaysIncluded() {
+        final List<String> sample = new FileSampler("0%", 1L).select(files(100), Function.identity(),
+            file -> file.equals("fixtures/file-42.json"));
+        assertEquals(List.of("fixtures/file-42.json"), sample);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSample() {
+        new FileSampler("half", 1L);
+    }
+}
@@ -81,6 +81,29 @@ public class FileUtilsTest {
         final List<String> files = FileUtils.getListOfFiles(validation);
         Assert.assertTrue(files.isEmpty());
     }
+    @Test
+    public void testGetListOfFilesArchiveEntries() throws MojoExecutionException {
+        final String directory = "src/test/resources/input-archive-files/";
+        final Validation validation = new Validation();
+        validation.setDirectory(directory);
+        validation.setArchives(true);
+        validation.setIncludes(Collections.singletonList("**/*.json"));
+        validation.setExcludes(Collections.singletonList("**/invalid_*"));
+        final List<String> files = FileUtils.getListOfFiles(validation);
+        Assert.assertEquals(1, files.size());
+        Assert.assertTrue(files.contains(directory + "data.zip!/conf/data.json"));
+    }
+
+    @Test
+    public void testGetListOfFilesArchivesDisabled() throws MojoExecutionException {
+        final String directory = "src/test/resources/input-archive-files/";
+        final Validation validation = new Validation();
+        validation.setDirectory(directory);
+        final List<String> files = FileUtils.getListOfFiles(validation);
+        Assert.assertEquals(2, files.size());
+        Assert.assertTrue(files.contains(directory + "data.zip"));
+        Assert.assertTrue(files.contains(directory + "data.json.gz"));
+    }
 /*
     @Test
     public void testLocateInputFile() throws ResourceNotFoundException, FileResourceCreationException, MojoExecutionException {
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for class <code>GitChanges</code>.
+ */
+public class GitChangesTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = temporaryFolder.getRoot().getCanonicalFile();
+        git("init", "-q");
+        write("base.json");
+        git("add", ".");
+        git("commit", "-q", "-m", "base");
+        git("tag", "base");
+    }
+
+    @Test
+    public void testChangedFilesWithQuotes() throws Exception {
+        assertChanged("data/new \"quoted\" file.json", "untracked \\ file.json");
+    }
+
+    @Test
+    public void testChangedFilesWithNonAsciiNames() throws Exception {
+        // file names which the platform encoding of the JVM can not represent can not be validated anyway
+        Assume.assumeTrue(Charset.forName(System.getProperty("sun.jnu.encoding", "UTF-8")).newEncoder()
+            .canEncode("gr\u00fc\u00dfe"));
+        assertChanged("daten/gr\u00fc\u00dfe.json", "\u00fcnversioniert.json");
+    }
+
+    /**
+     * Commits the first file, leaves the second one untracked and modifies a file committed at the base ref, which
+     * must all be listed.
+     */
+    private void assertChanged(final String committed, final String untracked) throws Exception {
+        write(committed);
+        git("add", ".");
+        git("commit", "-q", "-m", "change");
+        write(untracked);
+        write("base.json");
+
+        final Set<String> expected = new HashSet<>(Arrays.asList(new File(directory, committed).getAbsolutePath(),
+            new File(directory, untracked).getAbsolutePath(), new File(directory, "base.json").getAbsolutePath()));
+        assertEquals(expected, GitChanges.getChangedFiles(new File(directory, "base.json").getParentFile(), "base"));
+    }
+
+    private void write(final String path) throws IOException {
+        final File file = new File(directory, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), ("{\"changed\": " + System.nanoTime() + "}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void git(final String... arguments) throws Exception {
+        final String[] command = new String[arguments.length + 5];
+        command[0] = "git";
+        command[1] = "-c";
+        command[2] = "user.name=test";
+        command[3] = "-c";
+        command[4] = "user.email=test@example.com";
+        System.arraycopy(arguments, 0, command, 5, arguments.length);
+        final Process process = new ProcessBuilder(command).directory(directory).inheritIO().start();
+        assertEquals(String.join(" ", arguments), 0, process.waitFor());
+    }
+}
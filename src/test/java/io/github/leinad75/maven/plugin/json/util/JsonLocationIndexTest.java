@@ -0,0 +1,78 @@
+/**
+ * Copyright 2015 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Test;
+
+public class JsonLocationIndexTest {
+
+    private static final String DOCUMENT = "{\n"
+        + "  \"name\": \"test\",\n"
+        + "  \"items\": [\n"
+        + "    1,\n"
+        + "    {\"a/b\": true}\n"
+        + "  ]\n"
+        + "}\n";
+
+    @Test
+    public void testLocate() throws IOException {
+        final Map<String, JsonLocation> locations = JsonLocationIndex.locate(
+            new JsonFactory().createParser(DOCUMENT),
+            Arrays.asList("", "/name", "/items", "/items/1", "/items/1/a~1b", "/missing"));
+
+        assertEquals("line 1, column 1", JsonLocationIndex.format(locations.get("")));
+        assertEquals("line 2, column 11", JsonLocationIndex.format(locations.get("/name")));
+        assertEquals("line 3, column 12", JsonLocationIndex.format(locations.get("/items")));
+        assertEquals("line 5, column 5", JsonLocationIndex.format(locations.get("/items/1")));
+        assertEquals("line 5, column 13", JsonLocationIndex.format(locations.get("/items/1/a~1b")));
+        assertFalse(locations.containsKey("/missing"));
+    }
+
+    @Test
+    public void testLocateInDocumentOfStream() throws IOException {
+        final String stream = "name: first\n"
+            + "items: [1, 2]\n"
+            + "---\n"
+            + "name: second\n"
+            + "items:\n"
+            + "  - 1\n"
+            + "  - 2\n";
+
+        final Map<String, JsonLocation> first = JsonLocationIndex.locate(new YAMLFactory().createParser(stream), 0,
+            Arrays.asList("/name", "/items/1"));
+        assertEquals(1, first.get("/name").getLineNr());
+        assertEquals(2, first.get("/items/1").getLineNr());
+
+        final Map<String, JsonLocation> second = JsonLocationIndex.locate(new YAMLFactory().createParser(stream), 1,
+            Arrays.asList("/name", "/items/1"));
+        assertEquals(4, second.get("/name").getLineNr());
+        assertEquals(7, second.get("/items/1").getLineNr());
+
+        assertTrue(JsonLocationIndex.locate(new YAMLFactory().createParser(stream), 2,
+            Collections.singleton("/name")).isEmpty());
+    }
+}
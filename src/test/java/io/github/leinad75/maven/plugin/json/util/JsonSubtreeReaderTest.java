@@ -0,0 +1,70 @@
+/**
+ * Copyright 2015 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Test;
+
+public class JsonSubtreeReaderTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String DOCUMENT = "{\"skip\": {\"deep\": [1, 2, {\"spec\": 0}]},"
+        + " \"spec\": {\"id\": 1}, \"list\": [{\"a\": 1}, {\"a/b\": 2}]}";
+
+    @Test
+    public void testRead() throws IOException {
+        final Map<String, JsonNode> subtrees = JsonSubtreeReader.read(OBJECT_MAPPER,
+            OBJECT_MAPPER.getFactory().createParser(DOCUMENT), Arrays.asList("/spec", "/list/1/a~1b", "/missing"));
+
+        assertEquals(OBJECT_MAPPER.readTree("{\"id\": 1}"), subtrees.get("/spec"));
+        assertEquals(2, subtrees.get("/list/1/a~1b").intValue());
+        assertFalse(subtrees.containsKey("/missing"));
+    }
+
+    @Test
+    public void testReadRoot() throws IOException {
+        final Map<String, JsonNode> subtrees = JsonSubtreeReader.read(OBJECT_MAPPER,
+            OBJECT_MAPPER.getFactory().createParser(DOCUMENT), Arrays.asList(""));
+
+        assertEquals(OBJECT_MAPPER.readTree(DOCUMENT), subtrees.get(""));
+    }
+
+    @Test
+    public void testReadNested() throws IOException {
+        final Map<String, JsonNode> subtrees = JsonSubtreeReader.read(OBJECT_MAPPER,
+            OBJECT_MAPPER.getFactory().createParser(DOCUMENT),
+            Arrays.asList("/list/0/a", "/list", "/spec/missing", "/spec", "/spec/id"));
+
+        assertEquals(OBJECT_MAPPER.readTree("[{\"a\": 1}, {\"a/b\": 2}]"), subtrees.get("/list"));
+        assertEquals(1, subtrees.get("/list/0/a").intValue());
+        assertEquals(1, subtrees.get("/spec/id").intValue());
+        assertFalse(subtrees.containsKey("/spec/missing"));
+    }
+
+    @Test
+    public void testToPath() {
+        assertEquals("/list/1/a~1b", JsonSubtreeReader.toPath("/list/1/a~1b").toString());
+        assertEquals("", JsonSubtreeReader.toPath("").toString());
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class MemoryAdmissionTest {
+
+    @Test
+    public void testParseBudget() {
+        assertEquals(512L, MemoryAdmission.parseBudget("50%", 1024L));
+        assertEquals(512L << 20, MemoryAdmission.parseBudget("512m", 1024L));
+        assertEquals(2L << 30, MemoryAdmission.parseBudget("2G", 1024L));
+        assertEquals(1000L, MemoryAdmission.parseBudget("1000", 1024L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBudget() {
+        MemoryAdmission.parseBudget("half", 1024L);
+    }
+
+    @Test
+    public void testLearnedExpansionFactor() throws Exception {
+        final MemoryAdmission memoryAdmission = new MemoryAdmission(1L << 30);
+        assertEquals(8_000_000L, memoryAdmission.estimate(1_000_000L));
+        assertEquals(64 * 1024L, memoryAdmission.estimate(10L));
+        assertEquals(1L << 30, memoryAdmission.estimate(1L << 30));
+
+        final String json = "{\"id\": 1, \"name\": \"record\", \"tags\": [\"a\", \"b\"], \"valid\": true}";
+        assertTrue(memoryAdmission.shouldLearn());
+        memoryAdmission.learn(json.length(), new ObjectMapper().readTree(json));
+        assertTrue(memoryAdmission.getExpansionFactor() > 1 && memoryAdmission.getExpansionFactor() < 20);
+    }
+
+    @Test
+    public void testAcquireWaitsForBudget() throws Exception {
+        final MemoryAdmission memoryAdmission = new MemoryAdmission(100L);
+        memoryAdmission.acquire(80L, 1);
+        final CountDownLatch admitted = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            try {
+                memoryAdmission.acquire(50L, 1);
+                admitted.countDown();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+        memoryAdmission.release(80L);
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        thread.join();
+        memoryAdmission.release(50L);
+
+        // a task larger than the budget is admitted while nothing else runs
+        memoryAdmission.acquire(500L, 1);
+        assertEquals(3L, memoryAdmission.getTasks());
+        assertTrue(memoryAdmission.getSummary(), memoryAdmission.getSummary().contains("1 tasks waited"));
+    }
+}
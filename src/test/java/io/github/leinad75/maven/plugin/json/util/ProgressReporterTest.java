@@ -0,0 +1,69 @@
+/**
+ * Copyright 2015 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+/**
+ * Tests for class <code>ProgressReporter</code>.
+ */
+public class ProgressReporterTest {
+
+    @Test
+    public void testProgressLoggedOncePerInterval() {
+        final Log log = Mockito.mock(Log.class);
+        final ProgressReporter progressReporter = new ProgressReporter(log, 3, TimeUnit.HOURS.toNanos(1));
+        progressReporter.fileProcessed();
+        progressReporter.fileProcessed();
+        Assert.assertEquals(2, progressReporter.getProcessed());
+        Mockito.verify(log, Mockito.never()).info(Mockito.any(CharSequence.class));
+    }
+
+    @Test
+    public void testProgressLoggedWhenIntervalPassed() {
+        final Log log = Mockito.mock(Log.class);
+        final ProgressReporter progressReporter = new ProgressReporter(log, 2, 0);
+        progressReporter.fileProcessed();
+        progressReporter.fileProcessed();
+        final ArgumentCaptor<CharSequence> infos = ArgumentCaptor.forClass(CharSequence.class);
+        Mockito.verify(log, Mockito.times(2)).info(infos.capture());
+        Assert.assertTrue(infos.getAllValues().toString(),
+            infos.getAllValues().get(0).toString().startsWith("Validated 1/2 files ("));
+        Assert.assertTrue(infos.getAllValues().toString(),
+            infos.getAllValues().get(1).toString().matches("Validated 2/2 files \\(.* files/s, ETA 0:00\\)"));
+    }
+
+    @Test
+    public void testProgressRateAndEta() {
+        final ProgressReporter progressReporter = new ProgressReporter(Mockito.mock(Log.class), 30, 0);
+        // 10 files in 10 seconds, 20 files left
+        final String progress = progressReporter.getProgress(10, System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+        Assert.assertTrue(progress, progress.matches("Validated 10/30 files \\(1[.,]0 files/s, ETA 0:20\\)"));
+    }
+
+    @Test
+    public void testProgressLine() {
+        final ProgressReporter progressReporter = new ProgressReporter(Mockito.mock(Log.class), 30, 0);
+        final String progress = progressReporter.getProgress(10, System.nanoTime());
+        Assert.assertTrue(progress, progress.startsWith("Validated 10/30 files ("));
+        Assert.assertTrue(progress, progress.contains("ETA"));
+    }
+}
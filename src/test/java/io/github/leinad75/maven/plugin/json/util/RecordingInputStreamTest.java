@@ -0,0 +1,42 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class RecordingInputStreamTest {
+
+    @Test
+    public void testSkippedBytesAreRecorded() throws IOException {
+        try (RecordingInputStream inputStream = new RecordingInputStream(
+            new ByteArrayInputStream("{\"a\": 1}".getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals('{', inputStream.read());
+            assertEquals(4, inputStream.skip(4));
+            assertEquals(':', inputStream.getBuffer()[inputStream.indexOf(4)]);
+            assertEquals(0, inputStream.skip(0));
+            assertEquals(0, inputStream.skip(-1));
+            assertEquals(3, inputStream.skip(10));
+            // at the end of the stream
+            assertEquals(0, inputStream.skip(10));
+            assertEquals(-1, inputStream.read());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SchemaClosureTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final File MIRROR = new File("src/test/resources/schema-mirror");
+    private static final String ADDRESS = "https://schemas.example.com/common/address.json";
+    private static final String COUNTRY = "https://schemas.example.com/common/country.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static JsonNode schema(final String reference) throws IOException {
+        return OBJECT_MAPPER.readTree("{\"properties\": {\"a\": {\"$ref\": \"" + reference + "\"},"
+            + " \"b\": {\"$ref\": \"#/definitions/b\"}, \"c\": {\"$ref\": \"http://json-schema.org/draft-07/schema#\"}}}");
+    }
+
+    @Test
+    public void testResolveFromMirrorAndCache() throws Exception {
+        final File cache = folder.newFolder();
+        final Map<String, String> documents = new SchemaClosure(OBJECT_MAPPER, MIRROR, cache, true)
+            .resolve(schema(ADDRESS + "#/properties/street"), folder.getRoot().toURI());
+        assertEquals(2, documents.size());
+        assertTrue(documents.get(COUNTRY).contains("\"enum\""));
+
+        final SchemaClosure cached = new SchemaClosure(OBJECT_MAPPER, null, cache, true);
+        assertEquals(documents, cached.resolve(schema(ADDRESS), folder.getRoot().toURI()));
+        assertEquals("cache", cached.getSources().get(ADDRESS));
+        assertEquals("cache", cached.getSources().get(COUNTRY));
+    }
+
+    @Test
+    public void testCacheIndexIsMerged() throws Exception {
+        final File cache = folder.newFolder();
+        final SchemaClosure first = new SchemaClosure(OBJECT_MAPPER, MIRROR, cache, true);
+        // reads the index before the first closure saves it
+        final SchemaClosure second = new SchemaClosure(OBJECT_MAPPER, MIRROR, cache, true);
+        first.resolve(schema(ADDRESS), folder.getRoot().toURI());
+        second.resolve(schema(COUNTRY), folder.getRoot().toURI());
+
+        final SchemaClosure cached = new SchemaClosure(OBJECT_MAPPER, null, cache, true);
+        assertEquals(2, cached.resolve(schema(ADDRESS), folder.getRoot().toURI()).size());
+        assertEquals("cache", cached.getSources().get(ADDRESS));
+    }
+
+    @Test
+    public void testStrictOfflineFailsOnUnresolved() throws Exception {
+        try {
+            new SchemaClosure(OBJECT_MAPPER, MIRROR, null, true)
+                .resolve(schema("https://schemas.example.com/missing.json"), folder.getRoot().toURI());
+            fail("Must throw an exception");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("https://schemas.example.com/missing.json (offline"));
+        }
+    }
+
+    @Test
+    public void testUnresolvedAreLeftToTheFactoryOnline() throws Exception {
+        final SchemaClosure schemaClosure = new SchemaClosure(OBJECT_MAPPER, MIRROR, null, false);
+        final Map<String, String> documents = schemaClosure.resolve(schema("missing.json"), folder.getRoot().toURI());
+        assertTrue(documents.isEmpty());
+        assertEquals("file not found", schemaClosure.getUnresolved().get(new File(folder.getRoot(), "missing.json")
+            .toURI().toString()));
+    }
+
+    @Test
+    public void testEmbeddedIdsAreNotResolved() throws Exception {
+        final JsonNode schema = OBJECT_MAPPER.readTree("{\"$id\": \"https://schemas.example.com/root.json\","
+            + " \"properties\": {\"a\": {\"$ref\": \"embedded.json\"}, \"b\": {\"$ref\": \"legacy.json#/x\"},"
+            + " \"c\": {\"$ref\": \"common/country.json\"}},"
+            + " \"definitions\": {\"e\": {\"$id\": \"embedded.json\", \"type\": \"string\"},"
+            + " \"l\": {\"id\": \"legacy.json\", \"x\": {\"type\": \"integer\"}}}}");
+        final Map<String, String> documents = new SchemaClosure(OBJECT_MAPPER, MIRROR, null, true)
+            .resolve(schema, folder.getRoot().toURI());
+        assertEquals(1, documents.size());
+        assertTrue(documents.containsKey(COUNTRY));
+    }
+
+    @Test
+    public void testLocalFilesAreFollowed() throws Exception {
+        final File local = folder.newFile("local.json");
+        OBJECT_MAPPER.writeValue(local, schema(COUNTRY));
+        final Map<String, String> documents = new SchemaClosure(OBJECT_MAPPER, MIRROR, null, true)
+            .resolve(schema("local.json"), folder.getRoot().toURI());
+        assertEquals(1, documents.size());
+        assertTrue(documents.containsKey(COUNTRY));
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+import com.networknt.schema.walk.WalkEvent;
+import com.networknt.schema.walk.WalkFlow;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for class <code>SchemaProfiler</code>.
+ */
+public class SchemaProfilerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testStacksOfWalks() throws Exception {
+        final SchemaProfiler profiler = new SchemaProfiler();
+        final JsonSchema schema = compile(profiler, null);
+        final JsonNode valid = OBJECT_MAPPER.readTree("{\"name\": \"abc\"}");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(profiler.profile("schema", () -> schema.walk(valid, true).getValidationMessages()).isEmpty());
+        }
+
+        final List<String> table = write(profiler::writeTable);
+        assertTrue(table.toString(), table.stream().anyMatch(line -> line.contains(" 3  pattern ")));
+        final List<String> stacks = write(profiler::writeCollapsedStacks);
+        assertTrue(stacks.toString(), stacks.stream().anyMatch(line -> line.startsWith("schema;properties ")
+            && line.contains(";pattern ")));
+    }
+
+    @Test
+    public void testFramesOfFailedWalkClosed() throws Exception {
+        final SchemaProfiler profiler = new SchemaProfiler();
+        final JsonSchema failingSchema = compile(profiler, "pattern");
+        final JsonNode node = OBJECT_MAPPER.readTree("{\"name\": \"abc\"}");
+        try {
+            profiler.profile("failing", () -> failingSchema.walk(node, true));
+            fail("Must throw an exception");
+        } catch (final IllegalStateException e) {
+            assertEquals("pattern failed", e.getMessage());
+        }
+        final JsonSchema schema = compile(profiler, null);
+        profiler.profile("schema", () -> schema.walk(node, true));
+
+        final List<String> stacks = write(profiler::writeCollapsedStacks);
+        assertTrue(stacks.toString(), stacks.stream().anyMatch(line -> line.startsWith("schema;")));
+        assertFalse(stacks.toString(), stacks.stream().anyMatch(line -> line.contains(";schema")));
+    }
+
+    /**
+     * Compiles a schema walked with the profiler. With a failing keyword, a listener notified before the profiler throws
+     * once that keyword is walked, so the profiler misses the end of its walk.
+     */
+    private static JsonSchema compile(final SchemaProfiler profiler, final String failingKeyword) throws Exception {
+        final SchemaValidatorsConfig config = new SchemaValidatorsConfig();
+        if (failingKeyword != null) {
+            config.addKeywordWalkListener(new JsonSchemaWalkListener() {
+                @Override
+                public WalkFlow onWalkStart(final WalkEvent walkEvent) {
+                    return WalkFlow.CONTINUE;
+                }
+
+                @Override
+                public void onWalkEnd(final WalkEvent walkEvent, final Set<ValidationMessage> validationMessages) {
+                    if (failingKeyword.equals(walkEvent.getKeyword())) {
+                        throw new IllegalStateException(failingKeyword + " failed");
+                    }
+                }
+            });
+        }
+        config.addKeywordWalkListener(profiler);
+        return JsonSchemaFactory.getInstance(VersionFlag.V7).getSchema(OBJECT_MAPPER.readTree(
+            "{\"type\": \"object\", \"properties\": {\"name\": {\"type\": \"string\", \"pattern\": \"^[a-z]+$\"}}}"),
+            config);
+    }
+
+    private interface Writer {
+        void write(File file) throws Exception;
+    }
+
+    private List<String> write(final Writer writer) throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "profile.txt");
+        writer.write(file);
+        return Files.readAllLines(file.toPath());
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.leinad75.maven.plugin.json.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ValueIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertIndex(final ValueIndex index) {
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(-1, index.putIfAbsent(ValueIndex.hash("value-" + i), i));
+        }
+        assertEquals(5000, index.size());
+        assertEquals(42, index.putIfAbsent(ValueIndex.hash("value-42"), 7));
+        assertTrue(index.contains(ValueIndex.hash("value-4999")));
+        assertFalse(index.contains(ValueIndex.hash("value-5000")));
+        final AtomicInteger count = new AtomicInteger();
+        index.forEach((hash, fileIndex) -> count.incrementAndGet());
+        assertEquals(5000, count.get());
+    }
+
+    @Test
+    public void testHeapIndex() {
+        try (ValueIndex index = new ValueIndex()) {
+            assertIndex(index);
+        }
+    }
+
+    @Test
+    public void testMappedIndex() throws Exception {
+        final File directory = folder.newFolder();
+        try (ValueIndex index = new ValueIndex(directory)) {
+            assertIndex(index);
+            assertEquals(1, directory.list().length);
+        }
+        assertEquals(0, directory.list().length);
+    }
+}
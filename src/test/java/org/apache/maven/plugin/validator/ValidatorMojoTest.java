@@ -16,14 +16,47 @@
 package org.apache.maven.plugin.validator;
 
 import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
 import org.apache.maven.model.Build;
+import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.Mojo;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
 import org.apache.maven.plugin.testing.stubs.MavenProjectStub;
+import org.apache.maven.project.MavenProjectHelper;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 
+import io.github.leinad75.maven.plugin.json.AggregateValidatorMojo;
+import io.github.leinad75.maven.plugin.json.BenchmarkMojo;
+import io.github.leinad75.maven.plugin.json.BundleSchemaMojo;
+import io.github.leinad75.maven.plugin.json.Validation;
 import io.github.leinad75.maven.plugin.json.ValidatorMojo;
+import io.github.leinad75.maven.plugin.json.codegen.ValidatorEngine;
 
 /**
  * JSON validatorMojo Test.
@@ -57,6 +90,509 @@ public class ValidatorMojoTest extends AbstractMojoTestCase {
         performValidatorMojoSuccessCase("2020-12-pom.xml");
     }
 
+    public void testValidatorMojoSuccessCaseRegexEngines() {
+        performValidatorMojoSuccessCase("regex-pom.xml");
+    }
+
+    /**
+     * Tests the keyword profile written with profiling enabled
+     */
+    public void testValidatorMojoProfile() throws Exception {
+        final File profile = new File(getBasedir(), "target/classes/json-validator/profile.txt");
+        final File collapsedStacks = new File(getBasedir(), "target/classes/json-validator/profile.collapsed");
+        profile.delete();
+        collapsedStacks.delete();
+        performValidatorMojoSuccessCase("profile-pom.xml");
+        assertTrue(profile.isFile());
+        assertTrue(new String(Files.readAllBytes(profile.toPath()), StandardCharsets.UTF_8).contains("patternProperties"));
+        assertTrue(collapsedStacks.isFile());
+    }
+
+    /**
+     * Tests the profile counts each keyword once per validated instance and sorts the keywords by their total time
+     */
+    public void testValidatorMojoProfileCounts() throws Exception {
+        final File profile = new File(getBasedir(), "target/classes/json-validator/profile.txt");
+        final File collapsedStacks = new File(getBasedir(), "target/classes/json-validator/profile.collapsed");
+        profile.delete();
+        collapsedStacks.delete();
+        executeVerboseMojo(lookupValidatorMojo("profile-node-pom.xml"));
+
+        // "total ms, self ms, calls, keyword location" per line, after the header
+        final List<String> lines = Files.readAllLines(profile.toPath(), StandardCharsets.UTF_8);
+        final Map<String, Long> calls = new HashMap<>();
+        final List<Double> totals = new ArrayList<>();
+        for (final String line : lines.subList(1, lines.size())) {
+            final String[] columns = line.trim().split("\\s+", 4);
+            totals.add(Double.parseDouble(columns[0]));
+            calls.put(columns[3], Long.parseLong(columns[2]));
+        }
+        final String schema = new File(getBasedir(), "src/test/resources/input-schema-files/node.schema").getPath();
+        assertEquals(Long.valueOf(3), calls.get(schema));
+        assertEquals(Long.valueOf(3), calls.get("required #/required"));
+        assertEquals(Long.valueOf(3), calls.get("additionalProperties #/additionalProperties"));
+        assertEquals(Long.valueOf(2), calls.get("type #/properties/parentId/type"));
+        assertEquals(Long.valueOf(1), calls.get("items #/properties/tags/items"));
+        assertEquals(Long.valueOf(2), calls.get("type #/properties/tags/items/type"));
+        final List<Double> sortedTotals = new ArrayList<>(totals);
+        sortedTotals.sort(Collections.reverseOrder());
+        assertEquals(sortedTotals, totals);
+        // the schema frame holds all keywords, so it is the most expensive one
+        assertTrue(lines.get(1), lines.get(1).endsWith(schema));
+
+        final List<String> stacks = Files.readAllLines(collapsedStacks.toPath(), StandardCharsets.UTF_8);
+        assertEquals(calls.size(), stacks.size());
+        assertTrue(stacks.toString(), stacks.stream().allMatch(stack -> stack.startsWith(schema)));
+        assertTrue(stacks.toString(), stacks.stream().anyMatch(stack -> stack.startsWith(schema
+            + ";properties #/properties;items #/properties/tags/items;type #/properties/tags/items/type ")));
+    }
+
+    /**
+     * Tests the subtrees selected by pointers and the elements of split arrays are profiled
+     */
+    public void testValidatorMojoProfileSelectionsAndSplitArrays() throws Exception {
+        final File profile = new File(getBasedir(), "target/classes/json-validator/profile.txt");
+        for (final String pom : Arrays.asList("pointer-pom.xml", "split-array-pom.xml")) {
+            profile.delete();
+            final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/" + pom);
+            final ValidatorMojo mojo = (ValidatorMojo) lookupMojo("validate", testPom);
+            mojoSetup(mojo);
+            setVariableValueToObject(mojo, "profile", true);
+            mojo.execute();
+            assertTrue(pom, new String(Files.readAllBytes(profile.toPath()), StandardCharsets.UTF_8).contains("required"));
+        }
+    }
+
+    /**
+     * Tests the flight recorder events emitted for the validation phases
+     */
+    public void testValidatorMojoFlightRecorderEvents() throws Exception {
+        final File recordingFile = new File(getBasedir(), "target/json-validator-test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.leinad75.json.SchemaLoad");
+            recording.enable("io.github.leinad75.json.SchemaCompile");
+            recording.enable("io.github.leinad75.json.FileParse");
+            recording.enable("io.github.leinad75.json.FileValidation");
+            recording.start();
+            performValidatorMojoSuccessCase("pom.xml");
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+        }
+        final Set<String> eventNames = RecordingFile.readAllEvents(recordingFile.toPath()).stream()
+            .map(RecordedEvent::getEventType)
+            .map(EventType::getName)
+            .collect(Collectors.toSet());
+        assertTrue(eventNames.contains("io.github.leinad75.json.SchemaLoad"));
+        assertTrue(eventNames.contains("io.github.leinad75.json.FileParse"));
+        assertTrue(eventNames.contains("io.github.leinad75.json.FileValidation"));
+        recordingFile.delete();
+    }
+
+    /**
+     * Tests the parse events of YAML streams, split arrays, selected subtrees and archive entries, with the bytes read
+     */
+    public void testValidatorMojoFlightRecorderParseEvents() throws Exception {
+        final File recordingFile = new File(getBasedir(), "target/json-validator-parse-test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.leinad75.json.FileParse");
+            recording.start();
+            performValidatorMojoSuccessCase("yaml-pom.xml");
+            performValidatorMojoSuccessCase("split-array-pom.xml");
+            performValidatorMojoSuccessCase("pointer-pom.xml");
+            performValidatorMojoSuccessCase("archive-pom.xml");
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+        }
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile.toPath()).stream()
+            .filter(event -> event.getEventType().getName().equals("io.github.leinad75.json.FileParse"))
+            .collect(Collectors.toList());
+        for (final String file : Arrays.asList(".yml", "records.json", "manifest.json", "!/")) {
+            assertTrue(file, events.stream().anyMatch(event -> event.getString("filePath").contains(file)
+                && event.getLong("bytes") > 0));
+        }
+        recordingFile.delete();
+    }
+
+    /**
+     * Tests the validators generated from the schemas report the failures the interpreter reports, and their sources
+     * are written to the build directory
+     */
+    public void testValidatorMojoGeneratedEngine() throws Exception {
+        final File generatedDirectory = new File(getBasedir(), "target/classes/json-validator/generated");
+        FileUtils.deleteDirectory(generatedDirectory);
+        for (final String pom : Arrays.asList("generated-engine-pom.xml", "generated-engine-split-array-pom.xml")) {
+            final String generatedMessages = executeFailingMojo(pom);
+            final ValidatorMojo interpreterMojo = lookupValidatorMojo(pom);
+            @SuppressWarnings("unchecked")
+            final List<Validation> validations = (List<Validation>) getVariableValueFromObject(interpreterMojo,
+                "validations");
+            for (final Validation validation : validations) {
+                validation.setValidatorEngine(ValidatorEngine.INTERPRETER);
+            }
+            assertEquals(pom, executeFailingMojo(interpreterMojo), generatedMessages);
+            assertTrue(generatedMessages, generatedMessages.contains("required property"));
+        }
+
+        final String[] sources = new File(generatedDirectory, "io/github/leinad75/maven/plugin/json/codegen/generated")
+            .list((directory, name) -> name.endsWith(".java"));
+        assertNotNull(sources);
+        final Set<String> prefixes = Arrays.stream(sources).map(name -> name.substring(0, name.indexOf("Validator_")))
+            .collect(Collectors.toSet());
+        assertEquals(new HashSet<>(Arrays.asList("DataDraft07SchemaStrict", "RecordsSchemaItems")), prefixes);
+    }
+
+    /**
+     * Tests the parallel validation of the elements of a top-level array
+     */
+    public void testValidatorMojoSuccessCaseSplitArray() {
+        performValidatorMojoSuccessCase("split-array-pom.xml");
+    }
+
+    /**
+     * Tests a schema with prefixItems, whose first element is no item, validates the whole array
+     */
+    public void testValidatorMojoSplitArrayPrefixItems() {
+        performValidatorMojoSuccessCase("prefix-items-pom.xml");
+    }
+
+    /**
+     * Tests the keywords on the array itself, like minItems and uniqueItems, are checked with splitArray
+     */
+    public void testValidatorMojoSplitArrayKeywords() throws Exception {
+        final String messages = executeFailingMojo("invalid-array-keywords-pom.xml");
+        assertTrue(messages, messages.contains(": must have at least 4 items but found 3"));
+        assertTrue(messages, messages.contains(": must have only unique items in the array"));
+    }
+
+    /**
+     * Tests the instance locations reported for invalid elements of a top-level array, also once the valid elements
+     * are skipped by their fingerprints
+     */
+    public void testValidatorMojoInvalidSplitArray() throws Exception {
+        for (int run = 0; run < 2; run++) {
+            final String messages = executeFailingMojo("invalid-split-array-pom.xml");
+            assertTrue(messages, messages.contains("/7/name: integer found, string expected (line 32, column 13)"));
+            assertTrue(messages, messages.contains("/18: required property 'id' not found"));
+        }
+    }
+
+    /**
+     * Tests the records validated before against a referenced document are validated again once the document changed,
+     * although the schema itself did not
+     */
+    public void testValidatorMojoIncrementalReferencedSchemaChanged() throws Exception {
+        final File directory = new File(getBasedir(), "target/incremental-reference");
+        FileUtils.deleteDirectory(directory);
+        final File record = new File(directory, "mirror/schemas.example.com/common/record.json");
+        record.getParentFile().mkdirs();
+        Files.write(new File(directory, "records.schema").toPath(), ("{\"$schema\": \"http://json-schema.org/draft-07/schema#\","
+            + " \"type\": \"array\", \"items\": {\"$ref\": \"https://schemas.example.com/common/record.json\"}}")
+            .getBytes(StandardCharsets.UTF_8));
+        Files.write(record.toPath(), "{\"type\": \"object\", \"required\": [\"id\"]}".getBytes(StandardCharsets.UTF_8));
+        performValidatorMojoSuccessCase("incremental-reference-pom.xml");
+
+        Files.write(record.toPath(), "{\"type\": \"object\", \"required\": [\"id\", \"owner\"]}"
+            .getBytes(StandardCharsets.UTF_8));
+        final String messages = executeFailingMojo("incremental-reference-pom.xml");
+        assertTrue(messages, messages.contains("/0: required property 'owner' not found"));
+    }
+
+    /**
+     * Tests the validation of subtrees selected by JSON pointers
+     */
+    public void testValidatorMojoSuccessCasePointers() {
+        performValidatorMojoSuccessCase("pointer-pom.xml");
+    }
+
+    /**
+     * Tests the instance locations reported for an invalid subtree selected by a JSON pointer
+     */
+    public void testValidatorMojoInvalidPointerSubtree() throws Exception {
+        final String messages = executeFailingMojo("invalid-pointer-pom.xml");
+        assertTrue(messages, messages.contains("/variants/0/id: string found, integer expected (line 12, column 13)"));
+        assertTrue(messages, messages.contains("/variants/0: required property 'name' not found"));
+    }
+
+    /**
+     * Tests a file validated before in the run with other pointers is validated again
+     */
+    public void testValidatorMojoClaimedFileWithOtherPointers() throws Exception {
+        final String messages = executeFailingMojo("claimed-pointer-pom.xml");
+        assertTrue(messages, messages.contains("/variants/0: required property 'name' not found"));
+    }
+
+    /**
+     * Tests YAML files, detected by their extension, holding one or several documents
+     */
+    public void testValidatorMojoSuccessCaseYaml() {
+        performValidatorMojoSuccessCase("yaml-pom.xml");
+    }
+
+    /**
+     * Tests the documents and YAML lines reported for a multi-document stream
+     */
+    public void testValidatorMojoInvalidYamlDocuments() throws Exception {
+        final String messages = executeFailingMojo("invalid-yaml-pom.xml");
+        assertTrue(messages, messages.contains("document 2: /id: string found, integer expected (line 4, column 5)"));
+        assertTrue(messages, messages.contains("document 4: : required property 'name' not found (line 10, column 1)"));
+        assertFalse(messages, messages.contains("document 1:"));
+        assertFalse(messages, messages.contains("document 3:"));
+    }
+
+    /**
+     * Tests validations sharing forked workers, the failures are reported as in the Maven JVM
+     */
+    public void testValidatorMojoForkedWorkers() throws Exception {
+        final String messages = executeFailingMojo("fork-pom.xml");
+        assertTrue(messages, messages.contains("document 2: /id: string found, integer expected (line 4, column 5)"));
+        assertFalse(messages, messages.contains("record.yml"));
+        assertFalse(messages, messages.contains("data.json"));
+        assertFalse(messages, messages.contains("not validated"));
+    }
+
+    /**
+     * Tests the files held by a forked worker which exited are failed
+     */
+    public void testValidatorMojoForkedWorkerExited() throws Exception {
+        final String messages = executeFailingMojo("invalid-fork-pom.xml");
+        assertTrue(messages, messages.contains("data.json - not validated, the forked worker exited with code"));
+        assertTrue(messages, messages.contains("invalid_data.json - not validated, the forked worker exited with code"));
+    }
+
+    /**
+     * Tests unique keys and references across the files of a directory
+     */
+    public void testValidatorMojoSuccessCaseUniqueKeys() {
+        performValidatorMojoSuccessCase("unique-key-pom.xml");
+    }
+
+    /**
+     * Tests the duplicate keys and dangling references reported with a memory mapped index
+     */
+    public void testValidatorMojoInvalidUniqueKeys() throws Exception {
+        final String messages = executeFailingMojo("invalid-unique-key-pom.xml");
+        assertTrue(messages, messages.contains("Duplicate value \"root\" at /id in files "));
+        assertTrue(messages, messages.contains("Value \"missing\" at /parentId in file "));
+        assertTrue(messages, messages.contains("orphan.json not found at /id in any file"));
+        assertFalse(messages, messages.contains("Value \"root\""));
+    }
+
+    /**
+     * Tests the keys of the files left out of a sample are checked against the keys of the sampled files
+     */
+    public void testValidatorMojoUniqueKeysOfSampledFiles() throws Exception {
+        final String messages = executeFailingMojo("sampled-unique-key-pom.xml");
+        assertTrue(messages, messages.contains("Duplicate value \"root\" at /id in files "));
+        assertTrue(messages, messages.contains("root.json"));
+    }
+
+    /**
+     * Tests remote references resolved from a local mirror without network access
+     */
+    public void testValidatorMojoSuccessCaseOffline() {
+        performValidatorMojoSuccessCase("offline-pom.xml");
+    }
+
+    /**
+     * Tests a violation of a schema resolved from a local mirror
+     */
+    public void testValidatorMojoInvalidOffline() throws Exception {
+        final String messages = executeFailingMojo("invalid-offline-pom.xml");
+        assertTrue(messages, messages.contains("/address/country: does not have a value in the enumeration"));
+    }
+
+    /**
+     * Tests a schema bundle with its referenced documents, used offline and without the mirror by a validation
+     */
+    public void testBundleSchemaMojo() throws Exception {
+        final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/bundle-schema-pom.xml");
+        final BundleSchemaMojo bundleMojo = (BundleSchemaMojo) lookupMojo("bundle-schema", testPom);
+        assertNotNull(bundleMojo);
+        mojoSetup(bundleMojo);
+        final MavenProjectHelper projectHelper = Mockito.mock(MavenProjectHelper.class);
+        setVariableValueToObject(bundleMojo, "projectHelper", projectHelper);
+        bundleMojo.execute();
+        final File bundle = new File(getBasedir(), "target/schema-bundle/customer-schema-bundle.smile");
+        assertTrue(bundle.isFile());
+        Mockito.verify(projectHelper).attachArtifact(Mockito.any(), Mockito.eq("smile"), Mockito.eq("schema-bundle"),
+            Mockito.eq(bundle));
+
+        final String messages = executeFailingMojo("schema-bundle-pom.xml");
+        assertTrue(messages, messages.contains("invalid_customer.json"));
+        assertTrue(messages, messages.contains("/address/country: does not have a value in the enumeration"));
+    }
+
+    /**
+     * Tests the comparison of the document models
+     */
+    public void testBenchmarkMojo() throws Exception {
+        final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/benchmark-pom.xml");
+        final BenchmarkMojo benchmarkMojo = (BenchmarkMojo) lookupMojo("benchmark", testPom);
+        assertNotNull(benchmarkMojo);
+        mojoSetup(benchmarkMojo);
+        final Log log = Mockito.mock(Log.class);
+        benchmarkMojo.setLog(log);
+        benchmarkMojo.execute();
+        final ArgumentCaptor<CharSequence> infos = ArgumentCaptor.forClass(CharSequence.class);
+        Mockito.verify(log, Mockito.atLeastOnce()).info(infos.capture());
+        final String messages = infos.getAllValues().stream().map(CharSequence::toString).collect(Collectors.joining("\n"));
+        assertTrue(messages, messages.contains("Model: jackson"));
+        assertTrue(messages, messages.contains("Model: compact"));
+    }
+
+    /**
+     * Tests an empty sample of a directory with an invalid file, which fails once sampling is disabled
+     */
+    public void testValidatorMojoSample() throws Exception {
+        performValidatorMojoSuccessCase("sample-pom.xml");
+
+        final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/sample-pom.xml");
+        final ValidatorMojo mojo = (ValidatorMojo) lookupMojo("validate", testPom);
+        mojoSetup(mojo);
+        setVariableValueToObject(mojo, "sampling", false);
+        try {
+            mojo.execute();
+            fail("Must throw an exception");
+        } catch (final MojoFailureException e) {
+            assertEquals("Failed while validating json files.", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests a sample of a number of files selects the same files on every run and reports its coverage
+     */
+    public void testValidatorMojoSampleReproducible() throws Exception {
+        final List<String> first = executeVerboseMojo(lookupValidatorMojo("sample-count-pom.xml"));
+        final List<String> second = executeVerboseMojo(lookupValidatorMojo("sample-count-pom.xml"));
+        assertTrue(first.toString(), first.contains("Sample: 2 of 3 files, including 0 changed or recently modified files"));
+        assertTrue(first.toString(), first.stream().anyMatch(message -> message.matches(
+            "Succesfully processed 2 of 3 files \\(66\\.7% coverage\\) in \\d+ ms, a full run would take about \\d+ s\\.")));
+        assertEquals(2, getValidatedFiles(first).size());
+        assertEquals(getValidatedFiles(first), getValidatedFiles(second));
+    }
+
+    /**
+     * Tests the processed files are summarized once, with a line per file only if verbose
+     */
+    public void testValidatorMojoProcessedSummary() throws Exception {
+        final ValidatorMojo mojo = lookupValidatorMojo("sample-count-pom.xml");
+        setVariableValueToObject(mojo, "sampling", false);
+        final Log log = Mockito.mock(Log.class);
+        mojo.setLog(log);
+        mojo.execute();
+        final ArgumentCaptor<CharSequence> infos = ArgumentCaptor.forClass(CharSequence.class);
+        Mockito.verify(log, Mockito.atLeastOnce()).info(infos.capture());
+        final List<String> messages = infos.getAllValues().stream().map(CharSequence::toString)
+            .collect(Collectors.toList());
+        assertTrue(messages.toString(), messages.stream()
+            .anyMatch(message -> message.matches("Succesfully processed 3 files in \\d+ ms\\.")));
+        assertTrue(messages.toString(), getValidatedFiles(messages).isEmpty());
+
+        final ValidatorMojo verboseMojo = lookupValidatorMojo("sample-count-pom.xml");
+        setVariableValueToObject(verboseMojo, "sampling", false);
+        final List<String> verboseMessages = executeVerboseMojo(verboseMojo);
+        assertEquals(3, getValidatedFiles(verboseMessages).size());
+        assertTrue(verboseMessages.toString(), verboseMessages.stream()
+            .anyMatch(message -> message.matches("Succesfully processed 3 files in \\d+ ms\\.")));
+    }
+
+    /**
+     * Tests the recently modified files are validated in addition to the sample
+     */
+    public void testValidatorMojoSampleIncludesModifiedFiles() throws Exception {
+        final File directory = new File(getBasedir(), "target/sample-modified");
+        FileUtils.deleteDirectory(directory);
+        final long dayAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        for (final String name : Arrays.asList("root.json", "child.json", "grandchild.json")) {
+            final File file = new File(directory, name);
+            FileUtils.copyFile(new File(getBasedir(), "src/test/resources/input-index-files/valid/" + name), file);
+            assertTrue(file.setLastModified(name.equals("child.json") ? System.currentTimeMillis() : dayAgo));
+        }
+        final List<String> messages = executeVerboseMojo(lookupValidatorMojo("sample-modified-pom.xml"));
+        assertTrue(messages.toString(),
+            messages.contains("Sample: 1 of 3 files, including 1 changed or recently modified files"));
+        assertEquals(Collections.singleton(new File(directory, "child.json").getPath()), getValidatedFiles(messages));
+    }
+
+    /**
+     * Tests json entries of archives and compressed files
+     */
+    public void testValidatorMojoSuccessCaseArchive() {
+        performValidatorMojoSuccessCase("archive-pom.xml");
+    }
+
+    /**
+     * Tests the files validated by several threads are admitted as one batch by their estimated heap use and the
+     * admission is summarized
+     */
+    public void testValidatorMojoMemoryAdmissionSummary() throws Exception {
+        final List<String> messages = executeVerboseMojo(lookupValidatorMojo("archive-pom.xml"));
+        assertEquals(2, getValidatedFiles(messages).size());
+        assertTrue(messages.toString(), messages.stream().anyMatch(message -> message.matches(
+            "Memory admission: 1 tasks for 2 files, peak \\d+ of \\d+ MB admitted, 0 tasks waited \\d+ ms for memory,"
+                + " expansion factor \\d+[.,]\\d")));
+    }
+
+    /**
+     * Tests invalid json entry in an archive
+     */
+    public void testValidatorMojoInvalidArchiveEntry() {
+        final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/invalid-archive-pom.xml");
+        assertNotNull(testPom);
+        assertTrue(testPom.exists());
+        try {
+            final ValidatorMojo mojo = (ValidatorMojo) lookupMojo("validate", testPom);
+            assertNotNull(mojo);
+            mojoSetup(mojo);
+            mojo.execute();
+            fail("Must throw an exception");
+        } catch (final Exception e) {
+            assertEquals(MojoFailureException.class, e.getClass());
+        }
+    }
+
+    /**
+     * Tests json entries of dependency artifacts, the second run uses the cached result
+     */
+    public void testValidatorMojoDependencyArtifacts() throws Exception {
+        final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/dependency-pom.xml");
+        assertNotNull(testPom);
+        assertTrue(testPom.exists());
+        final File cacheFile = new File(getBasedir(), "target/classes/json-validator/dependency-cache.properties");
+        cacheFile.delete();
+        for (int run = 0; run < 2; run++) {
+            final ValidatorMojo mojo = (ValidatorMojo) lookupMojo("validate", testPom);
+            assertNotNull(mojo);
+            mojoSetupWithDependency(mojo);
+            final Log log = Mockito.mock(Log.class);
+            mojo.setLog(log);
+            mojo.execute();
+            final ArgumentCaptor<CharSequence> infos = ArgumentCaptor.forClass(CharSequence.class);
+            Mockito.verify(log, Mockito.atLeastOnce()).info(infos.capture());
+            assertEquals(run == 1, infos.getAllValues().stream()
+                .anyMatch(info -> info.toString().contains("config-bundle") && info.toString().contains("unchanged - skipping")));
+        }
+        assertTrue(cacheFile.isFile());
+    }
+
+    /**
+     * Tests invalid json entry in a dependency artifact
+     */
+    public void testValidatorMojoInvalidDependencyArtifact() {
+        final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/invalid-dependency-pom.xml");
+        assertNotNull(testPom);
+        assertTrue(testPom.exists());
+        try {
+            final ValidatorMojo mojo = (ValidatorMojo) lookupMojo("validate", testPom);
+            assertNotNull(mojo);
+            mojoSetupWithDependency(mojo);
+            mojo.execute();
+            fail("Must throw an exception");
+        } catch (final Exception e) {
+            assertEquals(MojoFailureException.class, e.getClass());
+        }
+    }
+
     /**
      * Tests invalid json data case
      */
@@ -246,6 +782,155 @@ public class ValidatorMojoTest extends AbstractMojoTestCase {
         }
     }
 
+    /**
+     * Tests the aggregate goal validating the configurations of several modules with shared schemas and overlapping
+     * files in one pass
+     */
+    public void testAggregateValidatorMojoSuccessCase() throws Exception {
+        final AggregateValidatorMojo mojo = lookupAggregateMojo();
+        setVariableValueToObject(mojo, "reactorProjects", Arrays.asList(
+            new ReactorModuleStub("module-a", "**/data.json"),
+            new ReactorModuleStub("module-b", "**/*.json", "**/invalid_data.json"),
+            new ReactorModuleStub("module-c", null)));
+        mojo.execute();
+    }
+
+    /**
+     * Tests the aggregate goal compiles a schema shared by the validations of several modules once, counted by the
+     * flight recorder events of the compilations
+     */
+    public void testAggregateValidatorMojoCompilesSchemaOnce() throws Exception {
+        final File recordingFile = new File(getBasedir(), "target/json-validator-compile-test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.leinad75.json.SchemaCompile");
+            recording.start();
+            final AggregateValidatorMojo mojo = lookupAggregateMojo();
+            setVariableValueToObject(mojo, "reactorProjects", Arrays.asList(
+                new ReactorModuleStub("module-a", "**/data.json"),
+                new ReactorModuleStub("module-b", "**/*.json", "**/invalid_data.json"),
+                new ReactorModuleStub("module-c", "**/*.json", "**/invalid_data.json")));
+            mojo.execute();
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+        }
+        final List<String> compilations = RecordingFile.readAllEvents(recordingFile.toPath()).stream()
+            .filter(event -> event.getEventType().getName().equals("io.github.leinad75.json.SchemaCompile"))
+            .map(event -> event.getString("schemaPath") + "|" + event.getBoolean("strict"))
+            .collect(Collectors.toList());
+        assertFalse(compilations.isEmpty());
+        assertEquals(compilations.toString(), new HashSet<>(compilations).size(), compilations.size());
+        recordingFile.delete();
+    }
+
+    /**
+     * Tests the aggregate goal with an invalid file in one module
+     */
+    public void testAggregateValidatorMojoInvalidModule() throws Exception {
+        final AggregateValidatorMojo mojo = lookupAggregateMojo();
+        setVariableValueToObject(mojo, "reactorProjects", Arrays.asList(
+            new ReactorModuleStub("module-a", "**/data.json"),
+            new ReactorModuleStub("module-b", "**/invalid_data.json")));
+        try {
+            mojo.execute();
+            fail("Must throw an exception");
+        } catch (final MojoFailureException e) {
+            assertTrue(e.getMessage().contains("module-b"));
+            assertFalse(e.getMessage().contains("module-a"));
+        }
+    }
+
+    /**
+     * Tests the aggregate goal failing every module which selected an invalid file, although it is validated once
+     */
+    public void testAggregateValidatorMojoInvalidFileOfSeveralModules() throws Exception {
+        final AggregateValidatorMojo mojo = lookupAggregateMojo();
+        setVariableValueToObject(mojo, "reactorProjects", Arrays.asList(
+            new ReactorModuleStub("module-a", "**/invalid_data.json"),
+            new ReactorModuleStub("module-b", "**/data.json"),
+            new ReactorModuleStub("module-c", "**/invalid_data.json")));
+        try {
+            mojo.execute();
+            fail("Must throw an exception");
+        } catch (final MojoFailureException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("module-a"));
+            assertFalse(e.getMessage(), e.getMessage().contains("module-b"));
+            assertTrue(e.getMessage(), e.getMessage().contains("module-c"));
+        }
+    }
+
+    /**
+     * Tests the aggregate goal resolving the paths of a module against its base directory, not the working directory
+     */
+    public void testAggregateValidatorMojoModuleRelativePaths() throws Exception {
+        // the schema cache of an earlier run would resolve the references without the mirror
+        FileUtils.deleteDirectory(new File(getBasedir(), "target/module-relative"));
+        final AggregateValidatorMojo mojo = lookupAggregateMojo();
+        setVariableValueToObject(mojo, "reactorProjects", Arrays.asList(
+            new ReactorModuleStub("module-relative", new File(getBasedir(), "src/test/resources"),
+                "<jsonSchema>input-schema-files/customer.schema</jsonSchema>"
+                    + "<jsonFile>input-offline-files/customer.json</jsonFile>"
+                    + "<schemaMirror>schema-mirror</schemaMirror><strictOffline>true</strictOffline>")));
+        mojo.execute();
+    }
+
+    /**
+     * Executes the mojo of the test pom, which must fail, and returns all logged errors.
+     */
+    private String executeFailingMojo(final String pom) throws Exception {
+        return executeFailingMojo(lookupValidatorMojo(pom));
+    }
+
+    private ValidatorMojo lookupValidatorMojo(final String pom) throws Exception {
+        final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/" + pom);
+        assertTrue(testPom.exists());
+        final ValidatorMojo mojo = (ValidatorMojo) lookupMojo("validate", testPom);
+        assertNotNull(mojo);
+        mojoSetup(mojo);
+        return mojo;
+    }
+
+    private String executeFailingMojo(final ValidatorMojo mojo) throws Exception {
+        final Log log = Mockito.mock(Log.class);
+        mojo.setLog(log);
+        try {
+            mojo.execute();
+            fail("Must throw an exception");
+        } catch (final MojoFailureException e) {
+            assertEquals("Failed while validating json files.", e.getMessage());
+        }
+        final ArgumentCaptor<CharSequence> errors = ArgumentCaptor.forClass(CharSequence.class);
+        Mockito.verify(log, Mockito.atLeastOnce()).error(errors.capture());
+        return errors.getAllValues().stream().map(CharSequence::toString).collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Executes the mojo with verbose logging and returns the info messages.
+     */
+    private List<String> executeVerboseMojo(final ValidatorMojo mojo) throws Exception {
+        final Log log = Mockito.mock(Log.class);
+        mojo.setLog(log);
+        setVariableValueToObject(mojo, "verbose", true);
+        mojo.execute();
+        final ArgumentCaptor<CharSequence> infos = ArgumentCaptor.forClass(CharSequence.class);
+        Mockito.verify(log, Mockito.atLeastOnce()).info(infos.capture());
+        return infos.getAllValues().stream().map(CharSequence::toString).collect(Collectors.toList());
+    }
+
+    private static Set<String> getValidatedFiles(final List<String> messages) {
+        return messages.stream()
+            .filter(message -> message.startsWith("File: ") && message.endsWith(" - validated - Success"))
+            .map(message -> message.substring("File: ".length(), message.length() - " - validated - Success".length()))
+            .collect(Collectors.toSet());
+    }
+
+    private AggregateValidatorMojo lookupAggregateMojo() throws Exception {
+        final File testPom = new File(getBasedir(), "src/test/resources/plugin-test-pom-files/aggregate-pom.xml");
+        assertTrue(testPom.exists());
+        final AggregateValidatorMojo mojo = (AggregateValidatorMojo) lookupMojo("aggregate", testPom);
+        assertNotNull(mojo);
+        return mojo;
+    }
+
     /**
      * Tests pom with no validation directives.
      */
@@ -268,7 +953,87 @@ public class ValidatorMojoTest extends AbstractMojoTestCase {
         setVariableValueToObject(mojo, "project", new TestMavenProjectStub());
     }
 
+    protected void mojoSetupWithDependency(final Mojo mojo) throws Exception {
+        final Artifact artifact = new DefaultArtifact("com.example", "config-bundle", "1.0", Artifact.SCOPE_COMPILE,
+            "jar", null, new DefaultArtifactHandler("jar"));
+        artifact.setFile(new File(getBasedir(), "src/test/resources/input-archive-files/data.zip"));
+        final TestMavenProjectStub project = new TestMavenProjectStub();
+        project.setArtifacts(Collections.singleton(artifact));
+        setVariableValueToObject(mojo, "project", project);
+    }
+
+    /**
+     * Reactor module configuring the validation of the test input files with paths relative to its base directory.
+     */
+    private static final class ReactorModuleStub extends MavenProjectStub {
+        private final Plugin plugin;
+        private final File basedir;
+
+        ReactorModuleStub(final String artifactId, final String include, final String... excludes) throws Exception {
+            this(artifactId, null, include == null ? null : validation(include, excludes));
+        }
+
+        /**
+         * @param validation the content of the validation element, or {@code null} for a module without validations
+         */
+        ReactorModuleStub(final String artifactId, final File basedir, final String validation) throws Exception {
+            setGroupId("com.example");
+            setArtifactId(artifactId);
+            this.basedir = basedir;
+            if (validation == null) {
+                plugin = null;
+                return;
+            }
+            plugin = new Plugin();
+            plugin.setGroupId("io.github.leinad75");
+            plugin.setArtifactId("json-validator-maven-plugin");
+            plugin.setConfiguration(Xpp3DomBuilder.build(new StringReader(
+                "<configuration><validations><validation>" + validation + "</validation></validations></configuration>")));
+        }
+
+        private static String validation(final String include, final String... excludes) {
+            final StringBuilder validation = new StringBuilder()
+                .append("<directory>src/test/resources/input-json-files</directory>")
+                .append("<jsonSchema>src/test/resources/input-schema-files/data.schema</jsonSchema>")
+                .append("<includes><include>").append(include).append("</include></includes><excludes>");
+            for (final String exclude : excludes) {
+                validation.append("<exclude>").append(exclude).append("</exclude>");
+            }
+            return validation.append("</excludes>").toString();
+        }
+
+        public File getBasedir() {
+            return basedir != null ? basedir : super.getBasedir();
+        }
+
+        public Plugin getPlugin(final String pluginKey) {
+            return plugin != null && plugin.getKey().equals(pluginKey) ? plugin : null;
+        }
+
+        public Build getBuild() {
+            return new Build() {
+                private static final long serialVersionUID = 1L;
+
+                public String getDirectory() {
+                    // the build output of all modules stays in the target directory of the plugin
+                    return ReactorModuleStub.super.getBasedir()
+                        + (basedir != null ? "/target/" + getArtifactId() : "/target/classes");
+                }
+            };
+        }
+    }
+
     private static final class TestMavenProjectStub extends MavenProjectStub {
+        private Set<Artifact> artifacts = Collections.emptySet();
+
+        public Set<Artifact> getArtifacts() {
+            return artifacts;
+        }
+
+        public void setArtifacts(final Set<Artifact> artifacts) {
+            this.artifacts = artifacts;
+        }
+
         public File getFile() {
             return new File(getBasedir(), "target/classes");
         }